@@ -2,6 +2,7 @@ package entity;
 
 import helper.Colour;
 import helper.Direction;
+import helper.PieceType;
 import helper.Position;
 
 import java.util.Map;
@@ -82,6 +83,16 @@ public abstract class BasePiece {
         return directions;
     }
 
+    /**
+     * Gets the type of this piece.
+     * 
+     * <p>Used where pieces are handled by kind rather than by class,
+     * such as evaluation and compact board encodings.
+     * 
+     * @return Type of the piece
+     */
+    public abstract PieceType getType();
+
     /**
      * Calculates all possible moves for this piece from its current position.
      * 
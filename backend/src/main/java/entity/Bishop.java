@@ -2,6 +2,7 @@ package entity;
 
 import helper.Colour;
 import helper.Direction;
+import helper.PieceType;
 import helper.Position;
 import utility.Log;
 
@@ -67,6 +68,15 @@ public class Bishop extends BasePiece {
         return positionSet;
     }
 
+    /**
+     * Returns the type of this piece
+     * @return PieceType.BISHOP
+     */
+    @Override
+    public PieceType getType() {
+        return PieceType.BISHOP;
+    }
+
     /**
      * Returns custom string representation of the class
      * @return String
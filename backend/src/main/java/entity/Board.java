@@ -1,20 +1,29 @@
 package entity;
 
 import com.google.common.collect.ImmutableSet;
+import entity.evaluation.IncrementalEvaluator;
+import entity.tablebase.EndgameTablebase;
 import helper.Colour;
+import helper.DrawReason;
 import helper.InvalidMoveException;
 import helper.InvalidPositionException;
 import helper.Position;
+import helper.TablebaseResult;
+import helper.TerminalState;
 import utility.BoardAdapter;
+import utility.GameMetrics;
 import utility.Log;
 import utility.PieceFactory;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
 import java.util.Set;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.stream.Collectors;
 import java.util.Collections;
 
@@ -34,6 +43,10 @@ import java.util.Collections;
  * can contain pieces from both WHITE and BLACK color spaces. This allows
  * for complex move validation and piece interaction in three-player chess.
  * 
+ * <p>A board, including its lazily filled move caches, is not thread-safe
+ * and must be used by one thread at a time. Other threads read the
+ * immutable version returned by {@link #snapshot()}.
+ * 
  * @see BasePiece
  * @see Position
  * @see Colour
@@ -44,6 +57,29 @@ public class Board {
     /** Logger tag for this class */
     private static final String TAG = "Board";
 
+    /** Castling right: WHITE king side */
+    public static final int WHITE_KINGSIDE = 1;
+    /** Castling right: WHITE queen side */
+    public static final int WHITE_QUEENSIDE = 2;
+    /** Castling right: BLACK king side */
+    public static final int BLACK_KINGSIDE = 4;
+    /** Castling right: BLACK queen side */
+    public static final int BLACK_QUEENSIDE = 8;
+    /** All castling rights, as in the starting position */
+    public static final int ALL_CASTLING = 15;
+
+    /** Castling rights lost when a piece moves from or to each square */
+    private static final int[] CASTLING_LOST = new int[64];
+
+    static {
+        CASTLING_LOST[60] = WHITE_KINGSIDE | WHITE_QUEENSIDE; // e1
+        CASTLING_LOST[63] = WHITE_KINGSIDE;                   // h1
+        CASTLING_LOST[56] = WHITE_QUEENSIDE;                  // a1
+        CASTLING_LOST[4] = BLACK_KINGSIDE | BLACK_QUEENSIDE;  // e8
+        CASTLING_LOST[7] = BLACK_KINGSIDE;                    // h8
+        CASTLING_LOST[0] = BLACK_QUEENSIDE;                   // a8
+    }
+
     /** Maps positions to pieces on the board */
     private final Map<Position, BasePiece> boardMap;
     
@@ -62,6 +98,66 @@ public class Board {
     /** List of eliminated pieces by color */
     private final Map<Colour, List<BasePiece>> eliminatedPieces;
 
+    /** Static evaluation updated on every piece placement and removal */
+    private final IncrementalEvaluator evaluator;
+
+    /** Zobrist key of the current position, updated incrementally */
+    private long positionKey;
+
+    /** Number of moves played since the start of the game */
+    private int ply;
+
+    /** Plies since the last capture or pawn move, for the fifty-move rule */
+    private int halfmoveClock;
+
+    /** Position keys since the board was set up, oldest first */
+    private long[] keyHistory;
+
+    /** Number of keys in {@link #keyHistory} */
+    private int historySize;
+
+    /** Rule that drew the game, or null if it was not drawn */
+    private DrawReason drawReason;
+
+    /** Castling rights still available, a mask of the rights constants */
+    private int castlingRights;
+
+    /** Square a pawn can capture en passant on, or -1 */
+    private int enPassantSquare;
+
+    /** Incremented on every change to the position */
+    private long version;
+
+    /** Legal moves of the side to move, valid while {@link #legalMovesVersion} matches */
+    private Map<Position, Set<Position>> legalMoves;
+
+    /** Position version the legal moves were generated for */
+    private long legalMovesVersion = -1;
+
+    /** Bitboards of the position, valid while {@link #generatorVersion} matches */
+    private LegalMoveGenerator generator;
+
+    /** Position version the bitboards were read at */
+    private long generatorVersion = -1;
+
+    /** Endgame tables consulted for exact results, empty by default */
+    private EndgameTablebase tablebase;
+
+    /** Latest published version of the board */
+    private volatile ImmutableBoard published;
+
+    /** Squares changed since the last published version, by colour space ordinal */
+    private final long[] changedSquares = new long[2];
+
+    /** Moves that can be taken back, latest first */
+    private final Deque<UndoRecord> undoStack = new ArrayDeque<>();
+
+    /** Moves taken back that can be redone, latest first */
+    private final Deque<UndoRecord> redoStack = new ArrayDeque<>();
+
+    /** Record collecting the changes of the move being applied, or null */
+    private UndoRecord recording;
+
     /**
      * Creates a new chess board with initial piece setup.
      * 
@@ -83,6 +179,11 @@ public class Board {
         this.eliminatedPieces = new HashMap<>();
         this.eliminatedPieces.put(Colour.WHITE, new ArrayList<>());
         this.eliminatedPieces.put(Colour.BLACK, new ArrayList<>());
+        this.evaluator = new IncrementalEvaluator();
+        this.positionKey = ZobristKeys.sideToMove(turn);
+        this.tablebase = EndgameTablebase.empty();
+        this.keyHistory = new long[64];
+        this.enPassantSquare = -1;
         
         try {
             placeChessPieces(Colour.WHITE);
@@ -90,6 +191,9 @@ public class Board {
         } catch (InvalidPositionException e) {
             Log.e(TAG, "InvalidPositionException: " + e.getMessage());
         }
+        setCastlingRights(ALL_CASTLING);
+        resetHistory();
+        publish();
     }
 
     /**
@@ -109,18 +213,18 @@ public class Board {
         int mainRow = colour == Colour.WHITE ? 7 : 0;
 
         // Place pieces in standard chess formation
-        boardMap.put(Position.get(colour, mainRow, 0), PieceFactory.createPiece("Rook", colour));
-        boardMap.put(Position.get(colour, mainRow, 7), PieceFactory.createPiece("Rook", colour));
-        boardMap.put(Position.get(colour, mainRow, 1), PieceFactory.createPiece("Knight", colour));
-        boardMap.put(Position.get(colour, mainRow, 6), PieceFactory.createPiece("Knight", colour));
-        boardMap.put(Position.get(colour, mainRow, 2), PieceFactory.createPiece("Bishop", colour));
-        boardMap.put(Position.get(colour, mainRow, 5), PieceFactory.createPiece("Bishop", colour));
-        boardMap.put(Position.get(colour, mainRow, 3), PieceFactory.createPiece("Queen", colour));
-        boardMap.put(Position.get(colour, mainRow, 4), PieceFactory.createPiece("King", colour));
+        placePiece(Position.get(colour, mainRow, 0), PieceFactory.createPiece("Rook", colour));
+        placePiece(Position.get(colour, mainRow, 7), PieceFactory.createPiece("Rook", colour));
+        placePiece(Position.get(colour, mainRow, 1), PieceFactory.createPiece("Knight", colour));
+        placePiece(Position.get(colour, mainRow, 6), PieceFactory.createPiece("Knight", colour));
+        placePiece(Position.get(colour, mainRow, 2), PieceFactory.createPiece("Bishop", colour));
+        placePiece(Position.get(colour, mainRow, 5), PieceFactory.createPiece("Bishop", colour));
+        placePiece(Position.get(colour, mainRow, 3), PieceFactory.createPiece("Queen", colour));
+        placePiece(Position.get(colour, mainRow, 4), PieceFactory.createPiece("King", colour));
 
         // Place pawns
         for (int i = 0; i < 8; i++) {
-            boardMap.put(Position.get(colour, pawnRow, i), PieceFactory.createPiece("Pawn", colour));
+            placePiece(Position.get(colour, pawnRow, i), PieceFactory.createPiece("Pawn", colour));
         }
     }
 
@@ -169,10 +273,23 @@ public class Board {
         logMoveDetails(mover, targetPiece, targetPos);
 
         if (isLegalMove(start, end)) {
-            executeMove(start, end, mover, targetPos, targetPiece);
-            handleSpecialMoves(start, end, mover);
-            checkGameEnd(mover);
+            boolean irreversible = targetPiece != null || mover instanceof Pawn;
+            UndoRecord record = new UndoRecord(start.getSquare(), end.getSquare());
+            record.saveState(this);
+            recording = record;
+            try {
+                executeMove(start, end, mover, targetPos, targetPiece);
+                handleSpecialMoves(start, end, mover);
+            } finally {
+                recording = null;
+            }
+            updateCastlingAndEnPassant(start, end, mover);
             advanceTurn();
+            checkGameEnd(mover);
+            recordPosition(irreversible);
+            undoStack.push(record);
+            redoStack.clear();
+            publish();
         } else {
             logIllegalMove(mover, start, end);
             throw new InvalidMoveException(
@@ -181,6 +298,45 @@ public class Board {
         }
     }
 
+    /**
+     * Executes a move given as physical square indices.
+     * 
+     * <p>The start square is looked up in both colour spaces and the end
+     * square is placed in the mover's colour space, so moves stored in
+     * compact form can be replayed without knowing the colour spaces.
+     * 
+     * @param fromSquare Start square (0-63)
+     * @param toSquare End square (0-63)
+     * @throws InvalidMoveException if there is no piece on the start square or the move is illegal
+     * @throws InvalidPositionException if a square is invalid
+     * @see Position#getSquare()
+     */
+    public void move(int fromSquare, int toSquare) throws InvalidMoveException, InvalidPositionException {
+        Position start = findPosition(fromSquare);
+        if (start == null) {
+            throw new InvalidMoveException("No piece at start position");
+        }
+        BasePiece mover = boardMap.get(start);
+        move(start, Position.get(mover.getColour(), toSquare / 8, toSquare % 8));
+    }
+
+    /**
+     * Finds the occupied position on a physical square in either colour space.
+     * 
+     * @param square Square index (0-63)
+     * @return Occupied position, or null if the square is empty
+     * @throws InvalidPositionException if the square is invalid
+     */
+    public Position findPosition(int square) throws InvalidPositionException {
+        for (Colour colour : Colour.values()) {
+            Position position = Position.get(colour, square / 8, square % 8);
+            if (boardMap.containsKey(position)) {
+                return position;
+            }
+        }
+        return null;
+    }
+
     /**
      * Validates if a move is legal according to chess rules.
      * 
@@ -193,32 +349,77 @@ public class Board {
      * </ul>
      * 
      * @param start Starting position
-     * @param end Target position
+     * @param end Target position, in either colour space
      * @return true if move is legal, false otherwise
      */
     public boolean isLegalMove(Position start, Position end) {
-        try {
-            BasePiece mover = boardMap.get(start);
-            if (!isValidMover(mover)) {
-                return false;
+        BasePiece mover = boardMap.get(start);
+        if (!isValidMover(mover)) {
+            return false;
+        }
+        // Targets are in the mover's colour space; a capture may name the captured piece's
+        for (Position target : getLegalMoves().getOrDefault(start, ImmutableSet.of())) {
+            if (target.getSquare() == end.getSquare()) {
+                return true;
             }
+        }
+        return false;
+    }
 
-            Position targetPos = getTargetPosition(mover, end);
-            BasePiece targetPiece = boardMap.get(targetPos);
-            
-            if (!isValidTarget(mover, targetPiece)) {
-                return false;
-            }
+    /**
+     * Gets every legal move of the side to move.
+     * 
+     * <p>The moves are generated once per position and served from a
+     * cache until the position changes, so highlighting, move validation
+     * and mate detection share one generation. Only strictly legal moves
+     * are generated: pins, checks and attacked squares are resolved up
+     * front by {@link LegalMoveGenerator} rather than by trying each move.
+     * 
+     * @return Legal target positions by start position, for pieces with at least one move
+     */
+    public Map<Position, Set<Position>> getLegalMoves() {
+        if (legalMovesVersion != version) {
+            // Readers of the published version may have generated them already
+            Map<Position, Set<Position>> shared = published != null && published.getVersion() == version
+                ? published.getGeneratedLegalMoves() : null;
+            legalMoves = shared != null ? shared : Collections.unmodifiableMap(
+                toPositions(turn, generator().generate(turn, castlingRights, enPassantSquare)));
+            legalMovesVersion = version;
+        }
+        return legalMoves;
+    }
 
-            if (!isPossibleMove(mover, start, end)) {
-                return false;
+    /**
+     * Decides whether the side to move is checkmated, stalemated or can
+     * still play.
+     * 
+     * <p>When the legal moves of the position have already been generated
+     * they are reused; otherwise the search stops at the first legal reply
+     * instead of generating every move.
+     * 
+     * @return Terminal state of the position for the side to move
+     */
+    public TerminalState getTerminalState() {
+        if (legalMovesVersion == version) {
+            if (!legalMoves.isEmpty()) {
+                return TerminalState.ONGOING;
             }
-
-            return !wouldResultInCheck(start, end, targetPos, targetPiece, mover);
-        } catch (InvalidPositionException e) {
-            Log.e(TAG, "Invalid position in isLegalMove: " + e.getMessage());
-            return false;
+            return isCheck(turn) ? TerminalState.CHECKMATE : TerminalState.STALEMATE;
         }
+        return generator().terminalState(turn, enPassantSquare);
+    }
+
+    /**
+     * Gets the version of the position, which changes whenever a piece is
+     * placed or removed or the turn passes.
+     * 
+     * <p>Versions only increase, also across eviction and reload: a board
+     * decoded from a snapshot continues from the version it was saved at.
+     * 
+     * @return Position version
+     */
+    public long getVersion() {
+        return version;
     }
 
     /**
@@ -230,6 +431,78 @@ public class Board {
         return turn;
     }
 
+    /**
+     * Gets the number of moves played so far.
+     * 
+     * @return Ply count, 0 before the first move
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Gets the number of plies since the last capture or pawn move.
+     * 
+     * @return Halfmove clock, drawn by the fifty-move rule at 100
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Counts how often the current position has occurred.
+     * 
+     * <p>Positions before the last capture or pawn move cannot recur, so
+     * only the keys since then are scanned, and only those with the same
+     * side to move.
+     * 
+     * @return Occurrences of the current position, including this one
+     */
+    public int getRepetitionCount() {
+        int count = 1;
+        int oldest = Math.max(0, historySize - 1 - halfmoveClock);
+        for (int i = historySize - 3; i >= oldest; i -= 2) {
+            if (keyHistory[i] == positionKey) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the rule that drew the game.
+     * 
+     * @return Draw reason, or null if the game is not drawn
+     */
+    public DrawReason getDrawReason() {
+        return drawReason;
+    }
+
+    /**
+     * Gets the castling rights still available.
+     * 
+     * <p>A right is lost for good once its king or rook moves or the rook
+     * is captured; castling also needs the squares between them empty.
+     * 
+     * @return Mask of {@link #WHITE_KINGSIDE}, {@link #WHITE_QUEENSIDE},
+     *         {@link #BLACK_KINGSIDE} and {@link #BLACK_QUEENSIDE}
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * Gets the square a pawn of the side to move can capture en passant on.
+     * 
+     * <p>Only set after a double pawn push next to an enemy pawn, so that
+     * positions differing only by an unusable target hash the same.
+     * 
+     * @return Physical square index (0-63), or -1 if there is none
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
     /**
      * Gets the piece at a specific position.
      * 
@@ -268,8 +541,13 @@ public class Board {
             return ImmutableSet.of();
         }
 
-        setHighlightedSquares(mover.getPossibleMoves(this.boardMap, position));
-        return filterCheckMoves(position, mover);
+        long startNanos = System.nanoTime();
+        Set<Position> moves = mover.getColour() == turn
+            ? getLegalMoves().getOrDefault(position, ImmutableSet.of())
+            : generateLegalMoves(mover, position);
+        setHighlightedSquares(moves);
+        GameMetrics.recordSince(GameMetrics.POSSIBLE_MOVES, startNanos);
+        return moves;
     }
 
     /**
@@ -303,6 +581,135 @@ public class Board {
         return result;
     }
 
+    /**
+     * Gets the pieces of one colour that have been eliminated.
+     * 
+     * @param colour Colour of the eliminated pieces
+     * @return Eliminated pieces in capture order
+     */
+    List<BasePiece> getEliminated(Colour colour) {
+        return Collections.unmodifiableList(eliminatedPieces.get(colour));
+    }
+
+    /**
+     * Gets the latest immutable version of the board.
+     * 
+     * <p>A version is published after every move and every setup of the
+     * board, sharing unchanged ranks with the version before it. It can be
+     * read from any thread and kept after the board moves on.
+     * 
+     * @return Latest published version
+     */
+    public ImmutableBoard snapshot() {
+        return published;
+    }
+
+    /**
+     * Takes back the last move.
+     * 
+     * <p>The move's undo record reverts only the squares it changed and
+     * restores the state it replaced, so this takes constant time however
+     * long the game is. The move can then be redone until another move is
+     * played.
+     * 
+     * @return true if a move was taken back, false if there is none
+     */
+    public boolean takeBack() {
+        UndoRecord record = undoStack.poll();
+        if (record == null) {
+            return false;
+        }
+        for (int i = record.changes - 1; i >= 0; i--) {
+            setSquare(record.squares[i], record.before[i]);
+        }
+        if (record.captured != null) {
+            List<BasePiece> captured = eliminatedPieces.get(record.captured.getColour());
+            captured.remove(captured.size() - 1);
+        }
+        historySize--;
+        retreatTurn();
+        record.swapState(this);
+        highlightPolygons.clear();
+        redoStack.push(record);
+        publish();
+        return true;
+    }
+
+    /**
+     * Redoes the last move taken back, in constant time.
+     * 
+     * @return true if a move was redone, false if there is none
+     */
+    public boolean redo() {
+        UndoRecord record = redoStack.poll();
+        if (record == null) {
+            return false;
+        }
+        for (int i = 0; i < record.changes; i++) {
+            setSquare(record.squares[i], record.after[i]);
+        }
+        if (record.captured != null) {
+            eliminatedPieces.get(record.captured.getColour()).add(record.captured);
+        }
+        advanceTurn();
+        record.swapState(this);
+        if (historySize == keyHistory.length) {
+            keyHistory = Arrays.copyOf(keyHistory, historySize * 2);
+        }
+        keyHistory[historySize++] = positionKey;
+        highlightPolygons.clear();
+        undoStack.push(record);
+        publish();
+        return true;
+    }
+
+    /**
+     * Takes back the last move when no undo record is left for it, as
+     * after the board was reloaded, by resetting to the position before it.
+     * 
+     * <p>Unlike {@link #takeBack()} this copies the whole position, and
+     * the move cannot be redone.
+     * 
+     * @param previous Board of the position before the last move, rebuilt from the game's moves
+     */
+    public void takeBackTo(Board previous) {
+        Map<Colour, List<BasePiece>> eliminated = new HashMap<>();
+        previous.eliminatedPieces.forEach((colour, pieces) -> eliminated.put(colour, new ArrayList<>(pieces)));
+        restore(new HashMap<>(previous.boardMap), previous.turn, previous.ply, previous.gameOver,
+            previous.winner, previous.drawReason, previous.halfmoveClock, previous.castlingRights,
+            previous.enPassantSquare, eliminated, version + 1);
+        restoreRepetitionKeys(previous.getRepetitionKeys());
+        highlightPolygons.clear();
+    }
+
+    /**
+     * Gets the last move played, as needed to journal a redone move.
+     * 
+     * @return Start and end square (0-63) of the move, or null if there is none
+     */
+    public int[] getLastMove() {
+        UndoRecord record = undoStack.peek();
+        return record == null ? null : new int[] {record.from, record.to};
+    }
+
+    /**
+     * Checks if there is a move to take back.
+     * 
+     * @return true if {@link #takeBack()} would revert a move
+     */
+    public boolean canTakeBack() {
+        return !undoStack.isEmpty();
+    }
+
+    /**
+     * Checks if there is a move to redo.
+     * 
+     * @return true if {@link #redo()} would replay a move
+     */
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
     /**
      * Gets the current board state map.
      * 
@@ -313,8 +720,151 @@ public class Board {
     }
 
     public void setBoardMap(Map<Position, BasePiece> newBoardMap) {
-        boardMap.clear();
-        boardMap.putAll(newBoardMap);
+        replacePieces(newBoardMap);
+        setCastlingRights(homeCastlingRights());
+        resetHistory();
+        publish();
+    }
+
+    /**
+     * Replaces the whole game state, as decoded from a snapshot.
+     * 
+     * @param pieces Pieces by position
+     * @param turn Side to move
+     * @param ply Number of moves played
+     * @param gameOver Whether the game has ended
+     * @param winner Winner, or null
+     * @param drawReason Rule that drew the game, or null
+     * @param halfmoveClock Plies since the last capture or pawn move
+     * @param castlingRights Castling rights mask
+     * @param enPassantSquare En-passant target square, or -1
+     * @param eliminated Eliminated pieces by colour
+     * @param version Position version to continue from
+     * @see BoardSnapshot
+     */
+    void restore(Map<Position, BasePiece> pieces, Colour turn, int ply, boolean gameOver, String winner,
+            DrawReason drawReason, int halfmoveClock, int castlingRights, int enPassantSquare,
+            Map<Colour, List<BasePiece>> eliminated, long version) {
+        this.turn = turn;
+        this.ply = ply;
+        this.gameOver = gameOver;
+        this.winner = winner;
+        this.drawReason = drawReason;
+        for (Colour colour : Colour.values()) {
+            eliminatedPieces.get(colour).clear();
+            eliminatedPieces.get(colour).addAll(eliminated.getOrDefault(colour, Collections.emptyList()));
+        }
+        replacePieces(pieces);
+        setCastlingRights(castlingRights);
+        setEnPassantSquare(enPassantSquare);
+        resetHistory();
+        this.halfmoveClock = halfmoveClock;
+        // Versions this board already went through may come round again, so drop what is cached by version
+        this.version = version;
+        legalMovesVersion = -1;
+        generatorVersion = -1;
+        publish();
+    }
+
+    /**
+     * Gets the position keys a repetition of the current position can
+     * match: those since the last capture or pawn move, current one last.
+     * 
+     * @return Position keys, oldest first
+     * @see #restoreRepetitionKeys(long[])
+     */
+    public long[] getRepetitionKeys() {
+        int oldest = Math.max(0, historySize - 1 - halfmoveClock);
+        return Arrays.copyOfRange(keyHistory, oldest, historySize);
+    }
+
+    /**
+     * Restores the position keys a snapshot does not hold, so that a
+     * repetition spanning the snapshot is still detected. Ends the game if
+     * the restored keys make the position a threefold repetition.
+     * 
+     * @param keys Keys of a board in the same position, as returned by {@link #getRepetitionKeys()}
+     * @return true if the keys were restored, false if they end in another position
+     */
+    public boolean restoreRepetitionKeys(long[] keys) {
+        if (keys.length == 0 || keys[keys.length - 1] != positionKey) {
+            Log.e(TAG, "Repetition keys do not match the position, not restored");
+            return false;
+        }
+        int count = Math.min(keys.length, halfmoveClock + 1);
+        keyHistory = Arrays.copyOfRange(keys, keys.length - count, keys.length + 64);
+        historySize = count;
+        if (!gameOver && getRepetitionCount() >= 3) {
+            drawReason = DrawReason.THREEFOLD_REPETITION;
+            gameOver = true;
+        }
+        version++;
+        publish();
+        return true;
+    }
+
+    /**
+     * Gets the static evaluation of the current position.
+     * 
+     * <p>The score is maintained incrementally as pieces move, so this
+     * call does not scan the board.
+     * 
+     * @return Score in centipawns, positive when WHITE is better
+     */
+    public int getEvaluation() {
+        return evaluator.getScore();
+    }
+
+    /**
+     * Gets the 64-bit hash key of the current position.
+     * 
+     * <p>The key covers piece placement and the side to move and is
+     * maintained incrementally, so identical positions reached by
+     * different move orders share the same key.
+     * 
+     * @return Zobrist key of the position
+     * @see ZobristKeys
+     */
+    public long getPositionKey() {
+        return positionKey;
+    }
+
+    /**
+     * Sets the endgame tables used to detect checkmate in covered endings.
+     * 
+     * @param tablebase Endgame tablebase, or an empty one to disable probing
+     */
+    public void setTablebase(EndgameTablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Gets the exact result of the current position from the endgame tables.
+     * 
+     * @return Result for the side to move, or null if the material is not covered
+     * @see EndgameTablebase#probe(Map, Colour)
+     */
+    public TablebaseResult getTablebaseResult() {
+        return tablebase.probe(boardMap, turn);
+    }
+
+    /**
+     * Gets the material on the board for one side.
+     * 
+     * @param colour Side to count material for
+     * @return Material in centipawns, kings excluded
+     */
+    public int getMaterial(Colour colour) {
+        return evaluator.getMaterial(colour);
+    }
+
+    /**
+     * Gets the game phase used to taper the evaluation.
+     * 
+     * @return Value from 0 (bare endgame) to 24 (full middlegame)
+     */
+    public int getGamePhase() {
+        return evaluator.getPhase();
     }
 
     public Set<Position> getHighlightedSquares() {
@@ -372,20 +922,20 @@ public class Board {
 
     private void handleCapture(BasePiece targetPiece, Position targetPos) {
         if (targetPiece != null) {
-            eliminatedPieces.get(targetPiece.getColour()).add(targetPiece);
-            boardMap.remove(targetPos);
+            eliminate(targetPiece);
+            removePiece(targetPos);
         }
     }
 
     private void updateBoardState(Position start, Position end, BasePiece mover) {
-        boardMap.remove(start);
+        removePiece(start);
         Position finalPos = null;
         try {
             finalPos = Position.get(mover.getColour(), end.getRow(), end.getColumn());
             if (shouldPromotePawn(mover, end)) {
-                boardMap.put(finalPos, createPromotedPiece(mover));
+                placePiece(finalPos, createPromotedPiece(mover));
             } else {
-                boardMap.put(finalPos, mover);
+                placePiece(finalPos, mover);
             }
         } catch (InvalidPositionException e) {
             Log.e(TAG, "Error updating board state: " + e.getMessage());
@@ -416,35 +966,272 @@ public class Board {
     private void handleSpecialMoves(Position start, Position end, BasePiece mover) {
         if (mover instanceof King && start.getColumn() == 4) {
             handleCastling(start, end, mover);
+        } else if (mover instanceof Pawn && end.getSquare() == enPassantSquare) {
+            handleEnPassant(start, end, mover);
         }
     }
 
+    private void handleEnPassant(Position start, Position end, BasePiece mover) {
+        try {
+            Position capturedPos = Position.get(mover.getColour().next(), start.getRow(), end.getColumn());
+            BasePiece captured = boardMap.get(capturedPos);
+            if (captured instanceof Pawn) {
+                eliminate(captured);
+                removePiece(capturedPos);
+            }
+        } catch (InvalidPositionException e) {
+            Log.e(TAG, "Error handling en passant: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Updates castling rights and the en-passant target after a move.
+     * 
+     * <p>Rights are cleared by mask when a piece leaves or lands on a king
+     * or rook home square, so no rook or empty-square lookups are needed.
+     */
+    private void updateCastlingAndEnPassant(Position start, Position end, BasePiece mover) {
+        setCastlingRights(castlingRights & ~(CASTLING_LOST[start.getSquare()] | CASTLING_LOST[end.getSquare()]));
+
+        int target = -1;
+        if (mover instanceof Pawn && Math.abs(start.getRow() - end.getRow()) == 2
+                && (isEnemyPawn(mover, end.getRow(), end.getColumn() - 1)
+                    || isEnemyPawn(mover, end.getRow(), end.getColumn() + 1))) {
+            target = (start.getRow() + end.getRow()) / 2 * 8 + end.getColumn();
+        }
+        setEnPassantSquare(target);
+    }
+
+    private boolean isEnemyPawn(BasePiece mover, int row, int column) {
+        if (column < 0 || column > 7) {
+            return false;
+        }
+        try {
+            BasePiece piece = boardMap.get(Position.get(mover.getColour().next(), row, column));
+            return piece instanceof Pawn && piece.getColour() != mover.getColour();
+        } catch (InvalidPositionException e) {
+            return false;
+        }
+    }
+
+    private void setCastlingRights(int rights) {
+        positionKey ^= ZobristKeys.castling(castlingRights) ^ ZobristKeys.castling(rights);
+        castlingRights = rights;
+        version++;
+    }
+
+    private void setEnPassantSquare(int square) {
+        positionKey ^= ZobristKeys.enPassant(enPassantSquare) ^ ZobristKeys.enPassant(square);
+        enPassantSquare = square;
+        version++;
+    }
+
+    /**
+     * Derives castling rights from the pieces on their home squares, for
+     * boards set up without a move history.
+     */
+    private int homeCastlingRights() {
+        int rights = 0;
+        for (Colour colour : Colour.values()) {
+            int row = colour == Colour.WHITE ? 7 : 0;
+            if (!isHomePiece(colour, row, 4, King.class)) {
+                continue;
+            }
+            if (isHomePiece(colour, row, 7, Rook.class)) {
+                rights |= castlingRight(colour, true);
+            }
+            if (isHomePiece(colour, row, 0, Rook.class)) {
+                rights |= castlingRight(colour, false);
+            }
+        }
+        return rights;
+    }
+
+    private boolean isHomePiece(Colour colour, int row, int column, Class<? extends BasePiece> type) {
+        try {
+            BasePiece piece = boardMap.get(Position.get(colour, row, column));
+            return type.isInstance(piece) && piece.getColour() == colour;
+        } catch (InvalidPositionException e) {
+            return false;
+        }
+    }
+
+    private static int castlingRight(Colour colour, boolean kingSide) {
+        if (colour == Colour.WHITE) {
+            return kingSide ? WHITE_KINGSIDE : WHITE_QUEENSIDE;
+        }
+        return kingSide ? BLACK_KINGSIDE : BLACK_QUEENSIDE;
+    }
+
     private void handleCastling(Position start, Position end, BasePiece mover) {
         try {
             if (end.getColumn() == 2) {
                 Position rookPos = Position.get(mover.getColour(), start.getRow(), 0);
-                boardMap.put(Position.get(mover.getColour(), start.getRow(), 3), boardMap.get(rookPos));
-                boardMap.remove(rookPos);
+                BasePiece rook = removePiece(rookPos);
+                if (rook != null) {
+                    placePiece(Position.get(mover.getColour(), start.getRow(), 3), rook);
+                }
             } else if (end.getColumn() == 6) {
                 Position rookPos = Position.get(mover.getColour(), start.getRow(), 7);
-                boardMap.put(Position.get(mover.getColour(), start.getRow(), 5), boardMap.get(rookPos));
-                boardMap.remove(rookPos);
+                BasePiece rook = removePiece(rookPos);
+                if (rook != null) {
+                    placePiece(Position.get(mover.getColour(), start.getRow(), 5), rook);
+                }
             }
         } catch (InvalidPositionException e) {
             Log.e(TAG, "Error handling castling: " + e.getMessage());
         }
     }
 
+    /**
+     * Places a piece on the board, keeping derived state in sync.
+     */
+    private void placePiece(Position position, BasePiece piece) {
+        version++;
+        changedSquares[position.getColour().ordinal()] |= 1L << position.getSquare();
+        BasePiece previous = boardMap.put(position, piece);
+        if (recording != null) {
+            recording.addChange(position, previous, piece);
+        }
+        if (previous != null) {
+            evaluator.remove(previous, position);
+            positionKey ^= pieceKey(previous, position);
+        }
+        evaluator.add(piece, position);
+        positionKey ^= pieceKey(piece, position);
+    }
+
+    /**
+     * Removes the piece on a position, keeping derived state in sync.
+     * 
+     * @return The removed piece, or null if the position was empty
+     */
+    private BasePiece removePiece(Position position) {
+        version++;
+        changedSquares[position.getColour().ordinal()] |= 1L << position.getSquare();
+        BasePiece piece = boardMap.remove(position);
+        if (recording != null && piece != null) {
+            recording.addChange(position, piece, null);
+        }
+        if (piece != null) {
+            evaluator.remove(piece, position);
+            positionKey ^= pieceKey(piece, position);
+        }
+        return piece;
+    }
+
+    private void setSquare(Position position, BasePiece piece) {
+        if (piece == null) {
+            removePiece(position);
+        } else {
+            placePiece(position, piece);
+        }
+    }
+
+    private void eliminate(BasePiece piece) {
+        eliminatedPieces.get(piece.getColour()).add(piece);
+        if (recording != null) {
+            recording.captured = piece;
+        }
+    }
+
+    private static long pieceKey(BasePiece piece, Position position) {
+        return ZobristKeys.piece(piece.getColour(), piece.getType(), position.getSquare());
+    }
+
     private void checkGameEnd(BasePiece mover) {
-        Colour nextTurn = turn.next();
-        if (isCheckMate(nextTurn, boardMap)) {
+        long startNanos = System.nanoTime();
+        TablebaseResult known = tablebase.probe(boardMap, turn);
+        TerminalState state;
+        if (known != null && known.getOutcome() != TablebaseResult.Outcome.DRAW) {
+            // Won and lost table positions cannot be stalemate
+            state = known.isCheckmate() ? TerminalState.CHECKMATE : TerminalState.ONGOING;
+        } else {
+            state = getTerminalState();
+        }
+        if (state == TerminalState.CHECKMATE) {
             gameOver = true;
             winner = mover.getColour().toString();
+        } else if (state == TerminalState.STALEMATE) {
+            gameOver = true;
+            drawReason = DrawReason.STALEMATE;
         }
+        GameMetrics.recordSince(GameMetrics.GAME_END, startNanos);
+    }
+
+    /**
+     * Records the position reached by a move and ends the game if it is
+     * drawn by repetition or the fifty-move rule.
+     * 
+     * @param irreversible Whether the move was a capture or pawn move
+     */
+    private void recordPosition(boolean irreversible) {
+        halfmoveClock = irreversible ? 0 : halfmoveClock + 1;
+        if (historySize == keyHistory.length) {
+            keyHistory = Arrays.copyOf(keyHistory, historySize * 2);
+        }
+        keyHistory[historySize++] = positionKey;
+
+        if (gameOver) {
+            return;
+        }
+        if (getRepetitionCount() >= 3) {
+            drawReason = DrawReason.THREEFOLD_REPETITION;
+        } else if (halfmoveClock >= 100) {
+            drawReason = DrawReason.FIFTY_MOVE_RULE;
+        }
+        gameOver = drawReason != null;
+    }
+
+    /**
+     * Publishes the current state as a new immutable version.
+     */
+    private void publish() {
+        published = ImmutableBoard.next(published, this, changedSquares,
+            legalMovesVersion == version ? legalMoves : null);
+        changedSquares[0] = 0;
+        changedSquares[1] = 0;
+    }
+
+    /**
+     * Replaces every piece, without castling rights, move history or
+     * en-passant target.
+     */
+    private void replacePieces(Map<Position, BasePiece> pieces) {
+        boardMap.clear();
+        evaluator.clear();
+        // Every square may have been emptied, so the next version shares no rank
+        changedSquares[0] = -1L;
+        changedSquares[1] = -1L;
+        version++;
+        positionKey = ZobristKeys.sideToMove(turn);
+        for (Map.Entry<Position, BasePiece> entry : pieces.entrySet()) {
+            placePiece(entry.getKey(), entry.getValue());
+        }
+        castlingRights = 0;
+        enPassantSquare = -1;
+        undoStack.clear();
+        redoStack.clear();
+    }
+
+    private void resetHistory() {
+        halfmoveClock = 0;
+        keyHistory[0] = positionKey;
+        historySize = 1;
     }
 
     private void advanceTurn() {
+        positionKey ^= ZobristKeys.sideToMove(turn) ^ ZobristKeys.sideToMove(turn.next());
         turn = turn.next();
+        ply++;
+        version++;
+    }
+
+    private void retreatTurn() {
+        positionKey ^= ZobristKeys.sideToMove(turn) ^ ZobristKeys.sideToMove(turn.next());
+        turn = turn.next();
+        ply--;
+        version++;
     }
 
     private void logIllegalMove(BasePiece mover, Position start, Position end) {
@@ -454,7 +1241,7 @@ public class Board {
         Log.e(TAG, String.format("- Current turn: %s", turn));
         Log.e(TAG, String.format("- Start: %s", start));
         Log.e(TAG, String.format("- End: %s", end));
-        Set<Position> possibleMoves = mover.getPossibleMoves(this.boardMap, start);
+        Set<Position> possibleMoves = generateLegalMoves(mover, start);
         Log.e(TAG, String.format("- Possible moves: %s", possibleMoves));
     }
 
@@ -462,123 +1249,133 @@ public class Board {
         return mover != null && mover.getColour() == turn;
     }
 
-    private boolean isValidTarget(BasePiece mover, BasePiece targetPiece) {
-        return targetPiece == null || targetPiece.getColour() != mover.getColour();
-    }
-
-    private boolean isPossibleMove(BasePiece mover, Position start, Position end) {
-        Set<Position> possibleMoves = mover.getPossibleMoves(this.boardMap, start);
-        return possibleMoves.contains(end);
+    /**
+     * Generates the legal moves of a single piece, for pieces of the side
+     * not to move, which cannot capture en passant.
+     */
+    private Set<Position> generateLegalMoves(BasePiece mover, Position start) {
+        long[] targets = generator().generate(mover.getColour(), castlingRights, -1);
+        return toPositions(mover.getColour(), targets).getOrDefault(start, ImmutableSet.of());
     }
 
-    private boolean wouldResultInCheck(Position start, Position end, 
-            Position targetPos, BasePiece targetPiece, BasePiece mover) {
-        Map<Position, BasePiece> testBoardMap = new HashMap<>(boardMap);
-        testBoardMap.remove(start);
-        if (targetPiece != null) {
-            testBoardMap.remove(targetPos);
-        }
+    /**
+     * Converts generated target squares to positions in the mover's colour
+     * space, where both the pieces and their move targets live.
+     */
+    static Map<Position, Set<Position>> toPositions(Colour colour, long[] targets) {
+        Map<Position, Set<Position>> moves = new HashMap<>();
         try {
-            Position finalPos = Position.get(mover.getColour(), end.getRow(), end.getColumn());
-            testBoardMap.put(finalPos, mover);
-            return isCheck(turn, testBoardMap);
-        } catch (InvalidPositionException e) {
-            Log.e(TAG, "Error checking for check: " + e.getMessage());
-            return true;
-        }
-    }
-
-    private Set<Position> filterCheckMoves(Position position, BasePiece mover) {
-        Set<Position> nonCheckPositions = new HashSet<>();
-        for (Position endPos : highlightPolygons) {
-            try {
-                Position targetPos = getTargetPosition(mover, endPos);
-                BasePiece targetPiece = boardMap.get(targetPos);
-
-                Map<Position, BasePiece> testBoardMap = new HashMap<>(boardMap);
-                testBoardMap.remove(position);
-                if (targetPiece != null) {
-                    testBoardMap.remove(targetPos);
+            for (int from = 0; from < targets.length; from++) {
+                if (targets[from] == 0) {
+                    continue;
                 }
-                Position finalPos = Position.get(mover.getColour(), endPos.getRow(), endPos.getColumn());
-                testBoardMap.put(finalPos, mover);
-
-                if (!isCheck(mover.getColour(), testBoardMap)) {
-                    nonCheckPositions.add(endPos);
+                ImmutableSet.Builder<Position> ends = ImmutableSet.builder();
+                for (long remaining = targets[from]; remaining != 0; remaining &= remaining - 1) {
+                    int to = Long.numberOfTrailingZeros(remaining);
+                    ends.add(Position.get(colour, to / 8, to % 8));
                 }
-            } catch (InvalidPositionException e) {
-                Log.e(TAG, "Invalid position in getPossibleMoves: " + e.getMessage());
+                moves.put(Position.get(colour, from / 8, from % 8), ends.build());
             }
+        } catch (InvalidPositionException e) {
+            Log.e(TAG, "Invalid position in generateLegalMoves: " + e.getMessage());
         }
-        return nonCheckPositions;
+        return moves;
     }
 
-    private boolean isCheck(Colour colour, Map<Position, BasePiece> boardMap) {
-        Position kingPosition = getKingPosition(colour, boardMap);
-        if (kingPosition == null) {
-            return false;
-        }
+    /**
+     * Checks whether a side's king is attacked.
+     * 
+     * <p>The king square is probed outward along rook and bishop rays to
+     * the first blocker and at the knight, pawn and king offsets, so the
+     * cost is bounded regardless of how many pieces are on the board.
+     * 
+     * @param colour Side whose king to test
+     * @return true if an enemy piece attacks the king
+     */
+    public boolean isCheck(Colour colour) {
+        return generator().isInCheck(colour);
+    }
 
-        for (Map.Entry<Position, BasePiece> entry : boardMap.entrySet()) {
-            BasePiece piece = entry.getValue();
-            if (piece.getColour() != colour) {
-                Set<Position> moves = piece.getPossibleMoves(boardMap, entry.getKey());
-                if (moves.contains(kingPosition)) {
-                    return true;
-                }
-            }
+    /**
+     * Gets the bitboards of the current position, read once per version
+     * and shared by move generation, check and mate detection.
+     */
+    private LegalMoveGenerator generator() {
+        if (generatorVersion != version) {
+            generator = new LegalMoveGenerator(boardMap);
+            generatorVersion = version;
         }
-        return false;
+        return generator;
     }
 
-    private boolean isCheckMate(Colour colour, Map<Position, BasePiece> boardMap) {
-        if (!isCheck(colour, boardMap)) {
-            return false;
-        }
+    /**
+     * Compact record of one move, enough to revert and replay it without
+     * regenerating anything.
+     * 
+     * <p>It holds the squares the move changed (at most four, for castling)
+     * with their pieces before and after, the captured piece, and the state
+     * the move replaced. Taking the move back swaps that state with the
+     * board's, after which the record holds the state to redo.
+     */
+    private static final class UndoRecord {
 
-        for (Position position : boardMap.keySet()) {
-            BasePiece piece = boardMap.get(position);
-            if (piece.getColour() == colour) {
-                Set<Position> possibleMoves = piece.getPossibleMoves(boardMap, position);
-                for (Position endPos : possibleMoves) {
-                    if (!isCheckAfterLegalMove(colour, boardMap, position, endPos)) {
-                        return false;
-                    }
-                }
-            }
+        /** Start and end square of the move as played */
+        private final int from;
+        private final int to;
+
+        private final Position[] squares = new Position[4];
+        private final BasePiece[] before = new BasePiece[4];
+        private final BasePiece[] after = new BasePiece[4];
+        private int changes;
+
+        /** Piece captured by the move, or null */
+        private BasePiece captured;
+
+        private int castlingRights;
+        private int enPassantSquare;
+        private int halfmoveClock;
+        private boolean gameOver;
+        private String winner;
+        private DrawReason drawReason;
+
+        private UndoRecord(int from, int to) {
+            this.from = from;
+            this.to = to;
         }
-        return true;
-    }
 
-    private boolean isCheckAfterLegalMove(Colour colour, Map<Position, BasePiece> boardMap, 
-            Position start, Position end) {
-        try {
-            BasePiece mover = boardMap.get(start);
-            Position targetPos = getTargetPosition(mover, end);
-            BasePiece targetPiece = boardMap.get(targetPos);
-
-            Map<Position, BasePiece> testBoardMap = new HashMap<>(boardMap);
-            testBoardMap.remove(start);
-            if (targetPiece != null) {
-                testBoardMap.remove(targetPos);
-            }
-            Position finalPos = Position.get(mover.getColour(), end.getRow(), end.getColumn());
-            testBoardMap.put(finalPos, mover);
+        private void addChange(Position square, BasePiece previous, BasePiece current) {
+            squares[changes] = square;
+            before[changes] = previous;
+            after[changes] = current;
+            changes++;
+        }
 
-            return isCheck(colour, testBoardMap);
-        } catch (InvalidPositionException e) {
-            Log.e(TAG, "Invalid position in isCheckAfterLegalMove: " + e.getMessage());
-            return true;
+        private void saveState(Board board) {
+            castlingRights = board.castlingRights;
+            enPassantSquare = board.enPassantSquare;
+            halfmoveClock = board.halfmoveClock;
+            gameOver = board.gameOver;
+            winner = board.winner;
+            drawReason = board.drawReason;
         }
-    }
 
-    private Position getKingPosition(Colour colour, Map<Position, BasePiece> boardMap) {
-        for (Position position : boardMap.keySet()) {
-            BasePiece piece = boardMap.get(position);
-            if (piece instanceof King && piece.getColour() == colour) {
-                return position;
-            }
+        /**
+         * Exchanges the saved state with the board's.
+         */
+        private void swapState(Board board) {
+            int rights = castlingRights;
+            int target = enPassantSquare;
+            int clock = halfmoveClock;
+            boolean over = gameOver;
+            String won = winner;
+            DrawReason drawn = drawReason;
+            saveState(board);
+            board.setCastlingRights(rights);
+            board.setEnPassantSquare(target);
+            board.halfmoveClock = clock;
+            board.gameOver = over;
+            board.winner = won;
+            board.drawReason = drawn;
         }
-        return null;
     }
 }
@@ -0,0 +1,264 @@
+package entity;
+
+import helper.Colour;
+import helper.DrawReason;
+import helper.InvalidPositionException;
+import helper.PieceType;
+import helper.Position;
+import utility.PieceFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed-size binary encoding of a complete {@link Board} state.
+ *
+ * <p>A snapshot is {@value #SIZE} bytes:
+ * <ul>
+ *   <li>Format version (1 byte)</li>
+ *   <li>Occupancy of the WHITE and BLACK colour spaces (2 longs, bit = square)</li>
+ *   <li>One nibble per occupied position, WHITE space first and squares in
+ *       ascending order: piece colour (high bit) and {@link PieceType} ordinal</li>
+ *   <li>Eliminated piece counts per colour and type (12 nibbles)</li>
+ *   <li>Flags: side to move, game over, winner, draw reason (1 byte)</li>
+ *   <li>Halfmove clock (1 byte)</li>
+ *   <li>Castling rights (low nibble) and en-passant file + 1 (high nibble)</li>
+ *   <li>Ply (short)</li>
+ *   <li>Position version (long), so that versions keep increasing across reloads</li>
+ * </ul>
+ *
+ * <p>The incremental evaluation and position key are rebuilt on decode.
+ * Eliminated pieces are restored grouped by type rather than in capture
+ * order. Position keys of earlier positions are not stored: a decoded
+ * board counts repetitions from the decoded position on until its keys
+ * are restored with {@link Board#restoreRepetitionKeys(long[])}.
+ *
+ * @see Board
+ * @version 1.0
+ */
+public final class BoardSnapshot {
+
+    /** Size of an encoded snapshot in bytes */
+    public static final int SIZE = 52;
+
+    /** Current format version */
+    private static final byte VERSION = 4;
+
+    /** Most pieces a board can hold */
+    private static final int MAX_PIECES = 32;
+
+    /** Bytes of eliminated piece counts: one nibble per colour and type */
+    private static final int ELIMINATED_BYTES = 2 * 6 / 2;
+
+    /** Offset of the halfmove clock: after version, occupancy, pieces, eliminated counts and flags */
+    private static final int HALFMOVE_OFFSET = 1 + 2 * Long.BYTES + MAX_PIECES / 2 + ELIMINATED_BYTES + 1;
+
+    /** Offset of the ply: after the halfmove clock and the castling and en-passant byte */
+    private static final int PLY_OFFSET = HALFMOVE_OFFSET + 2;
+
+    private static final int FLAG_BLACK_TO_MOVE = 1;
+    private static final int FLAG_GAME_OVER = 2;
+    private static final int WINNER_SHIFT = 2;
+    private static final int DRAW_SHIFT = 4;
+
+    private BoardSnapshot() {
+    }
+
+    /**
+     * Encodes the state of a board, as of its latest published version.
+     *
+     * @param board Board to encode
+     * @return {@value #SIZE}-byte snapshot
+     */
+    public static byte[] encode(Board board) {
+        return encode(board.snapshot());
+    }
+
+    /**
+     * Encodes a published version of a board. Reads nothing but the
+     * immutable version, so a board can be snapshotted from any thread.
+     *
+     * @param board Published board version to encode
+     * @return {@value #SIZE}-byte snapshot
+     */
+    public static byte[] encode(ImmutableBoard board) {
+        long[] occupancy = new long[2];
+        BasePiece[][] pieces = new BasePiece[2][64];
+        for (Map.Entry<Position, BasePiece> entry : board.getPieces().entrySet()) {
+            int space = entry.getKey().getColour().ordinal();
+            int square = entry.getKey().getSquare();
+            occupancy[space] |= 1L << square;
+            pieces[space][square] = entry.getValue();
+        }
+
+        byte[] nibbles = new byte[MAX_PIECES / 2];
+        int count = 0;
+        for (int space = 0; space < 2; space++) {
+            for (long bits = occupancy[space]; bits != 0L; bits &= bits - 1) {
+                BasePiece piece = pieces[space][Long.numberOfTrailingZeros(bits)];
+                setNibble(nibbles, count++, pieceCode(piece.getColour(), piece.getType()));
+            }
+        }
+
+        byte[] eliminated = new byte[ELIMINATED_BYTES];
+        for (Colour colour : Colour.values()) {
+            for (BasePiece piece : board.getEliminated(colour)) {
+                int index = colour.ordinal() * PieceType.values().length + piece.getType().ordinal();
+                setNibble(eliminated, index, Math.min(15, nibble(eliminated, index) + 1));
+            }
+        }
+
+        int flags = (board.getTurn() == Colour.BLACK ? FLAG_BLACK_TO_MOVE : 0)
+            | (board.isGameOver() ? FLAG_GAME_OVER : 0)
+            | (winnerCode(board.getWinner()) << WINNER_SHIFT)
+            | (drawCode(board.getDrawReason()) << DRAW_SHIFT);
+
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+        buffer.put(VERSION).putLong(occupancy[0]).putLong(occupancy[1]).put(nibbles).put(eliminated)
+            .put((byte) flags).put((byte) Math.min(255, board.getHalfmoveClock()))
+            .put((byte) (board.getCastlingRights() | enPassantCode(board.getEnPassantSquare()) << 4))
+            .putShort((short) board.getPly()).putLong(board.getVersion());
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a snapshot into a new board.
+     *
+     * @param snapshot Snapshot produced by {@link #encode(Board)}
+     * @return Board in the encoded state
+     * @throws IllegalArgumentException if the snapshot is malformed
+     */
+    public static Board decode(byte[] snapshot) {
+        if (snapshot.length != SIZE || snapshot[0] != VERSION) {
+            throw new IllegalArgumentException("Not a board snapshot");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(snapshot, 1, SIZE - 1);
+        long[] occupancy = {buffer.getLong(), buffer.getLong()};
+        byte[] nibbles = new byte[MAX_PIECES / 2];
+        buffer.get(nibbles);
+        byte[] eliminated = new byte[ELIMINATED_BYTES];
+        buffer.get(eliminated);
+        int flags = buffer.get();
+        int halfmoveClock = Byte.toUnsignedInt(buffer.get());
+        int rights = Byte.toUnsignedInt(buffer.get());
+        int ply = Short.toUnsignedInt(buffer.getShort());
+        long version = buffer.getLong();
+
+        Map<Position, BasePiece> pieces = new HashMap<>();
+        int count = 0;
+        try {
+            for (Colour space : Colour.values()) {
+                for (long bits = occupancy[space.ordinal()]; bits != 0L; bits &= bits - 1) {
+                    if (count == MAX_PIECES) {
+                        throw new IllegalArgumentException("Too many pieces in snapshot");
+                    }
+                    int square = Long.numberOfTrailingZeros(bits);
+                    pieces.put(Position.get(space, square / 8, square % 8), pieceOf(nibble(nibbles, count++)));
+                }
+            }
+        } catch (InvalidPositionException e) {
+            throw new IllegalArgumentException("Invalid square in snapshot", e);
+        }
+
+        Map<Colour, List<BasePiece>> captured = new EnumMap<>(Colour.class);
+        for (Colour colour : Colour.values()) {
+            List<BasePiece> list = new ArrayList<>();
+            for (PieceType type : PieceType.values()) {
+                int index = colour.ordinal() * PieceType.values().length + type.ordinal();
+                for (int i = 0; i < nibble(eliminated, index); i++) {
+                    list.add(pieceOf(pieceCode(colour, type)));
+                }
+            }
+            captured.put(colour, list);
+        }
+
+        Colour turn = (flags & FLAG_BLACK_TO_MOVE) != 0 ? Colour.BLACK : Colour.WHITE;
+        int enPassantFile = (rights >>> 4) - 1;
+        if (enPassantFile > 7) {
+            throw new IllegalArgumentException("Invalid en-passant file in snapshot: " + enPassantFile);
+        }
+        // The target is behind the pawn that just moved: rank 3 after WHITE's push, rank 6 after BLACK's
+        int enPassantSquare = enPassantFile < 0 ? -1 : (turn == Colour.BLACK ? 5 : 2) * 8 + enPassantFile;
+
+        Board board = new Board();
+        board.restore(pieces, turn, ply, (flags & FLAG_GAME_OVER) != 0, winnerOf((flags >>> WINNER_SHIFT) & 3),
+            drawOf((flags >>> DRAW_SHIFT) & 3), halfmoveClock, rights & 0xF, enPassantSquare, captured, version);
+        return board;
+    }
+
+    /**
+     * Reads the ply of a snapshot without decoding it.
+     *
+     * @param snapshot Encoded snapshot
+     * @return Number of moves played in the snapshot position
+     */
+    public static int ply(byte[] snapshot) {
+        return Short.toUnsignedInt(ByteBuffer.wrap(snapshot).getShort(PLY_OFFSET));
+    }
+
+    /**
+     * Reads the halfmove clock of a snapshot without decoding it.
+     *
+     * @param snapshot Encoded snapshot
+     * @return Plies since the last capture or pawn move in the snapshot position
+     */
+    public static int halfmoveClock(byte[] snapshot) {
+        return Byte.toUnsignedInt(snapshot[HALFMOVE_OFFSET]);
+    }
+
+    private static int pieceCode(Colour colour, PieceType type) {
+        return (colour == Colour.BLACK ? 8 : 0) | type.ordinal();
+    }
+
+    private static BasePiece pieceOf(int code) {
+        PieceType[] types = PieceType.values();
+        if ((code & 7) >= types.length) {
+            throw new IllegalArgumentException("Invalid piece code in snapshot: " + code);
+        }
+        return PieceFactory.createPiece(types[code & 7].name(), (code & 8) != 0 ? Colour.BLACK : Colour.WHITE);
+    }
+
+    private static int winnerCode(String winner) {
+        if (Colour.WHITE.toString().equals(winner)) {
+            return 1;
+        }
+        return Colour.BLACK.toString().equals(winner) ? 2 : 0;
+    }
+
+    private static String winnerOf(int code) {
+        if (code == 1) {
+            return Colour.WHITE.toString();
+        }
+        return code == 2 ? Colour.BLACK.toString() : null;
+    }
+
+    private static int enPassantCode(int square) {
+        return square < 0 ? 0 : square % 8 + 1;
+    }
+
+    private static int drawCode(DrawReason reason) {
+        return reason == null ? 0 : reason.ordinal() + 1;
+    }
+
+    private static DrawReason drawOf(int code) {
+        DrawReason[] reasons = DrawReason.values();
+        if (code > reasons.length) {
+            throw new IllegalArgumentException("Invalid draw reason in snapshot: " + code);
+        }
+        return code == 0 ? null : reasons[code - 1];
+    }
+
+    private static int nibble(byte[] nibbles, int index) {
+        int value = nibbles[index / 2];
+        return (index % 2 == 0 ? value >>> 4 : value) & 0xF;
+    }
+
+    private static void setNibble(byte[] nibbles, int index, int value) {
+        int shift = index % 2 == 0 ? 4 : 0;
+        nibbles[index / 2] = (byte) ((nibbles[index / 2] & ~(0xF << shift)) | (value << shift));
+    }
+}
@@ -0,0 +1,398 @@
+package entity;
+
+import helper.Colour;
+import helper.DrawReason;
+import helper.InvalidPositionException;
+import helper.Position;
+import utility.BoardAdapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable version of a {@link Board}, published after every change.
+ *
+ * <p>Versions are persistent: pieces are held in one array per rank of each
+ * colour space, under a small root array, and a new version copies only the
+ * root and the ranks whose squares changed, sharing every other rank with
+ * the version before it. Eliminated pieces are a linked list whose older
+ * part is shared in the same way. Publishing a move therefore costs a few
+ * short array copies, and a game's whole history of versions costs about
+ * one rank per changed square per ply.
+ *
+ * <p>Pieces never change once placed, so a version can be read from any
+ * thread, and held for as long as needed, while the board keeps moving.
+ * A version holds everything a game state, evaluation or snapshot is built
+ * from, including the legal moves of the side to move: those the board
+ * generated for the position already, or else generated from the
+ * version's own pieces on first request. Readers on other threads use the
+ * published version only and never touch the board itself.
+ *
+ * @see Board#snapshot()
+ * @version 1.0
+ */
+public final class ImmutableBoard {
+
+    /** Ranks of both colour spaces: WHITE space ranks 0-7, then BLACK space ranks 0-7 */
+    private static final int RANKS = 16;
+
+    /** Pieces by rank (colour space * 8 + row) and column; ranks are shared between versions */
+    private final BasePiece[][] ranks;
+
+    /** Eliminated pieces by colour ordinal, latest capture first */
+    private final Captured[] eliminated;
+
+    private final Colour turn;
+    private final int ply;
+    private final long version;
+    private final long positionKey;
+    private final int evaluation;
+    private final int castlingRights;
+    private final int enPassantSquare;
+    private final int halfmoveClock;
+    private final boolean gameOver;
+    private final String winner;
+    private final DrawReason drawReason;
+    private final int repetitionCount;
+    private final int whiteMaterial;
+    private final int blackMaterial;
+    private final int gamePhase;
+
+    /** Legal moves of the side to move, or null until first requested */
+    private volatile Map<Position, Set<Position>> legalMoves;
+
+    private ImmutableBoard(BasePiece[][] ranks, Captured[] eliminated, Board board,
+            Map<Position, Set<Position>> legalMoves) {
+        this.ranks = ranks;
+        this.eliminated = eliminated;
+        this.turn = board.getTurn();
+        this.ply = board.getPly();
+        this.version = board.getVersion();
+        this.positionKey = board.getPositionKey();
+        this.evaluation = board.getEvaluation();
+        this.castlingRights = board.getCastlingRights();
+        this.enPassantSquare = board.getEnPassantSquare();
+        this.halfmoveClock = board.getHalfmoveClock();
+        this.gameOver = board.isGameOver();
+        this.winner = board.getWinner();
+        this.drawReason = board.getDrawReason();
+        this.repetitionCount = board.getRepetitionCount();
+        this.whiteMaterial = board.getMaterial(Colour.WHITE);
+        this.blackMaterial = board.getMaterial(Colour.BLACK);
+        this.gamePhase = board.getGamePhase();
+        this.legalMoves = legalMoves;
+    }
+
+    /**
+     * Creates the next version of a board.
+     *
+     * @param previous Previous version, or null to copy every rank
+     * @param board Board to publish
+     * @param changed Squares changed since the previous version, by colour space ordinal
+     * @param legalMoves Legal moves the board generated for the position, or null if none yet
+     * @return New version sharing the unchanged ranks of the previous one
+     */
+    static ImmutableBoard next(ImmutableBoard previous, Board board, long[] changed,
+            Map<Position, Set<Position>> legalMoves) {
+        BasePiece[][] ranks;
+        if (previous == null) {
+            ranks = new BasePiece[RANKS][8];
+            changed = new long[] {-1L, -1L};
+        } else if ((changed[0] | changed[1]) == 0) {
+            ranks = previous.ranks;
+        } else {
+            ranks = previous.ranks.clone();
+        }
+
+        Map<Position, BasePiece> pieces = board.getBoardMap();
+        for (Colour space : Colour.values()) {
+            long squares = changed[space.ordinal()];
+            while (squares != 0) {
+                int square = Long.numberOfTrailingZeros(squares);
+                int rank = space.ordinal() * 8 + square / 8;
+                if (previous != null && ranks[rank] == previous.ranks[rank]) {
+                    ranks[rank] = ranks[rank].clone();
+                }
+                ranks[rank][square % 8] = pieces.get(position(space, square));
+                squares &= squares - 1;
+            }
+        }
+
+        Captured[] eliminated = new Captured[2];
+        for (Colour colour : Colour.values()) {
+            eliminated[colour.ordinal()] = Captured.extend(
+                previous == null ? null : previous.eliminated[colour.ordinal()], board.getEliminated(colour));
+        }
+        return new ImmutableBoard(ranks, eliminated, board, legalMoves);
+    }
+
+    /**
+     * Gets the piece on a position.
+     *
+     * @param position Position in either colour space
+     * @return Piece, or null if the position is empty
+     */
+    public BasePiece getPiece(Position position) {
+        return ranks[position.getColour().ordinal() * 8 + position.getRow()][position.getColumn()];
+    }
+
+    /**
+     * Gets all pieces of this version.
+     *
+     * @return New map of positions to pieces
+     */
+    public Map<Position, BasePiece> getPieces() {
+        Map<Position, BasePiece> pieces = new HashMap<>();
+        for (int rank = 0; rank < RANKS; rank++) {
+            for (int column = 0; column < 8; column++) {
+                BasePiece piece = ranks[rank][column];
+                if (piece != null) {
+                    pieces.put(position(Colour.values()[rank / 8], rank % 8 * 8 + column), piece);
+                }
+            }
+        }
+        return pieces;
+    }
+
+    /**
+     * Gets the board representation for web view.
+     *
+     * @return Map of square labels to piece representations
+     * @see Board#getWebViewBoard()
+     */
+    public Map<String, String> getWebViewBoard() {
+        return BoardAdapter.convertModelBoardToViewBoard(getPieces());
+    }
+
+    /**
+     * Gets the pieces of one colour that had been eliminated.
+     *
+     * @param colour Colour of the eliminated pieces
+     * @return Eliminated pieces in capture order
+     */
+    public List<BasePiece> getEliminated(Colour colour) {
+        Captured captured = eliminated[colour.ordinal()];
+        List<BasePiece> pieces = new ArrayList<>(Captured.size(captured));
+        for (; captured != null; captured = captured.previous) {
+            pieces.add(captured.piece);
+        }
+        Collections.reverse(pieces);
+        return pieces;
+    }
+
+    /**
+     * Gets every legal move of the side to move.
+     * 
+     * <p>Generated at most once per version, and not at all if the board
+     * had generated them before publishing; a race between two first
+     * readers only generates the same moves twice.
+     * 
+     * @return Legal target positions by start position
+     * @see Board#getLegalMoves()
+     */
+    public Map<Position, Set<Position>> getLegalMoves() {
+        Map<Position, Set<Position>> moves = legalMoves;
+        if (moves == null) {
+            long[] targets = new LegalMoveGenerator(getPieces()).generate(turn, castlingRights, enPassantSquare);
+            moves = Collections.unmodifiableMap(Board.toPositions(turn, targets));
+            legalMoves = moves;
+        }
+        return moves;
+    }
+
+    /**
+     * Gets the legal moves of the side to move if they were generated.
+     * 
+     * @return Legal moves, or null if nobody asked for them yet
+     */
+    Map<Position, Set<Position>> getGeneratedLegalMoves() {
+        return legalMoves;
+    }
+
+    /**
+     * Checks whether this version shares a rank with another version.
+     *
+     * @param other Other version
+     * @param space Colour space of the rank
+     * @param row Row of the rank
+     * @return true if both versions hold the same rank array
+     */
+    boolean sharesRank(ImmutableBoard other, Colour space, int row) {
+        return ranks[space.ordinal() * 8 + row] == other.ranks[space.ordinal() * 8 + row];
+    }
+
+    /**
+     * Gets the side to move.
+     *
+     * @return Colour to move
+     */
+    public Colour getTurn() {
+        return turn;
+    }
+
+    /**
+     * Gets the number of moves played.
+     *
+     * @return Ply of this version
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Gets the board version this was published at.
+     *
+     * @return Value of {@link Board#getVersion()} when published
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the Zobrist key of the position.
+     *
+     * @return Position key
+     */
+    public long getPositionKey() {
+        return positionKey;
+    }
+
+    /**
+     * Gets the static evaluation of the position.
+     *
+     * @return Score in centipawns, positive when WHITE is better
+     */
+    public int getEvaluation() {
+        return evaluation;
+    }
+
+    /**
+     * Gets the castling rights still available.
+     *
+     * @return Mask of the {@link Board} castling constants
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * Gets the square a pawn can capture en passant on.
+     *
+     * @return Square, or -1
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * Gets the plies since the last capture or pawn move.
+     *
+     * @return Halfmove clock
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Checks if the game had ended.
+     *
+     * @return true if game is over, false otherwise
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Gets the winner of the game.
+     *
+     * @return Winning colour, or null
+     */
+    public String getWinner() {
+        return winner;
+    }
+
+    /**
+     * Counts how often the position had occurred.
+     * 
+     * @return Occurrences of the position, including this one
+     */
+    public int getRepetitionCount() {
+        return repetitionCount;
+    }
+
+    /**
+     * Gets the material on the board for one side.
+     * 
+     * @param colour Side to count material for
+     * @return Material in centipawns, kings excluded
+     */
+    public int getMaterial(Colour colour) {
+        return colour == Colour.WHITE ? whiteMaterial : blackMaterial;
+    }
+
+    /**
+     * Gets the game phase used to taper the evaluation.
+     * 
+     * @return Value from 0 (bare endgame) to 24 (full middlegame)
+     */
+    public int getGamePhase() {
+        return gamePhase;
+    }
+
+    /**
+     * Gets the rule that drew the game.
+     *
+     * @return Draw reason, or null if the game was not drawn
+     */
+    public DrawReason getDrawReason() {
+        return drawReason;
+    }
+
+    private static Position position(Colour space, int square) {
+        try {
+            return Position.get(space, square / 8, square % 8);
+        } catch (InvalidPositionException e) {
+            throw new IllegalArgumentException("Invalid square " + square, e);
+        }
+    }
+
+    /**
+     * Node of a persistent list of eliminated pieces, latest capture first.
+     */
+    private static final class Captured {
+
+        private final BasePiece piece;
+        private final Captured previous;
+        private final int size;
+
+        private Captured(BasePiece piece, Captured previous) {
+            this.piece = piece;
+            this.previous = previous;
+            this.size = size(previous) + 1;
+        }
+
+        private static int size(Captured captured) {
+            return captured == null ? 0 : captured.size;
+        }
+
+        /**
+         * Appends the pieces captured since a list was built, rebuilding it
+         * only if the board's list was replaced rather than appended to.
+         */
+        private static Captured extend(Captured list, List<BasePiece> pieces) {
+            int shared = size(list);
+            if (shared > pieces.size() || (shared > 0 && list.piece != pieces.get(shared - 1))) {
+                list = null;
+                shared = 0;
+            }
+            for (int i = shared; i < pieces.size(); i++) {
+                list = new Captured(pieces.get(i), list);
+            }
+            return list;
+        }
+    }
+}
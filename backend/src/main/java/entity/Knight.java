@@ -2,6 +2,7 @@ package entity;
 
 import helper.Colour;
 import helper.Direction;
+import helper.PieceType;
 import helper.Position;
 import utility.Log;
 
@@ -72,6 +73,15 @@ public class Knight extends BasePiece {
         return positionSet;
     }
 
+    /**
+     * Returns the type of this piece
+     * @return PieceType.KNIGHT
+     */
+    @Override
+    public PieceType getType() {
+        return PieceType.KNIGHT;
+    }
+
     /**
      * Returns custom string representation of the class
      * @return String
@@ -0,0 +1,478 @@
+package entity;
+
+import helper.Colour;
+import helper.PieceType;
+import helper.Position;
+import helper.TerminalState;
+
+import java.util.Map;
+
+/**
+ * Generates strictly legal moves on physical squares without playing them.
+ *
+ * <p>The board is read once into one bitboard per colour and piece type,
+ * with squares numbered {@code row * 8 + column} as in
+ * {@link Position#getSquare()}. Pieces of both colour spaces block each
+ * other and are captured on the square they stand on.
+ *
+ * <p>Before any move is emitted the generator works out, for the side to
+ * move:
+ * <ul>
+ *   <li>the checking pieces and the check mask of squares that capture the
+ *       checker or block its ray; in double check only the king moves</li>
+ *   <li>the pinned pieces and the ray each one may still move along</li>
+ * </ul>
+ * Every move is then filtered by masks alone, so no move is tried on a copy
+ * of the board. Attacks are found by probing outward from the attacked
+ * square rather than by generating the opponent's moves: a king step is
+ * probed with the king lifted off the board, so it cannot retreat along a
+ * checking ray. Castling needs the squares between king and rook empty and
+ * the king's start, path and destination unattacked. En passant, which
+ * removes two pieces from one rank, is probed with both pawns moved.
+ *
+ * @see Board#getLegalMoves()
+ * @version 1.0
+ */
+final class LegalMoveGenerator {
+
+    /** Squares attacked by a King from each square */
+    private static final long[] KING_ATTACKS = new long[64];
+
+    /** Squares attacked by a Knight from each square */
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+
+    private static final int[][] KING_STEPS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+    private static final int[][] KNIGHT_STEPS = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    private static final int PAWN = PieceType.PAWN.ordinal();
+    private static final int KNIGHT = PieceType.KNIGHT.ordinal();
+    private static final int BISHOP = PieceType.BISHOP.ordinal();
+    private static final int ROOK = PieceType.ROOK.ordinal();
+    private static final int QUEEN = PieceType.QUEEN.ordinal();
+    private static final int KING = PieceType.KING.ordinal();
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KING_ATTACKS[square] = steps(square, KING_STEPS);
+            KNIGHT_ATTACKS[square] = steps(square, KNIGHT_STEPS);
+        }
+    }
+
+    /** Pieces indexed by [colour][piece type] */
+    private final long[][] pieces = new long[2][PieceType.values().length];
+
+    /** Pieces of each colour */
+    private final long[] occupancy = new long[2];
+
+    /** Pieces of both colours */
+    private final long occupied;
+
+    /**
+     * Reads the pieces of a board.
+     *
+     * @param boardMap Pieces by position, in either colour space
+     */
+    LegalMoveGenerator(Map<Position, BasePiece> boardMap) {
+        for (Map.Entry<Position, BasePiece> entry : boardMap.entrySet()) {
+            BasePiece piece = entry.getValue();
+            int colour = piece.getColour().ordinal();
+            long bit = bit(entry.getKey().getSquare());
+            pieces[colour][piece.getType().ordinal()] |= bit;
+            occupancy[colour] |= bit;
+        }
+        this.occupied = occupancy[0] | occupancy[1];
+    }
+
+    /**
+     * Checks whether a side's king is attacked.
+     *
+     * @param side Side whose king to test
+     * @return true if an enemy piece attacks the king
+     */
+    boolean isInCheck(Colour side) {
+        long king = pieces[side.ordinal()][KING];
+        return king != 0 && attackersOf(Long.numberOfTrailingZeros(king), side.next(), occupied) != 0;
+    }
+
+    /**
+     * Generates the strictly legal moves of one side.
+     *
+     * @param side Side to generate moves for
+     * @param castlingRights Castling rights mask of the board
+     * @param enPassantSquare En-passant target square, or -1
+     * @return Target squares as a bitmask, indexed by start square
+     */
+    long[] generate(Colour side, int castlingRights, int enPassantSquare) {
+        long[] targets = new long[64];
+        KingSafety safety = new KingSafety(side);
+        if (safety.kingSquare >= 0) {
+            targets[safety.kingSquare] = kingMoves(side, safety);
+            if (safety.checkers == 0) {
+                targets[safety.kingSquare] |= castlingMoves(side, safety.kingSquare, castlingRights);
+            }
+            if (safety.isDoubleCheck()) {
+                return targets;
+            }
+        }
+        for (int type = 0; type < KING; type++) {
+            for (long remaining = pieces[side.ordinal()][type]; remaining != 0; remaining &= remaining - 1) {
+                int from = Long.numberOfTrailingZeros(remaining);
+                targets[from] = pieceMoves(type, side, from, safety, enPassantSquare);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Decides whether a side is checkmated, stalemated or still has a move.
+     *
+     * <p>One legal reply is enough to decide, so replies are tried in the
+     * order most likely to exist and the search stops at the first one:
+     * king moves, then captures of the checking piece, then moves that block
+     * its ray. Without check, pieces are tried one at a time. Castling is
+     * never the only legal move, since the king could step to the square
+     * it passes through, so it is not tried.
+     *
+     * @param side Side to move
+     * @param enPassantSquare En-passant target square, or -1
+     * @return Terminal state of the position for the side to move
+     */
+    TerminalState terminalState(Colour side, int enPassantSquare) {
+        KingSafety safety = new KingSafety(side);
+        boolean inCheck = safety.checkers != 0;
+        if (hasReply(side, safety, enPassantSquare)) {
+            return TerminalState.ONGOING;
+        }
+        return inCheck ? TerminalState.CHECKMATE : TerminalState.STALEMATE;
+    }
+
+    private boolean hasReply(Colour side, KingSafety safety, int enPassantSquare) {
+        if (safety.kingSquare >= 0 && kingMoves(side, safety) != 0) {
+            return true;
+        }
+        if (safety.isDoubleCheck()) {
+            return false;
+        }
+        if (safety.checkers == 0) {
+            return hasPieceMove(side, safety, ~0L, enPassantSquare);
+        }
+        return hasPieceMove(side, safety, safety.checkers, enPassantSquare)
+            || hasPieceMove(side, safety, safety.checkMask & ~safety.checkers, enPassantSquare);
+    }
+
+    private boolean hasPieceMove(Colour side, KingSafety safety, long targets, int enPassantSquare) {
+        if (targets == 0) {
+            return false;
+        }
+        for (int type = 0; type < KING; type++) {
+            // A pinned piece only moves along its pin ray, which never reaches another checker
+            long remaining = pieces[side.ordinal()][type] & (safety.checkers == 0 ? ~0L : ~safety.pinned);
+            for (; remaining != 0; remaining &= remaining - 1) {
+                int from = Long.numberOfTrailingZeros(remaining);
+                long moves = pieceMoves(type, side, from, safety, enPassantSquare);
+                // En passant resolves a pawn check on a square other than the checker's
+                if ((moves & targets) != 0 || (type == PAWN && enPassantSquare >= 0
+                        && (targets & safety.checkers) != 0 && (moves & bit(enPassantSquare)) != 0)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the squares the king can step to. Each is probed with the king
+     * lifted off the board, so it cannot retreat along a checking ray.
+     */
+    private long kingMoves(Colour side, KingSafety safety) {
+        long blockers = occupied & ~bit(safety.kingSquare);
+        long moves = 0L;
+        for (long steps = KING_ATTACKS[safety.kingSquare] & ~occupancy[side.ordinal()]; steps != 0; steps &= steps - 1) {
+            int target = Long.numberOfTrailingZeros(steps);
+            if (!isAttacked(target, side.next(), blockers)) {
+                moves |= bit(target);
+            }
+        }
+        return moves;
+    }
+
+    private long pieceMoves(int type, Colour side, int from, KingSafety safety, int enPassantSquare) {
+        long moves = type == PAWN
+            ? pawnPushes(side, from) | (pawnAttacks(side, from) & occupancy[1 - side.ordinal()])
+            : attacks(type, side, from, occupied) & ~occupancy[side.ordinal()];
+        moves &= safety.checkMask;
+        if (type == PAWN && enPassantSquare >= 0 && (pawnAttacks(side, from) & bit(enPassantSquare)) != 0
+                && isLegalEnPassant(side, from, enPassantSquare, safety.checkMask, safety.kingSquare)) {
+            moves |= bit(enPassantSquare);
+        }
+        if ((safety.pinned & bit(from)) != 0) {
+            moves &= safety.pinRays[from];
+        }
+        return moves;
+    }
+
+    /**
+     * Attacks on the king of one side, worked out before any move is
+     * generated. Boards set up without a king have no check to respect.
+     */
+    private final class KingSafety {
+
+        /** Square of the king, or -1 */
+        final int kingSquare;
+
+        /** Pieces giving check */
+        long checkers;
+
+        /** Squares that capture the checker or block its ray, all squares without check */
+        long checkMask = ~0L;
+
+        /** Pieces pinned to the king */
+        long pinned;
+
+        /** Squares each pinned piece may move to, indexed by square */
+        final long[] pinRays = new long[64];
+
+        KingSafety(Colour side) {
+            int us = side.ordinal();
+            long king = pieces[us][KING];
+            kingSquare = king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+            if (king == 0) {
+                return;
+            }
+            checkers = attackersOf(kingSquare, side.next(), occupied);
+            if (checkers != 0) {
+                checkMask = checkers | between(kingSquare, Long.numberOfTrailingZeros(checkers));
+            }
+            pinned = pins(us, kingSquare, pinRays);
+        }
+
+        boolean isDoubleCheck() {
+            return Long.bitCount(checkers) > 1;
+        }
+    }
+
+    /**
+     * Finds the pieces pinned to the king and the ray each may move along,
+     * which runs from the king up to and including the pinning piece.
+     *
+     * @return Bitmask of pinned pieces
+     */
+    private long pins(int us, int kingSquare, long[] pinRays) {
+        int them = 1 - us;
+        long orthogonal = pieces[them][ROOK] | pieces[them][QUEEN];
+        long diagonal = pieces[them][BISHOP] | pieces[them][QUEEN];
+        return pinsAlong(us, kingSquare, ROOK_DIRECTIONS, orthogonal, pinRays)
+            | pinsAlong(us, kingSquare, BISHOP_DIRECTIONS, diagonal, pinRays);
+    }
+
+    private long pinsAlong(int us, int kingSquare, int[][] directions, long sliders, long[] pinRays) {
+        long pinned = 0L;
+        for (int[] direction : directions) {
+            long ray = 0L;
+            int candidate = -1;
+            int row = (kingSquare >>> 3) + direction[0];
+            int column = (kingSquare & 7) + direction[1];
+            while (row >= 0 && row < 8 && column >= 0 && column < 8) {
+                int square = row * 8 + column;
+                ray |= bit(square);
+                if ((occupied & bit(square)) != 0) {
+                    if (candidate < 0 && (occupancy[us] & bit(square)) != 0) {
+                        candidate = square;
+                    } else {
+                        if (candidate >= 0 && (sliders & bit(square)) != 0) {
+                            pinned |= bit(candidate);
+                            pinRays[candidate] = ray;
+                        }
+                        break;
+                    }
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return pinned;
+    }
+
+    private long castlingMoves(Colour side, int kingSquare, int castlingRights) {
+        int row = side == Colour.WHITE ? 7 : 0;
+        int home = row * 8 + 4;
+        long rooks = pieces[side.ordinal()][ROOK];
+        if (kingSquare != home) {
+            return 0L;
+        }
+        long moves = 0L;
+        int kingSide = side == Colour.WHITE ? Board.WHITE_KINGSIDE : Board.BLACK_KINGSIDE;
+        int queenSide = side == Colour.WHITE ? Board.WHITE_QUEENSIDE : Board.BLACK_QUEENSIDE;
+        long kingSidePath = bit(home + 1) | bit(home + 2);
+        if ((castlingRights & kingSide) != 0 && (rooks & bit(home + 3)) != 0
+                && (occupied & kingSidePath) == 0 && !isAttacked(home + 1, side.next(), occupied)
+                && !isAttacked(home + 2, side.next(), occupied)) {
+            moves |= bit(home + 2);
+        }
+        long queenSidePath = bit(home - 1) | bit(home - 2);
+        if ((castlingRights & queenSide) != 0 && (rooks & bit(home - 4)) != 0
+                && (occupied & (queenSidePath | bit(home - 3))) == 0 && !isAttacked(home - 1, side.next(), occupied)
+                && !isAttacked(home - 2, side.next(), occupied)) {
+            moves |= bit(home - 2);
+        }
+        return moves;
+    }
+
+    /**
+     * Checks an en-passant capture, which must resolve any check through
+     * the captured pawn or the target square, and must not uncover a
+     * sliding attack on the king along the rank the two pawns leave.
+     */
+    private boolean isLegalEnPassant(Colour side, int from, int target, long checkMask, int kingSquare) {
+        int captured = (from & ~7) | (target & 7);
+        if ((checkMask & (bit(target) | bit(captured))) == 0) {
+            return false;
+        }
+        if (kingSquare < 0) {
+            return true;
+        }
+        long after = (occupied & ~bit(from) & ~bit(captured)) | bit(target);
+        return (attackersOf(kingSquare, side.next(), after) & ~bit(captured)) == 0;
+    }
+
+    /**
+     * Gets the pieces of one colour that attack a square, probing outward
+     * from the square: rook and bishop rays up to the first blocker, then
+     * the knight, pawn and king offsets.
+     *
+     * @param square Square to probe
+     * @param by Colour of the attackers
+     * @param blockers Squares that stop a ray, so moves can be simulated by
+     *                 lifting pieces off or adding them
+     * @return Bitmask of attacking pieces
+     */
+    long attackersOf(int square, Colour by, long blockers) {
+        long[] attacker = pieces[by.ordinal()];
+        return (KNIGHT_ATTACKS[square] & attacker[KNIGHT])
+            | (KING_ATTACKS[square] & attacker[KING])
+            | (pawnAttacks(by.next(), square) & attacker[PAWN])
+            | (slide(square, blockers, ROOK_DIRECTIONS) & (attacker[ROOK] | attacker[QUEEN]))
+            | (slide(square, blockers, BISHOP_DIRECTIONS) & (attacker[BISHOP] | attacker[QUEEN]));
+    }
+
+    /**
+     * Checks whether a square is attacked, stopping at the first attacker
+     * found and skipping rays of piece kinds the attacker no longer has.
+     */
+    private boolean isAttacked(int square, Colour by, long blockers) {
+        long[] attacker = pieces[by.ordinal()];
+        if ((KNIGHT_ATTACKS[square] & attacker[KNIGHT]) != 0
+                || (KING_ATTACKS[square] & attacker[KING]) != 0
+                || (pawnAttacks(by.next(), square) & attacker[PAWN]) != 0) {
+            return true;
+        }
+        long orthogonal = attacker[ROOK] | attacker[QUEEN];
+        if (orthogonal != 0 && (slide(square, blockers, ROOK_DIRECTIONS) & orthogonal) != 0) {
+            return true;
+        }
+        long diagonal = attacker[BISHOP] | attacker[QUEEN];
+        return diagonal != 0 && (slide(square, blockers, BISHOP_DIRECTIONS) & diagonal) != 0;
+    }
+
+    private long pawnPushes(Colour side, int square) {
+        int forward = side == Colour.WHITE ? -8 : 8;
+        int startRow = side == Colour.WHITE ? 6 : 1;
+        int one = square + forward;
+        if (one < 0 || one >= 64 || (occupied & bit(one)) != 0) {
+            return 0L;
+        }
+        long pushes = bit(one);
+        int two = one + forward;
+        if ((square >>> 3) == startRow && (occupied & bit(two)) == 0) {
+            pushes |= bit(two);
+        }
+        return pushes;
+    }
+
+    private static long attacks(int type, Colour colour, int square, long blockers) {
+        if (type == PAWN) {
+            return pawnAttacks(colour, square);
+        } else if (type == KNIGHT) {
+            return KNIGHT_ATTACKS[square];
+        } else if (type == BISHOP) {
+            return slide(square, blockers, BISHOP_DIRECTIONS);
+        } else if (type == ROOK) {
+            return slide(square, blockers, ROOK_DIRECTIONS);
+        } else if (type == QUEEN) {
+            return slide(square, blockers, BISHOP_DIRECTIONS) | slide(square, blockers, ROOK_DIRECTIONS);
+        }
+        return KING_ATTACKS[square];
+    }
+
+    private static long pawnAttacks(Colour side, int square) {
+        int row = (square >>> 3) + (side == Colour.WHITE ? -1 : 1);
+        int column = square & 7;
+        long attacks = 0L;
+        if (row >= 0 && row < 8) {
+            if (column > 0) {
+                attacks |= bit(row * 8 + column - 1);
+            }
+            if (column < 7) {
+                attacks |= bit(row * 8 + column + 1);
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Gets the squares strictly between two squares on a shared line, or
+     * none if they do not share a rank, file or diagonal.
+     */
+    private static long between(int from, int to) {
+        int rowStep = Integer.signum((to >>> 3) - (from >>> 3));
+        int columnStep = Integer.signum((to & 7) - (from & 7));
+        int rows = Math.abs((to >>> 3) - (from >>> 3));
+        int columns = Math.abs((to & 7) - (from & 7));
+        if (rows != 0 && columns != 0 && rows != columns) {
+            return 0L;
+        }
+        long squares = 0L;
+        int square = from + rowStep * 8 + columnStep;
+        while (square != to) {
+            squares |= bit(square);
+            square += rowStep * 8 + columnStep;
+        }
+        return squares;
+    }
+
+    private static long slide(int square, long blockers, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = (square >>> 3) + direction[0];
+            int column = (square & 7) + direction[1];
+            while (row >= 0 && row < 8 && column >= 0 && column < 8) {
+                int target = row * 8 + column;
+                attacks |= bit(target);
+                if ((blockers & bit(target)) != 0) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static long steps(int square, int[][] offsets) {
+        long mask = 0L;
+        for (int[] offset : offsets) {
+            int row = (square >>> 3) + offset[0];
+            int column = (square & 7) + offset[1];
+            if (row >= 0 && row < 8 && column >= 0 && column < 8) {
+                mask |= bit(row * 8 + column);
+            }
+        }
+        return mask;
+    }
+
+    private static long bit(int square) {
+        return 1L << square;
+    }
+}
@@ -2,6 +2,7 @@ package entity;
 
 import helper.Colour;
 import helper.Direction;
+import helper.PieceType;
 import helper.Position;
 import utility.Log;
 
@@ -117,6 +118,15 @@ public class Pawn extends BasePiece {
         }
     }
 
+    /**
+     * Returns the type of this piece
+     * @return PieceType.PAWN
+     */
+    @Override
+    public PieceType getType() {
+        return PieceType.PAWN;
+    }
+
     /**
      * Returns custom string representation of the class
      * @return String
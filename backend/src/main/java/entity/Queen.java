@@ -2,6 +2,7 @@ package entity;
 
 import helper.Colour;
 import helper.Direction;
+import helper.PieceType;
 import helper.Position;
 import utility.Log;
 
@@ -75,6 +76,15 @@ public class Queen extends BasePiece {
         return positionSet;
     }
 
+    /**
+     * Returns the type of this piece
+     * @return PieceType.QUEEN
+     */
+    @Override
+    public PieceType getType() {
+        return PieceType.QUEEN;
+    }
+
     /**
      * Returns custom string representation of the class
      * @return String
@@ -2,6 +2,7 @@ package entity;
 
 import helper.Colour;
 import helper.Direction;
+import helper.PieceType;
 import helper.Position;
 import utility.Log;
 
@@ -68,6 +69,15 @@ public class Rook extends BasePiece {
         return positionSet;
     }
 
+    /**
+     * Returns the type of this piece
+     * @return PieceType.ROOK
+     */
+    @Override
+    public PieceType getType() {
+        return PieceType.ROOK;
+    }
+
     /**
      * Returns custom string representation of the class
      * @return String
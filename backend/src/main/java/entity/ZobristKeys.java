@@ -0,0 +1,115 @@
+package entity;
+
+import helper.Colour;
+import helper.PieceType;
+
+/**
+ * Random keys used to hash board positions into 64-bit values.
+ * 
+ * <p>A position key is the XOR of one key per piece on the board plus keys
+ * for the side to move, the castling rights and the en-passant file. Because XOR is its own inverse, the board can
+ * keep its key up to date by toggling the keys of pieces as they are
+ * placed and removed, without rehashing the whole board.
+ * 
+ * <p>Keys are generated from a fixed seed so that position keys are stable
+ * across runs and can be stored on disk (e.g. in opening books).
+ * 
+ * @see Board#getPositionKey()
+ * @version 1.0
+ */
+public final class ZobristKeys {
+
+    /** Fixed seed so that keys never change between releases */
+    private static final long SEED = 0x2C4E5A17B39D86F1L;
+
+    /** Keys indexed by [colour][piece type][square] */
+    private static final long[][][] PIECE_KEYS = new long[2][PieceType.values().length][64];
+
+    /** Key toggled when BLACK is to move */
+    private static final long BLACK_TO_MOVE;
+
+    /** Keys indexed by castling rights mask */
+    private static final long[] CASTLING_KEYS = new long[16];
+
+    /** Keys indexed by file of the en-passant target square */
+    private static final long[] EN_PASSANT_KEYS = new long[8];
+
+    static {
+        long state = SEED;
+        for (int colour = 0; colour < 2; colour++) {
+            for (int type = 0; type < PieceType.values().length; type++) {
+                for (int square = 0; square < 64; square++) {
+                    state += 0x9E3779B97F4A7C15L;
+                    PIECE_KEYS[colour][type][square] = mix(state);
+                }
+            }
+        }
+        state += 0x9E3779B97F4A7C15L;
+        BLACK_TO_MOVE = mix(state);
+        // Drawn after the keys above so that piece and side keys keep their values
+        for (int rights = 1; rights < CASTLING_KEYS.length; rights++) {
+            state += 0x9E3779B97F4A7C15L;
+            CASTLING_KEYS[rights] = mix(state);
+        }
+        for (int file = 0; file < EN_PASSANT_KEYS.length; file++) {
+            state += 0x9E3779B97F4A7C15L;
+            EN_PASSANT_KEYS[file] = mix(state);
+        }
+    }
+
+    private ZobristKeys() {
+    }
+
+    /**
+     * Gets the key of a piece standing on a square.
+     * 
+     * @param colour Colour of the piece
+     * @param type Type of the piece
+     * @param square Physical square index (0-63)
+     * @return 64-bit key
+     */
+    public static long piece(Colour colour, PieceType type, int square) {
+        return PIECE_KEYS[colour.ordinal()][type.ordinal()][square];
+    }
+
+    /**
+     * Gets the key toggled for the side to move.
+     * 
+     * @param turn Side to move
+     * @return 64-bit key, zero for WHITE
+     */
+    public static long sideToMove(Colour turn) {
+        return turn == Colour.BLACK ? BLACK_TO_MOVE : 0L;
+    }
+
+    /**
+     * Gets the key of a set of castling rights.
+     * 
+     * @param rights Castling rights mask (0-15)
+     * @return 64-bit key, zero without rights
+     * @see Board#getCastlingRights()
+     */
+    public static long castling(int rights) {
+        return CASTLING_KEYS[rights];
+    }
+
+    /**
+     * Gets the key of an en-passant target square.
+     * 
+     * @param square Physical square index (0-63), or -1 if there is none
+     * @return 64-bit key, zero without a target
+     * @see Board#getEnPassantSquare()
+     */
+    public static long enPassant(int square) {
+        return square < 0 ? 0L : EN_PASSANT_KEYS[square % 8];
+    }
+
+    /**
+     * SplitMix64 finaliser, spelled out so keys do not depend on JDK internals.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
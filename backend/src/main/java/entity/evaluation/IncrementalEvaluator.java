@@ -0,0 +1,124 @@
+package entity.evaluation;
+
+import entity.BasePiece;
+import helper.Colour;
+import helper.Position;
+
+/**
+ * Static evaluation of a board that is kept up to date incrementally.
+ *
+ * <p>Instead of scanning the whole board for every request, the owning
+ * {@link entity.Board} reports each piece placed on or removed from a square.
+ * The evaluator keeps running totals per colour for:
+ * <ul>
+ *   <li>Material</li>
+ *   <li>Middlegame and endgame piece-square scores</li>
+ *   <li>Game phase</li>
+ * </ul>
+ *
+ * <p>The final score tapers linearly between the middlegame and endgame
+ * totals according to the remaining non-pawn material, so reading it is
+ * constant time.
+ *
+ * <p>This class is not thread-safe; it is guarded by its owning board.
+ *
+ * @see PieceSquareTables
+ * @see entity.Board
+ * @version 1.0
+ */
+public class IncrementalEvaluator {
+
+    /** Middlegame totals indexed by colour ordinal */
+    private final int[] middlegame = new int[2];
+
+    /** Endgame totals indexed by colour ordinal */
+    private final int[] endgame = new int[2];
+
+    /** Material totals indexed by colour ordinal */
+    private final int[] material = new int[2];
+
+    /** Sum of phase weights of all pieces on the board */
+    private int phase;
+
+    /**
+     * Records a piece being placed on a square.
+     *
+     * @param piece Piece placed
+     * @param position Position the piece was placed on
+     */
+    public void add(BasePiece piece, Position position) {
+        update(piece, position, 1);
+    }
+
+    /**
+     * Records a piece being removed from a square.
+     *
+     * @param piece Piece removed
+     * @param position Position the piece was removed from
+     */
+    public void remove(BasePiece piece, Position position) {
+        update(piece, position, -1);
+    }
+
+    /**
+     * Resets all totals to an empty board.
+     */
+    public void clear() {
+        for (int i = 0; i < 2; i++) {
+            middlegame[i] = 0;
+            endgame[i] = 0;
+            material[i] = 0;
+        }
+        phase = 0;
+    }
+
+    /**
+     * Gets the tapered evaluation of the position.
+     *
+     * @return Score in centipawns, positive when WHITE is better
+     */
+    public int getScore() {
+        int mg = middlegame[Colour.WHITE.ordinal()] - middlegame[Colour.BLACK.ordinal()];
+        int eg = endgame[Colour.WHITE.ordinal()] - endgame[Colour.BLACK.ordinal()];
+        int mgPhase = getPhase();
+        return (mg * mgPhase + eg * (PieceSquareTables.MAX_PHASE - mgPhase)) / PieceSquareTables.MAX_PHASE;
+    }
+
+    /**
+     * Gets the evaluation from one side's point of view.
+     *
+     * @param colour Side to evaluate for
+     * @return Score in centipawns, positive when the given side is better
+     */
+    public int getScore(Colour colour) {
+        return colour == Colour.WHITE ? getScore() : -getScore();
+    }
+
+    /**
+     * Gets the material on the board for one side.
+     *
+     * @param colour Side to count material for
+     * @return Material in centipawns, kings excluded
+     */
+    public int getMaterial(Colour colour) {
+        return material[colour.ordinal()];
+    }
+
+    /**
+     * Gets the game phase.
+     *
+     * @return Value from 0 (bare endgame) to 24 (full middlegame)
+     */
+    public int getPhase() {
+        return Math.min(phase, PieceSquareTables.MAX_PHASE);
+    }
+
+    private void update(BasePiece piece, Position position, int sign) {
+        int side = piece.getColour().ordinal();
+        int square = position.getSquare();
+        middlegame[side] += sign * PieceSquareTables.middlegame(piece.getType(), piece.getColour(), square);
+        endgame[side] += sign * PieceSquareTables.endgame(piece.getType(), piece.getColour(), square);
+        material[side] += sign * PieceSquareTables.material(piece.getType());
+        phase += sign * PieceSquareTables.phase(piece.getType());
+    }
+}
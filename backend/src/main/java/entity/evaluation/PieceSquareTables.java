@@ -0,0 +1,181 @@
+package entity.evaluation;
+
+import helper.Colour;
+import helper.PieceType;
+
+/**
+ * Material values and piece-square tables used by the evaluation.
+ *
+ * <p>Each table holds a middlegame and an endgame bonus in centipawns for
+ * every physical square. Tables are written from WHITE's point of view with
+ * row 0 (the eighth rank) first, matching the board's row numbering, and are
+ * mirrored vertically for BLACK.
+ *
+ * <p>Game phase weights follow the usual convention: minor pieces count 1,
+ * rooks 2 and queens 4, giving {@link #MAX_PHASE} for the starting material.
+ *
+ * @see IncrementalEvaluator
+ * @version 1.0
+ */
+final class PieceSquareTables {
+
+    /** Phase value of the full starting material */
+    static final int MAX_PHASE = 24;
+
+    /** Middlegame material value per piece type */
+    private static final int[] MG_VALUE = {82, 337, 365, 477, 1025, 0};
+
+    /** Endgame material value per piece type */
+    private static final int[] EG_VALUE = {94, 281, 297, 512, 936, 0};
+
+    /** Phase weight per piece type */
+    private static final int[] PHASE = {0, 1, 1, 2, 4, 0};
+
+    private static final int[] PAWN_MG = {
+         0,   0,   0,   0,   0,   0,   0,   0,
+        50,  50,  50,  50,  50,  50,  50,  50,
+        10,  10,  20,  30,  30,  20,  10,  10,
+         5,   5,  10,  25,  25,  10,   5,   5,
+         0,   0,   0,  20,  20,   0,   0,   0,
+         5,  -5, -10,   0,   0, -10,  -5,   5,
+         5,  10,  10, -20, -20,  10,  10,   5,
+         0,   0,   0,   0,   0,   0,   0,   0
+    };
+
+    private static final int[] PAWN_EG = {
+         0,   0,   0,   0,   0,   0,   0,   0,
+        80,  80,  80,  80,  80,  80,  80,  80,
+        50,  50,  50,  50,  50,  50,  50,  50,
+        30,  30,  30,  30,  30,  30,  30,  30,
+        15,  15,  15,  15,  15,  15,  15,  15,
+         5,   5,   5,   5,   5,   5,   5,   5,
+         0,   0,   0,   0,   0,   0,   0,   0,
+         0,   0,   0,   0,   0,   0,   0,   0
+    };
+
+    private static final int[] KNIGHT = {
+       -50, -40, -30, -30, -30, -30, -40, -50,
+       -40, -20,   0,   0,   0,   0, -20, -40,
+       -30,   0,  10,  15,  15,  10,   0, -30,
+       -30,   5,  15,  20,  20,  15,   5, -30,
+       -30,   0,  15,  20,  20,  15,   0, -30,
+       -30,   5,  10,  15,  15,  10,   5, -30,
+       -40, -20,   0,   5,   5,   0, -20, -40,
+       -50, -40, -30, -30, -30, -30, -40, -50
+    };
+
+    private static final int[] BISHOP = {
+       -20, -10, -10, -10, -10, -10, -10, -20,
+       -10,   0,   0,   0,   0,   0,   0, -10,
+       -10,   0,   5,  10,  10,   5,   0, -10,
+       -10,   5,   5,  10,  10,   5,   5, -10,
+       -10,   0,  10,  10,  10,  10,   0, -10,
+       -10,  10,  10,  10,  10,  10,  10, -10,
+       -10,   5,   0,   0,   0,   0,   5, -10,
+       -20, -10, -10, -10, -10, -10, -10, -20
+    };
+
+    private static final int[] ROOK = {
+         0,   0,   0,   0,   0,   0,   0,   0,
+         5,  10,  10,  10,  10,  10,  10,   5,
+        -5,   0,   0,   0,   0,   0,   0,  -5,
+        -5,   0,   0,   0,   0,   0,   0,  -5,
+        -5,   0,   0,   0,   0,   0,   0,  -5,
+        -5,   0,   0,   0,   0,   0,   0,  -5,
+        -5,   0,   0,   0,   0,   0,   0,  -5,
+         0,   0,   0,   5,   5,   0,   0,   0
+    };
+
+    private static final int[] QUEEN = {
+       -20, -10, -10,  -5,  -5, -10, -10, -20,
+       -10,   0,   0,   0,   0,   0,   0, -10,
+       -10,   0,   5,   5,   5,   5,   0, -10,
+        -5,   0,   5,   5,   5,   5,   0,  -5,
+         0,   0,   5,   5,   5,   5,   0,  -5,
+       -10,   5,   5,   5,   5,   5,   0, -10,
+       -10,   0,   5,   0,   0,   0,   0, -10,
+       -20, -10, -10,  -5,  -5, -10, -10, -20
+    };
+
+    private static final int[] KING_MG = {
+       -30, -40, -40, -50, -50, -40, -40, -30,
+       -30, -40, -40, -50, -50, -40, -40, -30,
+       -30, -40, -40, -50, -50, -40, -40, -30,
+       -30, -40, -40, -50, -50, -40, -40, -30,
+       -20, -30, -30, -40, -40, -30, -30, -20,
+       -10, -20, -20, -20, -20, -20, -20, -10,
+        20,  20,   0,   0,   0,   0,  20,  20,
+        20,  30,  10,   0,   0,  10,  30,  20
+    };
+
+    private static final int[] KING_EG = {
+       -50, -40, -30, -20, -20, -30, -40, -50,
+       -30, -20, -10,   0,   0, -10, -20, -30,
+       -30, -10,  20,  30,  30,  20, -10, -30,
+       -30, -10,  30,  40,  40,  30, -10, -30,
+       -30, -10,  30,  40,  40,  30, -10, -30,
+       -30, -10,  20,  30,  30,  20, -10, -30,
+       -30, -30,   0,   0,   0,   0, -30, -30,
+       -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    /** Middlegame tables indexed by piece type ordinal */
+    private static final int[][] MG_TABLES = {PAWN_MG, KNIGHT, BISHOP, ROOK, QUEEN, KING_MG};
+
+    /** Endgame tables indexed by piece type ordinal */
+    private static final int[][] EG_TABLES = {PAWN_EG, KNIGHT, BISHOP, ROOK, QUEEN, KING_EG};
+
+    private PieceSquareTables() {
+    }
+
+    /**
+     * Gets the middlegame score (material plus square bonus) of a piece.
+     *
+     * @param type Piece type
+     * @param colour Piece colour
+     * @param square Physical square index (0-63)
+     * @return Score in centipawns from the piece owner's point of view
+     */
+    static int middlegame(PieceType type, Colour colour, int square) {
+        return MG_VALUE[type.ordinal()] + MG_TABLES[type.ordinal()][relativeSquare(colour, square)];
+    }
+
+    /**
+     * Gets the endgame score (material plus square bonus) of a piece.
+     *
+     * @param type Piece type
+     * @param colour Piece colour
+     * @param square Physical square index (0-63)
+     * @return Score in centipawns from the piece owner's point of view
+     */
+    static int endgame(PieceType type, Colour colour, int square) {
+        return EG_VALUE[type.ordinal()] + EG_TABLES[type.ordinal()][relativeSquare(colour, square)];
+    }
+
+    /**
+     * Gets the middlegame material value of a piece type.
+     *
+     * @param type Piece type
+     * @return Material value in centipawns
+     */
+    static int material(PieceType type) {
+        return MG_VALUE[type.ordinal()];
+    }
+
+    /**
+     * Gets the game phase weight of a piece type.
+     *
+     * @param type Piece type
+     * @return Phase weight (0 for pawns and kings)
+     */
+    static int phase(PieceType type) {
+        return PHASE[type.ordinal()];
+    }
+
+    /**
+     * Mirrors a square vertically for BLACK so both colours share one table.
+     */
+    private static int relativeSquare(Colour colour, int square) {
+        return colour == Colour.WHITE ? square : (7 - square / 8) * 8 + square % 8;
+    }
+}
@@ -0,0 +1,192 @@
+package entity.tablebase;
+
+import helper.PieceType;
+
+/**
+ * Move rules on physical squares used to generate and probe endgame tables.
+ *
+ * <p>Squares are numbered {@code row * 8 + column} with row 0 at the top of
+ * the board, matching {@link helper.Position#getSquare()}. The strong side
+ * plays as WHITE and its pawns move towards row 0. Pieces block sliders
+ * and capture each other regardless of colour space, pawns promote to a
+ * Queen only, and there is no castling or en passant in these endings.
+ *
+ * @see TablebaseGenerator
+ * @version 1.0
+ */
+final class EndgameRules {
+
+    /** Squares attacked by a King from each square */
+    private static final long[] KING_ATTACKS = new long[64];
+
+    /** Squares attacked by a Knight from each square */
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+
+    private static final int[][] KING_STEPS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+    private static final int[][] KNIGHT_STEPS = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KING_ATTACKS[square] = steps(square, KING_STEPS);
+            KNIGHT_ATTACKS[square] = steps(square, KNIGHT_STEPS);
+        }
+    }
+
+    private EndgameRules() {
+    }
+
+    /**
+     * Gets the squares a piece attacks.
+     *
+     * @param type Piece type
+     * @param strong Whether the piece belongs to the strong side (pawns move towards row 0)
+     * @param square Square of the piece
+     * @param occupied Bitmask of occupied squares
+     * @return Bitmask of attacked squares
+     */
+    static long attacks(PieceType type, boolean strong, int square, long occupied) {
+        switch (type) {
+            case KING:
+                return KING_ATTACKS[square];
+            case KNIGHT:
+                return KNIGHT_ATTACKS[square];
+            case BISHOP:
+                return slide(square, occupied, BISHOP_DIRECTIONS);
+            case ROOK:
+                return slide(square, occupied, ROOK_DIRECTIONS);
+            case QUEEN:
+                return slide(square, occupied, BISHOP_DIRECTIONS) | slide(square, occupied, ROOK_DIRECTIONS);
+            default:
+                return pawnAttacks(strong, square);
+        }
+    }
+
+    /**
+     * Gets the squares a piece could have come from by a non-capturing move.
+     *
+     * @param type Piece type
+     * @param strong Whether the piece belongs to the strong side
+     * @param square Current square of the piece
+     * @param occupied Bitmask of occupied squares
+     * @return Bitmask of empty origin squares
+     */
+    static long origins(PieceType type, boolean strong, int square, long occupied) {
+        if (type != PieceType.PAWN) {
+            return attacks(type, strong, square, occupied) & ~occupied;
+        }
+        int back = strong ? 8 : -8;
+        int startRow = strong ? 6 : 1;
+        long origins = 0L;
+        int one = square + back;
+        if (isPawnSquare(one) && (occupied & bit(one)) == 0) {
+            origins |= bit(one);
+            int two = one + back;
+            if ((two >>> 3) == startRow && (occupied & bit(two)) == 0) {
+                origins |= bit(two);
+            }
+        }
+        return origins;
+    }
+
+    /**
+     * Gets the squares a pawn can advance to without capturing.
+     *
+     * @param strong Whether the pawn belongs to the strong side
+     * @param square Square of the pawn
+     * @param occupied Bitmask of occupied squares
+     * @return Bitmask of push targets
+     */
+    static long pawnPushes(boolean strong, int square, long occupied) {
+        int forward = strong ? -8 : 8;
+        int startRow = strong ? 6 : 1;
+        long pushes = 0L;
+        int one = square + forward;
+        if (one >= 0 && one < 64 && (occupied & bit(one)) == 0) {
+            pushes |= bit(one);
+            int two = one + forward;
+            if ((square >>> 3) == startRow && (occupied & bit(two)) == 0) {
+                pushes |= bit(two);
+            }
+        }
+        return pushes;
+    }
+
+    /**
+     * Checks whether a pawn may stand on a square.
+     *
+     * @param square Square of the pawn
+     * @return false off the board and on the first and last rows
+     */
+    static boolean isPawnSquare(int square) {
+        int row = square >>> 3;
+        return square >= 0 && square < 64 && row != 0 && row != 7;
+    }
+
+    /**
+     * Checks whether a pawn on a square promotes.
+     *
+     * @param square Square reached by the pawn
+     * @param strong Whether the pawn belongs to the strong side
+     * @return true on the far row
+     */
+    static boolean isPromotionSquare(int square, boolean strong) {
+        return (square >>> 3) == (strong ? 0 : 7);
+    }
+
+    /**
+     * Gets the bitmask of one square.
+     *
+     * @param square Square index
+     * @return Single-bit mask
+     */
+    static long bit(int square) {
+        return 1L << square;
+    }
+
+    private static long pawnAttacks(boolean strong, int square) {
+        int row = (square >>> 3) + (strong ? -1 : 1);
+        int column = square & 7;
+        long attacks = 0L;
+        if (row >= 0 && row < 8) {
+            if (column > 0) {
+                attacks |= bit(row * 8 + column - 1);
+            }
+            if (column < 7) {
+                attacks |= bit(row * 8 + column + 1);
+            }
+        }
+        return attacks;
+    }
+
+    private static long slide(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = (square >>> 3) + direction[0];
+            int column = (square & 7) + direction[1];
+            while (row >= 0 && row < 8 && column >= 0 && column < 8) {
+                int target = row * 8 + column;
+                attacks |= bit(target);
+                if ((occupied & bit(target)) != 0) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static long steps(int square, int[][] offsets) {
+        long mask = 0L;
+        for (int[] offset : offsets) {
+            int row = (square >>> 3) + offset[0];
+            int column = (square & 7) + offset[1];
+            if (row >= 0 && row < 8 && column >= 0 && column < 8) {
+                mask |= bit(row * 8 + column);
+            }
+        }
+        return mask;
+    }
+}
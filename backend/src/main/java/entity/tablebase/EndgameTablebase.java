@@ -0,0 +1,253 @@
+package entity.tablebase;
+
+import entity.BasePiece;
+import helper.Colour;
+import helper.PieceType;
+import helper.Position;
+import helper.TablebaseResult;
+import utility.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only endgame tablebase backed by memory-mapped table files.
+ *
+ * <p>Every {@code .ctb} file in the tablebase directory is mapped once with
+ * {@link FileChannel#map}. A probe computes the position's index from its
+ * piece squares and reads one bit-packed value in place, so it costs the
+ * same for every position and never touches the disk after the first read
+ * of a page. The file layout is:
+ * <ul>
+ *   <li>Header: magic, version, bits per entry, piece count (4 ints),
+ *       entry count (long), material name (8 ASCII bytes)</li>
+ *   <li>Data: entries packed into longs, least significant bits first,
+ *       followed by one padding long</li>
+ * </ul>
+ *
+ * <p>An entry holds the distance to mate in plies plus one, or 0 for a draw.
+ * Even distances are losses for the side to move, odd distances are wins.
+ * Positions where BLACK is the strong side are mirrored top to bottom so
+ * that one table serves both colours.
+ *
+ * @see TablebaseGenerator
+ * @see entity.Board#getTablebaseResult()
+ * @version 1.0
+ */
+public class EndgameTablebase {
+
+    /** Logger tag for this class */
+    private static final String TAG = EndgameTablebase.class.getSimpleName();
+
+    /** File magic, "CTB1" */
+    static final int MAGIC = 0x43544231;
+
+    /** Current file format version */
+    static final int VERSION = 1;
+
+    /** Size of the file header in bytes */
+    static final int HEADER_SIZE = 32;
+
+    /** Extension of table files */
+    static final String FILE_SUFFIX = ".ctb";
+
+    /** Most pieces, kings included, in any supported table */
+    private static final int MAX_PIECES = 4;
+
+    /** Mapped tables by material name */
+    private final Map<String, Table> tables;
+
+    /**
+     * One mapped table file.
+     */
+    private static final class Table {
+        private final Material material;
+        private final ByteBuffer buffer;
+        private final int bits;
+
+        Table(Material material, ByteBuffer buffer, int bits) {
+            this.material = material;
+            this.buffer = buffer;
+            this.bits = bits;
+        }
+
+        int value(int index) {
+            long bit = (long) index * bits;
+            int word = (int) (bit >>> 6);
+            int offset = (int) (bit & 63);
+            long value = buffer.getLong(HEADER_SIZE + word * Long.BYTES) >>> offset;
+            if (offset + bits > 64) {
+                value |= buffer.getLong(HEADER_SIZE + (word + 1) * Long.BYTES) << (64 - offset);
+            }
+            return (int) (value & ((1L << bits) - 1));
+        }
+    }
+
+    private EndgameTablebase(Map<String, Table> tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * Maps every table file in a directory.
+     *
+     * @param directory Directory containing {@code .ctb} files
+     * @return Tablebase backed by the mapped files
+     * @throws IOException if a file cannot be read or is not a valid table
+     */
+    public static EndgameTablebase open(Path directory) throws IOException {
+        Map<String, Table> tables = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                Table table = map(file);
+                tables.put(table.material.getName(), table);
+            }
+        }
+        return new EndgameTablebase(tables);
+    }
+
+    /**
+     * Maps the tables in a directory, falling back to an empty tablebase.
+     *
+     * @param directory Directory containing {@code .ctb} files
+     * @return Tablebase, empty if the directory is missing or invalid
+     */
+    public static EndgameTablebase openOrEmpty(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            Log.d(TAG, "No endgame tablebase at " + directory);
+            return empty();
+        }
+        try {
+            EndgameTablebase tablebase = open(directory);
+            Log.d(TAG, String.format("Endgame tablebase %s: %s", directory, tablebase.getMaterials()));
+            return tablebase;
+        } catch (IOException e) {
+            Log.e(TAG, "Could not open endgame tablebase " + directory + ": " + e.getMessage());
+            return empty();
+        }
+    }
+
+    /**
+     * Creates a tablebase without any tables.
+     *
+     * @return Empty tablebase
+     */
+    public static EndgameTablebase empty() {
+        return new EndgameTablebase(Collections.emptyMap());
+    }
+
+    /**
+     * Gets the material sets covered.
+     *
+     * @return Material names, e.g. "KQK"
+     */
+    public Set<String> getMaterials() {
+        return Collections.unmodifiableSet(tables.keySet());
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param boardMap Pieces on the board
+     * @param sideToMove Colour to move
+     * @return Result for the side to move, or null if no table covers the material
+     */
+    public TablebaseResult probe(Map<Position, BasePiece> boardMap, Colour sideToMove) {
+        int count = boardMap.size();
+        if (tables.isEmpty() || count < 3 || count > MAX_PIECES) {
+            return null;
+        }
+
+        int whitePieces = 0;
+        for (BasePiece piece : boardMap.values()) {
+            if (piece.getColour() == Colour.WHITE) {
+                whitePieces++;
+            }
+        }
+        Colour strongColour;
+        if (whitePieces == 1) {
+            strongColour = Colour.BLACK;
+        } else if (whitePieces == count - 1) {
+            strongColour = Colour.WHITE;
+        } else {
+            return null;
+        }
+
+        PieceType[] types = new PieceType[count];
+        boolean[] strong = new boolean[count];
+        int[] squares = new int[count];
+        StringBuilder name = new StringBuilder();
+        int i = 0;
+        for (Map.Entry<Position, BasePiece> entry : boardMap.entrySet()) {
+            BasePiece piece = entry.getValue();
+            types[i] = piece.getType();
+            strong[i] = piece.getColour() == strongColour;
+            int square = entry.getKey().getSquare();
+            squares[i] = strongColour == Colour.WHITE ? square : square ^ 56;
+            if (strong[i] && types[i] != PieceType.KING) {
+                name.append(types[i].getSymbol());
+            }
+            i++;
+        }
+
+        Material material;
+        try {
+            material = Material.parse("K" + name + "K");
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        Table table = tables.get(material.getName());
+        if (table == null) {
+            return null;
+        }
+        int index = material.index(types, strong, squares, count, sideToMove == strongColour);
+        if (index < 0) {
+            return null;
+        }
+
+        int value = table.value(index);
+        if (value == 0) {
+            return new TablebaseResult(TablebaseResult.Outcome.DRAW, -1);
+        }
+        int distance = value - 1;
+        return new TablebaseResult(distance % 2 == 0 ? TablebaseResult.Outcome.LOSS : TablebaseResult.Outcome.WIN,
+            distance);
+    }
+
+    private static Table map(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a tablebase file: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported tablebase version: " + buffer.getInt(4));
+        }
+        int bits = buffer.getInt(8);
+        byte[] nameBytes = new byte[8];
+        buffer.get(24, nameBytes);
+        Material material;
+        try {
+            material = Material.parse(new String(nameBytes, StandardCharsets.US_ASCII).replace("\0", ""));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown tablebase material in " + file);
+        }
+        long entries = buffer.getLong(16);
+        long required = HEADER_SIZE + ((entries * bits + 63) / 64 + 1) * Long.BYTES;
+        if (bits < 1 || bits > 8 || entries != material.size() || buffer.capacity() < required) {
+            throw new IOException("Truncated tablebase file: " + file);
+        }
+        return new Table(material, buffer, bits);
+    }
+}
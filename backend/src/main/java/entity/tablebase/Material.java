@@ -0,0 +1,235 @@
+package entity.tablebase;
+
+import helper.PieceType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Material set covered by one endgame table, e.g. "KBNK".
+ *
+ * <p>Tables always describe a strong side with a king and one or two other
+ * pieces against a bare king. The strong side is stored as WHITE; positions
+ * where BLACK is the strong side are mirrored before probing.
+ *
+ * <p>Pieces occupy fixed slots: the strong king first, then the other strong
+ * pieces in Q, R, B, N, P order, and the weak king last. A position is
+ * indexed as {@code sideToMove * 64^n + sum(square[i] * 64^(n-1-i))}.
+ *
+ * @see TablebaseGenerator
+ * @see EndgameTablebase
+ * @version 1.0
+ */
+final class Material {
+
+    /** Order in which strong pieces are listed in a name */
+    private static final String PIECE_ORDER = "QRBNP";
+
+    /** Normalised name, e.g. "KBNK" */
+    private final String name;
+
+    /** Piece type per slot */
+    private final PieceType[] types;
+
+    private Material(String name, PieceType[] types) {
+        this.name = name;
+        this.types = types;
+    }
+
+    /**
+     * Parses a material name such as "KQK" or "KNBK".
+     *
+     * @param spec Material name: K, one or two of Q/R/B/N/P, K
+     * @return Material with its name in canonical order
+     * @throws IllegalArgumentException if the material is not supported
+     */
+    static Material parse(String spec) {
+        String upper = spec.toUpperCase();
+        if (!upper.matches("K[QRBNP]{1,2}K")) {
+            throw new IllegalArgumentException("Unsupported material: " + spec);
+        }
+        char[] pieces = upper.substring(1, upper.length() - 1).toCharArray();
+        Character[] sorted = new Character[pieces.length];
+        for (int i = 0; i < pieces.length; i++) {
+            sorted[i] = pieces[i];
+        }
+        Arrays.sort(sorted, (a, b) -> PIECE_ORDER.indexOf(a) - PIECE_ORDER.indexOf(b));
+
+        StringBuilder name = new StringBuilder("K");
+        PieceType[] types = new PieceType[sorted.length + 2];
+        types[0] = PieceType.KING;
+        for (int i = 0; i < sorted.length; i++) {
+            name.append(sorted[i]);
+            types[i + 1] = typeOf(sorted[i]);
+        }
+        name.append('K');
+        types[types.length - 1] = PieceType.KING;
+        return new Material(name.toString(), types);
+    }
+
+    /**
+     * Gets the material left after the piece in a slot is captured.
+     *
+     * @param slot Captured strong piece slot
+     * @return Remaining material, or null if it cannot force mate (K, KB or KN)
+     */
+    Material without(int slot) {
+        List<PieceType> rest = new ArrayList<>();
+        for (int i = 1; i < types.length - 1; i++) {
+            if (i != slot) {
+                rest.add(types[i]);
+            }
+        }
+        if (rest.isEmpty() || (rest.size() == 1
+                && (rest.get(0) == PieceType.BISHOP || rest.get(0) == PieceType.KNIGHT))) {
+            return null;
+        }
+        return parse(nameOf(rest));
+    }
+
+    /**
+     * Gets the material after the pawn in a slot promotes to a Queen.
+     *
+     * @param slot Promoting pawn slot
+     * @return Material with the pawn replaced by a Queen
+     */
+    Material promote(int slot) {
+        List<PieceType> rest = new ArrayList<>();
+        for (int i = 1; i < types.length - 1; i++) {
+            rest.add(i == slot ? PieceType.QUEEN : types[i]);
+        }
+        return parse(nameOf(rest));
+    }
+
+    /**
+     * Gets the normalised name.
+     *
+     * @return Name such as "KBNK"
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of pieces including both kings.
+     *
+     * @return Piece count (3 or 4)
+     */
+    int pieceCount() {
+        return types.length;
+    }
+
+    /**
+     * Gets the piece type in a slot.
+     *
+     * @param slot Slot index
+     * @return Piece type
+     */
+    PieceType type(int slot) {
+        return types[slot];
+    }
+
+    /**
+     * Checks whether a slot belongs to the strong (WHITE) side.
+     *
+     * @param slot Slot index
+     * @return true for every slot but the last
+     */
+    boolean isStrong(int slot) {
+        return slot < types.length - 1;
+    }
+
+    /**
+     * Gets the number of positions in the table.
+     *
+     * @return 2 * 64^n
+     */
+    int size() {
+        return 2 << (6 * types.length);
+    }
+
+    /**
+     * Gets the index of a position whose squares are given in slot order.
+     *
+     * @param squares Square per slot
+     * @param strongToMove Whether the strong side is to move
+     * @return Table index
+     */
+    int index(int[] squares, boolean strongToMove) {
+        int index = strongToMove ? 0 : 1;
+        for (int i = 0; i < types.length; i++) {
+            index = (index << 6) | squares[i];
+        }
+        return index;
+    }
+
+    /**
+     * Gets the index of a position whose pieces are given in any order.
+     *
+     * @param pieceTypes Type per piece
+     * @param strong Whether each piece belongs to the strong side
+     * @param squares Square per piece
+     * @param count Number of pieces
+     * @param strongToMove Whether the strong side is to move
+     * @return Table index, or -1 if the pieces do not match this material
+     */
+    int index(PieceType[] pieceTypes, boolean[] strong, int[] squares, int count, boolean strongToMove) {
+        if (count != types.length) {
+            return -1;
+        }
+        int[] ordered = new int[types.length];
+        boolean[] used = new boolean[count];
+        for (int slot = 0; slot < types.length; slot++) {
+            int found = -1;
+            for (int i = 0; i < count && found < 0; i++) {
+                if (!used[i] && pieceTypes[i] == types[slot] && strong[i] == isStrong(slot)) {
+                    found = i;
+                }
+            }
+            if (found < 0) {
+                return -1;
+            }
+            used[found] = true;
+            ordered[slot] = squares[found];
+        }
+        return index(ordered, strongToMove);
+    }
+
+    /**
+     * Decodes a table index into squares in slot order.
+     *
+     * @param index Table index
+     * @param squares Receives the square per slot
+     * @return Whether the strong side is to move
+     */
+    boolean decode(int index, int[] squares) {
+        for (int i = types.length - 1; i >= 0; i--) {
+            squares[i] = index & 63;
+            index >>>= 6;
+        }
+        return index == 0;
+    }
+
+    private static String nameOf(List<PieceType> strongPieces) {
+        StringBuilder name = new StringBuilder("K");
+        for (PieceType type : strongPieces) {
+            name.append(type.getSymbol());
+        }
+        return name.append('K').toString();
+    }
+
+    private static PieceType typeOf(char symbol) {
+        for (PieceType type : PieceType.values()) {
+            if (type.getSymbol() == symbol) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown piece: " + symbol);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
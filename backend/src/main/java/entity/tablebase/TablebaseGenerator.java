@@ -0,0 +1,494 @@
+package entity.tablebase;
+
+import helper.PieceType;
+import utility.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Offline tool that solves small endgames by retrograde analysis and writes
+ * them as bit-packed table files.
+ *
+ * <p>Each table stores, for every position of its material, the distance to
+ * mate in plies from the side to move's point of view. Generation works
+ * backwards from the mates:
+ * <ol>
+ *   <li>Every position is checked for legality and mates are marked at
+ *       distance 0</li>
+ *   <li>Positions resolved in the previous round are un-moved to find their
+ *       predecessors, which are the only positions whose value can change</li>
+ *   <li>Each predecessor is re-evaluated from its children: it wins if a move
+ *       reaches a lost position, and loses if every move reaches a won one</li>
+ * </ol>
+ *
+ * <p>Captures and promotions leave the table, so their children are looked
+ * up in tables generated first (a capture down to K, KB or KN is a draw).
+ * Both passes run over all cores with parallel streams; each task writes
+ * only the positions it evaluates.
+ *
+ * <p>Usage: {@code TablebaseGenerator <directory> <material>...},
+ * e.g. {@code tablebases KQK KRK KPK KBNK}.
+ *
+ * @see EndgameTablebase
+ * @see EndgameRules
+ * @version 1.0
+ */
+public class TablebaseGenerator {
+
+    /** Logger tag for this class */
+    private static final String TAG = TablebaseGenerator.class.getSimpleName();
+
+    /** In-memory value of positions that cannot occur */
+    static final byte ILLEGAL = (byte) 0xFF;
+
+    /** Longest distance to mate, in plies, a table can hold */
+    static final int MAX_DISTANCE = 253;
+
+    /** Solved values per material name, kept to resolve captures and promotions */
+    private final Map<String, byte[]> tables = new HashMap<>();
+
+    /** Longest distance to mate per material name */
+    private final Map<String, Integer> longest = new HashMap<>();
+
+    /**
+     * Solves a material set and every table it depends on.
+     *
+     * @param spec Material name, e.g. "KBNK"
+     * @throws IllegalArgumentException if the material is not supported
+     */
+    public void generate(String spec) {
+        Material material = Material.parse(spec);
+        if (tables.containsKey(material.getName())) {
+            return;
+        }
+        for (int slot = 1; slot < material.pieceCount() - 1; slot++) {
+            Material captured = material.without(slot);
+            if (captured != null) {
+                generate(captured.getName());
+            }
+            if (material.type(slot) == PieceType.PAWN) {
+                generate(material.promote(slot).getName());
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        Solver solver = new Solver(material);
+        solver.solve();
+        tables.put(material.getName(), solver.values);
+        longest.put(material.getName(), solver.longest);
+        Log.d(TAG, String.format("Solved %s: longest mate %d plies in %d ms",
+            material, solver.longest, System.currentTimeMillis() - start));
+    }
+
+    /**
+     * Writes a solved table to a directory as {@code <material>.ctb}.
+     *
+     * @param spec Material name
+     * @param directory Destination directory
+     * @return Path of the written file
+     * @throws IOException if the file cannot be written
+     */
+    public Path write(String spec, Path directory) throws IOException {
+        Material material = Material.parse(spec);
+        generate(material.getName());
+        byte[] values = tables.get(material.getName());
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(longest.get(material.getName()) + 1));
+
+        long[] words = new long[(int) (((long) values.length * bits + 63) / 64) + 1];
+        for (int index = 0; index < values.length; index++) {
+            long value = values[index] == ILLEGAL ? 0 : Byte.toUnsignedInt(values[index]);
+            long bit = (long) index * bits;
+            int word = (int) (bit >>> 6);
+            int offset = (int) (bit & 63);
+            words[word] |= value << offset;
+            if (offset + bits > 64) {
+                words[word + 1] |= value >>> (64 - offset);
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(EndgameTablebase.HEADER_SIZE + words.length * Long.BYTES);
+        buffer.putInt(EndgameTablebase.MAGIC).putInt(EndgameTablebase.VERSION)
+            .putInt(bits).putInt(material.pieceCount()).putLong(values.length);
+        buffer.put(Arrays.copyOf(material.getName().getBytes(StandardCharsets.US_ASCII), 8));
+        buffer.asLongBuffer().put(words);
+        buffer.rewind();
+
+        Files.createDirectories(directory);
+        Path output = directory.resolve(material.getName() + EndgameTablebase.FILE_SUFFIX);
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Gets the solved value of a position.
+     *
+     * @param spec Material name
+     * @param index Table index
+     * @return Distance to mate plus one, 0 for draws and illegal positions
+     */
+    int value(String spec, int index) {
+        byte value = tables.get(Material.parse(spec).getName())[index];
+        return value == ILLEGAL ? 0 : Byte.toUnsignedInt(value);
+    }
+
+    /**
+     * Retrograde solver for one material set.
+     */
+    private final class Solver {
+        private final Material material;
+        private final int pieces;
+        private final byte[] values;
+
+        /** Positions with a decided capture or promotion, re-evaluated every round */
+        private final long[] external;
+
+        /** Predecessors of the last round's positions */
+        private final AtomicLongArray candidates;
+
+        /** Material and values after capturing each slot, null for draws */
+        private final Material[] capturedMaterial;
+        private final byte[][] capturedValues;
+
+        /** Material and values after promoting each slot */
+        private final Material[] promotedMaterial;
+        private final byte[][] promotedValues;
+
+        /** Longest distance to mate in this table */
+        private int longest;
+
+        private final ThreadLocal<int[]> scratch;
+
+        Solver(Material material) {
+            this.material = material;
+            this.pieces = material.pieceCount();
+            this.values = new byte[material.size()];
+            this.external = new long[values.length / 64];
+            this.candidates = new AtomicLongArray(values.length / 64);
+            this.capturedMaterial = new Material[pieces];
+            this.capturedValues = new byte[pieces][];
+            this.promotedMaterial = new Material[pieces];
+            this.promotedValues = new byte[pieces][];
+            this.scratch = ThreadLocal.withInitial(() -> new int[pieces]);
+            for (int slot = 1; slot < pieces - 1; slot++) {
+                capturedMaterial[slot] = material.without(slot);
+                if (capturedMaterial[slot] != null) {
+                    capturedValues[slot] = tables.get(capturedMaterial[slot].getName());
+                }
+                if (material.type(slot) == PieceType.PAWN) {
+                    promotedMaterial[slot] = material.promote(slot);
+                    promotedValues[slot] = tables.get(promotedMaterial[slot].getName());
+                }
+            }
+        }
+
+        void solve() {
+            int outside = 0;
+            for (int slot = 1; slot < pieces - 1; slot++) {
+                outside = Math.max(outside, longestOf(capturedMaterial[slot]));
+                outside = Math.max(outside, longestOf(promotedMaterial[slot]));
+            }
+
+            IntStream.range(0, external.length).parallel().forEach(this::initialise);
+            int[] frontier = IntStream.range(0, values.length).parallel()
+                .filter(index -> values[index] == 1).toArray();
+
+            for (int distance = 1; distance <= MAX_DISTANCE
+                    && (frontier.length > 0 || distance <= outside + 1); distance++) {
+                Arrays.stream(frontier).parallel().forEach(this::markPredecessors);
+                int round = distance;
+                frontier = IntStream.range(0, external.length).parallel()
+                    .flatMap(word -> resolveWord(word, round)).toArray();
+                if (frontier.length > 0) {
+                    longest = distance;
+                }
+            }
+        }
+
+        /**
+         * Marks illegal positions and mates in one block of 64 positions.
+         */
+        private void initialise(int word) {
+            int[] squares = scratch.get();
+            long hasExternal = 0L;
+            for (int bit = 0; bit < 64; bit++) {
+                int index = word * 64 + bit;
+                boolean strongToMove = material.decode(index, squares);
+                if (!isLegal(squares, strongToMove)) {
+                    values[index] = ILLEGAL;
+                    continue;
+                }
+                long summary = scan(squares, strongToMove);
+                if (moveCount(summary) == 0) {
+                    if (inCheck(squares, strongToMove, -1)) {
+                        values[index] = 1;
+                    }
+                } else if (hasExternal(summary)) {
+                    hasExternal |= 1L << bit;
+                }
+            }
+            external[word] = hasExternal;
+        }
+
+        /**
+         * Re-evaluates the candidates in one block of 64 positions.
+         *
+         * @return Positions resolved at this distance
+         */
+        private IntStream resolveWord(int word, int distance) {
+            long pending = candidates.getAndSet(word, 0L) | external[word];
+            if (pending == 0L) {
+                return IntStream.empty();
+            }
+            int[] squares = scratch.get();
+            IntStream.Builder resolved = IntStream.builder();
+            while (pending != 0L) {
+                int index = word * 64 + Long.numberOfTrailingZeros(pending);
+                pending &= pending - 1;
+                if (values[index] != 0) {
+                    continue;
+                }
+                boolean strongToMove = material.decode(index, squares);
+                long summary = scan(squares, strongToMove);
+                if (moveCount(summary) > 0
+                        && (bestWin(summary) == distance || (allLosing(summary) && worstLoss(summary) == distance))) {
+                    values[index] = (byte) (distance + 1);
+                    resolved.add(index);
+                }
+            }
+            return resolved.build();
+        }
+
+        /**
+         * Flags every unresolved position that can move into a resolved one.
+         */
+        private void markPredecessors(int index) {
+            int[] squares = scratch.get();
+            boolean strongToMove = material.decode(index, squares);
+            boolean moverStrong = !strongToMove;
+            long occupied = occupancy(squares, -1);
+            for (int slot = 0; slot < pieces; slot++) {
+                if (material.isStrong(slot) != moverStrong) {
+                    continue;
+                }
+                int to = squares[slot];
+                long origins = EndgameRules.origins(material.type(slot), moverStrong, to, occupied);
+                while (origins != 0L) {
+                    squares[slot] = Long.numberOfTrailingZeros(origins);
+                    origins &= origins - 1;
+                    if (!inCheck(squares, strongToMove, -1)) {
+                        int previous = material.index(squares, moverStrong);
+                        if (values[previous] == 0) {
+                            int word = previous >>> 6;
+                            long mask = 1L << (previous & 63);
+                            if ((candidates.get(word) & mask) == 0L) {
+                                candidates.getAndAccumulate(word, mask, (a, b) -> a | b);
+                            }
+                        }
+                    }
+                }
+                squares[slot] = to;
+            }
+        }
+
+        /**
+         * Plays every legal move and summarises the children's values.
+         *
+         * <p>The summary packs the move count, whether a capture or promotion
+         * reaches a won or lost position in another table, the shortest win
+         * through a lost child, and the longest loss if every child is won
+         * for the opponent.
+         */
+        private long scan(int[] squares, boolean strongToMove) {
+            long occupied = occupancy(squares, -1);
+            long own = 0L;
+            for (int slot = 0; slot < pieces; slot++) {
+                if (material.isStrong(slot) == strongToMove) {
+                    own |= EndgameRules.bit(squares[slot]);
+                }
+            }
+
+            int moves = 0;
+            boolean decidedOutside = false;
+            int bestWin = Integer.MAX_VALUE;
+            boolean allLosing = true;
+            int worstLoss = 0;
+            for (int slot = 0; slot < pieces; slot++) {
+                if (material.isStrong(slot) != strongToMove) {
+                    continue;
+                }
+                PieceType type = material.type(slot);
+                int from = squares[slot];
+                long targets = EndgameRules.attacks(type, strongToMove, from, occupied) & ~own;
+                if (type == PieceType.PAWN) {
+                    targets = (targets & occupied) | EndgameRules.pawnPushes(strongToMove, from, occupied);
+                }
+                while (targets != 0L) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    int captured = slotAt(squares, to);
+                    if (captured == 0 || captured == pieces - 1) {
+                        continue;
+                    }
+                    squares[slot] = to;
+                    if (!inCheck(squares, strongToMove, captured)) {
+                        moves++;
+                        boolean promotes = type == PieceType.PAWN && EndgameRules.isPromotionSquare(to, strongToMove);
+                        int child = childValue(squares, !strongToMove, slot, captured, promotes);
+                        decidedOutside |= (captured >= 0 || promotes) && child != 0;
+                        if (child == 0) {
+                            allLosing = false;
+                        } else if ((child - 1) % 2 == 0) {
+                            bestWin = Math.min(bestWin, child);
+                            allLosing = false;
+                        } else {
+                            worstLoss = Math.max(worstLoss, child);
+                        }
+                    }
+                    squares[slot] = from;
+                }
+            }
+            return moves | (decidedOutside ? 1L << 8 : 0L) | (allLosing ? 1L << 9 : 0L)
+                | ((long) Math.min(bestWin, 0xFFFF) << 16) | ((long) worstLoss << 32);
+        }
+
+        /**
+         * Gets the value of the position after a move, from the child's side to move.
+         */
+        private int childValue(int[] squares, boolean strongToMove, int slot, int captured, boolean promotes) {
+            byte value;
+            if (captured >= 0) {
+                if (capturedMaterial[captured] == null) {
+                    return 0;
+                }
+                int[] remaining = new int[pieces - 1];
+                for (int i = 0, j = 0; i < pieces; i++) {
+                    if (i != captured) {
+                        remaining[j++] = squares[i];
+                    }
+                }
+                value = capturedValues[captured][capturedMaterial[captured].index(remaining, strongToMove)];
+            } else if (promotes) {
+                PieceType[] types = new PieceType[pieces];
+                boolean[] strong = new boolean[pieces];
+                for (int i = 0; i < pieces; i++) {
+                    types[i] = i == slot ? PieceType.QUEEN : material.type(i);
+                    strong[i] = material.isStrong(i);
+                }
+                value = promotedValues[slot][promotedMaterial[slot].index(types, strong, squares, pieces, strongToMove)];
+            } else {
+                value = values[material.index(squares, strongToMove)];
+            }
+            return value == ILLEGAL ? 0 : Byte.toUnsignedInt(value);
+        }
+
+        private boolean isLegal(int[] squares, boolean strongToMove) {
+            long occupied = 0L;
+            for (int slot = 0; slot < pieces; slot++) {
+                long bit = EndgameRules.bit(squares[slot]);
+                if ((occupied & bit) != 0L) {
+                    return false;
+                }
+                occupied |= bit;
+                if (material.type(slot) == PieceType.PAWN && !EndgameRules.isPawnSquare(squares[slot])) {
+                    return false;
+                }
+            }
+            return !inCheck(squares, !strongToMove, -1);
+        }
+
+        /**
+         * Checks whether a side's king is attacked, ignoring a captured slot.
+         */
+        private boolean inCheck(int[] squares, boolean strongSide, int captured) {
+            int king = squares[strongSide ? 0 : pieces - 1];
+            long occupied = occupancy(squares, captured);
+            for (int slot = 0; slot < pieces; slot++) {
+                if (slot != captured && material.isStrong(slot) != strongSide
+                        && (EndgameRules.attacks(material.type(slot), !strongSide, squares[slot], occupied)
+                            & EndgameRules.bit(king)) != 0L) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private long occupancy(int[] squares, int skip) {
+            long occupied = 0L;
+            for (int slot = 0; slot < pieces; slot++) {
+                if (slot != skip) {
+                    occupied |= EndgameRules.bit(squares[slot]);
+                }
+            }
+            return occupied;
+        }
+
+        private int slotAt(int[] squares, int square) {
+            for (int slot = 0; slot < pieces; slot++) {
+                if (squares[slot] == square) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static int moveCount(long summary) {
+        return (int) (summary & 0xFF);
+    }
+
+    private static boolean hasExternal(long summary) {
+        return (summary & (1L << 8)) != 0L;
+    }
+
+    private static boolean allLosing(long summary) {
+        return (summary & (1L << 9)) != 0L;
+    }
+
+    private static int bestWin(long summary) {
+        return (int) ((summary >>> 16) & 0xFFFF);
+    }
+
+    private static int worstLoss(long summary) {
+        return (int) (summary >>> 32);
+    }
+
+    private int longestOf(Material material) {
+        return material == null ? 0 : longest.get(material.getName());
+    }
+
+    /**
+     * Generates table files.
+     *
+     * @param args Output directory followed by material names
+     * @throws IOException if a file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TablebaseGenerator <directory> <material>...");
+            System.exit(1);
+        }
+        Path directory = Paths.get(args[0]);
+        TablebaseGenerator generator = new TablebaseGenerator();
+        for (int i = 1; i < args.length; i++) {
+            Path output = generator.write(args[i], directory);
+            Log.d(TAG, "Wrote " + output);
+        }
+    }
+}
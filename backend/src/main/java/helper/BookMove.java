@@ -0,0 +1,48 @@
+package helper;
+
+/**
+ * A move suggested by the opening book for a position.
+ * 
+ * <p>The weight reflects how often, and how successfully, the move was
+ * played in the games the book was built from. Higher weights indicate
+ * more popular moves.
+ * 
+ * @see OpeningInfo
+ * @version 1.0
+ */
+public class BookMove {
+    /** Move in "start-end" notation (e.g., "e2-e4") */
+    private final String move;
+
+    /** Relative weight of the move */
+    private final int weight;
+
+    /**
+     * Creates a new book move.
+     * 
+     * @param move Move in "start-end" notation
+     * @param weight Relative weight of the move
+     */
+    public BookMove(String move, int weight) {
+        this.move = move;
+        this.weight = weight;
+    }
+
+    /**
+     * Gets the move.
+     * 
+     * @return Move in "start-end" notation (e.g., "e2-e4")
+     */
+    public String getMove() {
+        return move;
+    }
+
+    /**
+     * Gets the relative weight of the move.
+     * 
+     * @return Weight, higher for more popular moves
+     */
+    public int getWeight() {
+        return weight;
+    }
+}
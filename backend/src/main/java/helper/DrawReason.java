@@ -0,0 +1,19 @@
+package helper;
+
+/**
+ * Represents the rules by which a game ends in a draw.
+ *
+ * <p>The ordinal of each constant is stable and is used in compact board
+ * encodings.
+ *
+ * @see GameState
+ * @version 1.0
+ */
+public enum DrawReason {
+    /** The same position occurred three times with the same side to move */
+    THREEFOLD_REPETITION,
+    /** Fifty moves by each side without a capture or pawn move */
+    FIFTY_MOVE_RULE,
+    /** The side to move has no legal move and is not in check */
+    STALEMATE
+}
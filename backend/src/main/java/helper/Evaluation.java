@@ -0,0 +1,82 @@
+package helper;
+
+/**
+ * Summary of the static evaluation of a position.
+ * 
+ * <p>Holds the values tracked incrementally by the board:
+ * <ul>
+ *   <li>Tapered score</li>
+ *   <li>Material for each side</li>
+ *   <li>Game phase</li>
+ * </ul>
+ * 
+ * <p>All scores are in centipawns. The overall score is positive when
+ * WHITE is better.
+ * 
+ * @see GameState
+ * @version 1.0
+ */
+public class Evaluation {
+    /** Tapered score, positive when WHITE is better */
+    private final int score;
+
+    /** WHITE material, kings excluded */
+    private final int whiteMaterial;
+
+    /** BLACK material, kings excluded */
+    private final int blackMaterial;
+
+    /** Game phase from 0 (endgame) to 24 (middlegame) */
+    private final int phase;
+
+    /**
+     * Creates a new evaluation summary.
+     * 
+     * @param score Tapered score, positive when WHITE is better
+     * @param whiteMaterial WHITE material
+     * @param blackMaterial BLACK material
+     * @param phase Game phase from 0 to 24
+     */
+    public Evaluation(int score, int whiteMaterial, int blackMaterial, int phase) {
+        this.score = score;
+        this.whiteMaterial = whiteMaterial;
+        this.blackMaterial = blackMaterial;
+        this.phase = phase;
+    }
+
+    /**
+     * Gets the tapered score.
+     * 
+     * @return Score in centipawns, positive when WHITE is better
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the material of the WHITE side.
+     * 
+     * @return Material in centipawns
+     */
+    public int getWhiteMaterial() {
+        return whiteMaterial;
+    }
+
+    /**
+     * Gets the material of the BLACK side.
+     * 
+     * @return Material in centipawns
+     */
+    public int getBlackMaterial() {
+        return blackMaterial;
+    }
+
+    /**
+     * Gets the game phase.
+     * 
+     * @return Value from 0 (endgame) to 24 (middlegame)
+     */
+    public int getPhase() {
+        return phase;
+    }
+}
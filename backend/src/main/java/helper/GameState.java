@@ -12,6 +12,7 @@ import java.util.Collections;
  * <ul>
  *   <li>Board configuration</li>
  *   <li>Possible moves</li>
+ *   <li>Legal moves of the side to move</li>
  *   <li>Game status</li>
  *   <li>Eliminated pieces</li>
  * </ul>
@@ -34,6 +35,9 @@ public class GameState {
     
     /** List of valid moves for the currently selected piece */
     private List<String> possibleMoves;
+
+    /** Legal target squares of the side to move, by start square */
+    private Map<String, List<String>> legalMoves;
     
     /** Squares to highlight on the board */
     private List<String> highlightSquares;
@@ -50,6 +54,24 @@ public class GameState {
     /** List of eliminated black pieces */
     private List<String> eliminatedBlackPieces;
 
+    /** Static evaluation in centipawns, positive when WHITE is better */
+    private int evaluation;
+
+    /** Rule that drew the game, or null if it was not drawn */
+    private DrawReason drawReason;
+
+    /** Plies since the last capture or pawn move */
+    private int halfmoveClock;
+
+    /** Occurrences of the current position */
+    private int repetitionCount;
+
+    /** Version of the board position, changed by every accepted move */
+    private long version;
+
+    /** Id of the game, when the state was read by game id */
+    private int gameId;
+
     /**
      * Creates a new GameState with default values.
      * 
@@ -103,6 +125,27 @@ public class GameState {
         this.possibleMoves = possibleMoves;
     }
 
+    /**
+     * Gets the legal moves of the side to move.
+     * 
+     * <p>Clients use the map to highlight and validate moves without a
+     * request per selected square.
+     * 
+     * @return Target squares in algebraic notation by start square, empty when the game is over
+     */
+    public Map<String, List<String>> getLegalMoves() {
+        return legalMoves;
+    }
+
+    /**
+     * Sets the legal moves of the side to move.
+     * 
+     * @param legalMoves Target squares in algebraic notation by start square
+     */
+    public void setLegalMoves(Map<String, List<String>> legalMoves) {
+        this.legalMoves = legalMoves;
+    }
+
     /**
      * Gets the squares to highlight on the board.
      * 
@@ -185,4 +228,117 @@ public class GameState {
     public void setEliminatedBlackPieces(List<String> eliminatedBlackPieces) {
         this.eliminatedBlackPieces = eliminatedBlackPieces;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the static evaluation of the position.
+     * 
+     * @return Score in centipawns, positive when WHITE is better
+     */
+    public int getEvaluation() {
+        return evaluation;
+    }
+
+    /**
+     * Sets the static evaluation of the position.
+     * 
+     * @param evaluation Score in centipawns, positive when WHITE is better
+     */
+    public void setEvaluation(int evaluation) {
+        this.evaluation = evaluation;
+    }
+
+    /**
+     * Gets the rule that drew the game.
+     * 
+     * @return Draw reason, or null if the game was not drawn
+     */
+    public DrawReason getDrawReason() {
+        return drawReason;
+    }
+
+    /**
+     * Sets the rule that drew the game.
+     * 
+     * @param drawReason Draw reason, or null if the game was not drawn
+     */
+    public void setDrawReason(DrawReason drawReason) {
+        this.drawReason = drawReason;
+    }
+
+    /**
+     * Gets the number of plies since the last capture or pawn move.
+     * 
+     * @return Halfmove clock for the fifty-move rule
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Sets the number of plies since the last capture or pawn move.
+     * 
+     * @param halfmoveClock Halfmove clock for the fifty-move rule
+     */
+    public void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    /**
+     * Gets how often the current position has occurred.
+     * 
+     * @return Occurrences of the current position, including this one
+     */
+    public int getRepetitionCount() {
+        return repetitionCount;
+    }
+
+    /**
+     * Sets how often the current position has occurred.
+     * 
+     * @param repetitionCount Occurrences of the current position
+     */
+    public void setRepetitionCount(int repetitionCount) {
+        this.repetitionCount = repetitionCount;
+    }
+
+    /**
+     * Gets the version of the board position.
+     * 
+     * <p>Clients compare it with the version they moved from to tell an
+     * accepted move from a rejected one.
+     * 
+     * @return Position version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the board position.
+     * 
+     * @param version Position version
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Gets the id of the game this state belongs to.
+     * 
+     * <p>Identifies the states of a batched read, which may come in any order.
+     * 
+     * @return Game id, or 0 if the state was not read by game id
+     */
+    public int getGameId() {
+        return gameId;
+    }
+
+    /**
+     * Sets the id of the game this state belongs to.
+     * 
+     * @param gameId Game id
+     */
+    public void setGameId(int gameId) {
+        this.gameId = gameId;
+    }
+}
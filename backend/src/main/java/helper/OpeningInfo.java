@@ -0,0 +1,52 @@
+package helper;
+
+import java.util.List;
+
+/**
+ * Opening book information for a position.
+ * 
+ * <p>Contains:
+ * <ul>
+ *   <li>The name of the opening, if the book knows one</li>
+ *   <li>The book moves for the side to move, most popular first</li>
+ * </ul>
+ * 
+ * @see BookMove
+ * @version 1.0
+ */
+public class OpeningInfo {
+    /** Name of the opening, or null if unknown */
+    private final String name;
+
+    /** Book moves for the side to move */
+    private final List<BookMove> moves;
+
+    /**
+     * Creates new opening information.
+     * 
+     * @param name Name of the opening, or null if unknown
+     * @param moves Book moves for the side to move
+     */
+    public OpeningInfo(String name, List<BookMove> moves) {
+        this.name = name;
+        this.moves = moves;
+    }
+
+    /**
+     * Gets the name of the opening.
+     * 
+     * @return Opening name, or null if the position is not named in the book
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the book moves for the side to move.
+     * 
+     * @return List of book moves, empty when out of book
+     */
+    public List<BookMove> getMoves() {
+        return moves;
+    }
+}
@@ -0,0 +1,49 @@
+package helper;
+
+/**
+ * Represents the six kinds of chess pieces.
+ * 
+ * <p>The type is independent of the piece's colour and is used wherever
+ * pieces have to be handled by kind rather than by class, such as:
+ * <ul>
+ *   <li>Position evaluation</li>
+ *   <li>Compact board encodings</li>
+ *   <li>Move generation tables</li>
+ * </ul>
+ * 
+ * <p>The ordinal of each constant is stable and may be used as an index
+ * into per-type tables.
+ * 
+ * @see Colour
+ * @version 1.0
+ */
+public enum PieceType {
+    /** Pawn */
+    PAWN('P'),
+    /** Knight */
+    KNIGHT('N'),
+    /** Bishop */
+    BISHOP('B'),
+    /** Rook */
+    ROOK('R'),
+    /** Queen */
+    QUEEN('Q'),
+    /** King */
+    KING('K');
+
+    /** Single letter used in piece notation */
+    private final char symbol;
+
+    PieceType(char symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * Gets the letter used for this type in piece notation.
+     * 
+     * @return Upper case piece letter (e.g. 'N' for Knight)
+     */
+    public char getSymbol() {
+        return symbol;
+    }
+}
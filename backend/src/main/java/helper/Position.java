@@ -96,6 +96,14 @@ public class Position {
         return column;
     }
     
+    /**
+     * Get the physical square index of this position (0-63, row * 8 + column).
+     * Both colour spaces share the same index for the same row and column.
+     */
+    public int getSquare() {
+        return row * 8 + column;
+    }
+    
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
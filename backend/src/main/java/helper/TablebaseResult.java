@@ -0,0 +1,68 @@
+package helper;
+
+/**
+ * Exact result of an endgame position read from the tablebase.
+ *
+ * <p>Results are given from the point of view of the side to move:
+ * <ul>
+ *   <li>WIN: the side to move mates in {@code distanceToMate} plies</li>
+ *   <li>LOSS: the side to move is mated in {@code distanceToMate} plies</li>
+ *   <li>DRAW: neither side can force mate</li>
+ * </ul>
+ *
+ * @see entity.tablebase.EndgameTablebase
+ * @version 1.0
+ */
+public class TablebaseResult {
+
+    /**
+     * Game-theoretic outcome for the side to move.
+     */
+    public enum Outcome {
+        WIN, DRAW, LOSS
+    }
+
+    /** Outcome for the side to move */
+    private final Outcome outcome;
+
+    /** Plies until mate with best play, -1 for draws */
+    private final int distanceToMate;
+
+    /**
+     * Creates a new tablebase result.
+     *
+     * @param outcome Outcome for the side to move
+     * @param distanceToMate Plies until mate, -1 for draws
+     */
+    public TablebaseResult(Outcome outcome, int distanceToMate) {
+        this.outcome = outcome;
+        this.distanceToMate = distanceToMate;
+    }
+
+    /**
+     * Gets the outcome for the side to move.
+     *
+     * @return WIN, DRAW or LOSS
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Gets the distance to mate.
+     *
+     * @return Plies until mate with best play, -1 for draws
+     */
+    public int getDistanceToMate() {
+        return distanceToMate;
+    }
+
+    /**
+     * Checks whether the side to move is already mated.
+     *
+     * @return true if the position is checkmate
+     */
+    public boolean isCheckmate() {
+        return outcome == Outcome.LOSS && distanceToMate == 0;
+    }
+}
@@ -0,0 +1,16 @@
+package helper;
+
+/**
+ * Represents whether the side to move can still play.
+ *
+ * @see DrawReason
+ * @version 1.0
+ */
+public enum TerminalState {
+    /** The side to move has at least one legal move */
+    ONGOING,
+    /** The side to move is in check and has no legal move */
+    CHECKMATE,
+    /** The side to move is not in check and has no legal move */
+    STALEMATE
+}
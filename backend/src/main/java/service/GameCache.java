@@ -0,0 +1,324 @@
+package service;
+
+import entity.Board;
+import entity.tablebase.EndgameTablebase;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import service.journal.GameStore;
+import utility.Log;
+import utility.SingleFlight;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Bounded cache of the games held in memory.
+ *
+ * <p>At most {@code maximumSize} games are kept on heap. When the bound is
+ * exceeded the least recently used game is checkpointed to the
+ * {@link GameStore} and dropped; the next lookup of that game reloads it
+ * from its snapshot. Without a store nothing can be reloaded, so the
+ * cache is unbounded.
+ *
+ * <p>Eviction happens under the cache lock, and a game's snapshot only
+ * changes while the game is in memory, so a reload reads the snapshot of
+ * its last eviction. Reloads read the store outside the cache lock: games
+ * are reloaded side by side, lookups of games in memory never wait for
+ * one, and concurrent lookups of the same game share a single reload.
+ *
+ * <p>Bound to a {@link MeterRegistry} the cache publishes:
+ * <ul>
+ *   <li>{@code chess.games.active} - games held in memory</li>
+ *   <li>{@code chess.games.cache.hits} / {@code misses} - lookups served from memory or the store</li>
+ *   <li>{@code chess.games.cache.hit.ratio} - share of lookups served from memory</li>
+ *   <li>{@code chess.games.cache.evictions} - games checkpointed and dropped</li>
+ *   <li>{@code chess.games.reload} - time spent reloading games</li>
+ * </ul>
+ *
+ * @see GameInterfaceImpl
+ * @see GameStore
+ * @version 1.0
+ */
+public class GameCache implements MeterBinder {
+
+    /** Logger tag for this class */
+    private static final String TAG = GameCache.class.getSimpleName();
+
+    /** Store evicted games are checkpointed to, or null if games stay in memory */
+    private final GameStore store;
+
+    /** Most games held in memory */
+    private final int maximumSize;
+
+    /** Games in least recently used order, guarded by the cache */
+    private final Map<Integer, GameSession> sessions;
+
+    /** Reloads in flight by game id */
+    private final SingleFlight<Integer, GameSession> reloadFlights = new SingleFlight<>();
+
+    /** Endgame tables given to reloaded boards */
+    private EndgameTablebase tablebase = EndgameTablebase.empty();
+
+    /** Restores what a snapshot does not hold on recovered and reloaded boards, by game id */
+    private BiConsumer<Integer, Board> restorer = (gameId, board) -> { };
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long reloads;
+    private long reloadNanos;
+
+    /**
+     * Creates an unbounded cache that keeps every game in memory.
+     */
+    public GameCache() {
+        this(null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a cache that evicts idle games to a store.
+     *
+     * @param store Store evicted games are checkpointed to
+     * @param maximumSize Most games held in memory
+     */
+    public GameCache(GameStore store, int maximumSize) {
+        this.store = store;
+        this.maximumSize = store == null ? Integer.MAX_VALUE : Math.max(1, maximumSize);
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, GameSession> eldest) {
+                return size() > GameCache.this.maximumSize && evict(eldest.getValue());
+            }
+        };
+    }
+
+    /**
+     * Gets the store behind the cache.
+     *
+     * @return Game store, or null if games are not persisted
+     */
+    public GameStore getStore() {
+        return store;
+    }
+
+    /**
+     * Sets the endgame tables of every game, including games reloaded later.
+     *
+     * @param tablebase Endgame tablebase shared by all games
+     */
+    public synchronized void setTablebase(EndgameTablebase tablebase) {
+        this.tablebase = tablebase;
+        sessions.values().forEach(session -> session.getBoard().setTablebase(tablebase));
+    }
+
+    /**
+     * Sets how recovered and reloaded boards get back state their snapshot
+     * does not hold, such as the position keys of earlier positions.
+     *
+     * @param restorer Completes a board decoded from a snapshot, given its game id
+     */
+    public synchronized void setRestorer(BiConsumer<Integer, Board> restorer) {
+        this.restorer = restorer;
+    }
+
+    /**
+     * Gets a game, reloading it from the store if it was evicted.
+     *
+     * @param gameId Game id
+     * @return Game session, or null if the game is unknown
+     */
+    public GameSession get(int gameId) {
+        synchronized (this) {
+            GameSession session = sessions.get(gameId);
+            if (session != null) {
+                hits++;
+                return session;
+            }
+            misses++;
+            if (store == null) {
+                return null;
+            }
+        }
+        return reloadFlights.get(gameId, () -> reload(gameId));
+    }
+
+    /**
+     * Adds a game, evicting the least recently used game if the cache is full.
+     *
+     * @param session Game session
+     */
+    public synchronized void put(GameSession session) {
+        session.getBoard().setTablebase(tablebase);
+        sessions.put(session.getId(), session);
+    }
+
+    /**
+     * Recovers the games held by the store.
+     *
+     * <p>Games are added in id order, so the most recent games stay in
+     * memory and older ones beyond the bound are checkpointed right away.
+     *
+     * @return Highest recovered game id, or -1 if there are none
+     * @throws IOException if the store cannot be read
+     */
+    public int recover() throws IOException {
+        if (store == null) {
+            return -1;
+        }
+        TreeMap<Integer, Board> recovered = new TreeMap<>(store.recoverGames());
+        recovered.forEach((id, board) -> {
+            restore(id, board);
+            put(new GameSession(id, board));
+        });
+        return recovered.isEmpty() ? -1 : recovered.lastKey();
+    }
+
+    /**
+     * Gets the number of games held in memory.
+     *
+     * @return Active games
+     */
+    public synchronized int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Gets the number of lookups served from memory.
+     *
+     * @return Cache hits
+     */
+    public synchronized long hitCount() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups of games not in memory.
+     *
+     * @return Cache misses
+     */
+    public synchronized long missCount() {
+        return misses;
+    }
+
+    /**
+     * Gets the share of lookups served from memory.
+     *
+     * @return Hit ratio, 1.0 before the first lookup
+     */
+    public synchronized double hitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 1.0 : (double) hits / lookups;
+    }
+
+    /**
+     * Gets the number of games checkpointed and dropped from memory.
+     *
+     * @return Evictions
+     */
+    public synchronized long evictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Reloads an evicted game from its snapshot and adds it to the cache,
+     * unless a reload that completed meanwhile added it already.
+     *
+     * @param gameId Game id
+     * @return Game session, or null if the store does not hold the game
+     */
+    private GameSession reload(int gameId) {
+        BiConsumer<Integer, Board> reloadRestorer;
+        synchronized (this) {
+            GameSession session = sessions.get(gameId);
+            if (session != null) {
+                return session;
+            }
+            reloadRestorer = restorer;
+        }
+
+        long start = System.nanoTime();
+        Board board = store.reload(gameId);
+        if (board == null) {
+            return null;
+        }
+        reloadRestorer.accept(gameId, board);
+
+        GameSession session = new GameSession(gameId, board);
+        synchronized (this) {
+            GameSession added = sessions.get(gameId);
+            if (added != null) {
+                return added;
+            }
+            board.setTablebase(tablebase);
+            sessions.put(gameId, session);
+            reloads++;
+            reloadNanos += System.nanoTime() - start;
+        }
+        Log.d(TAG, "Reloaded game " + gameId);
+        return session;
+    }
+
+    private synchronized void restore(int gameId, Board board) {
+        restorer.accept(gameId, board);
+    }
+
+    private synchronized long reloadCount() {
+        return reloads;
+    }
+
+    private synchronized double reloadSeconds() {
+        return reloadNanos / 1e9;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("chess.games.active", this, GameCache::size)
+            .description("Games held in memory")
+            .register(registry);
+        FunctionCounter.builder("chess.games.cache.hits", this, GameCache::hitCount)
+            .description("Game lookups served from memory")
+            .register(registry);
+        FunctionCounter.builder("chess.games.cache.misses", this, GameCache::missCount)
+            .description("Game lookups of games not in memory")
+            .register(registry);
+        Gauge.builder("chess.games.cache.hit.ratio", this, GameCache::hitRatio)
+            .description("Share of game lookups served from memory")
+            .register(registry);
+        FunctionCounter.builder("chess.games.cache.evictions", this, GameCache::evictionCount)
+            .description("Idle games checkpointed and dropped from memory")
+            .register(registry);
+        FunctionTimer.builder("chess.games.reload", this, GameCache::reloadCount,
+                GameCache::reloadSeconds, TimeUnit.SECONDS)
+            .description("Time spent reloading evicted games")
+            .register(registry);
+    }
+
+    /**
+     * Checkpoints a game about to be evicted.
+     *
+     * @param session Least recently used game
+     * @return True if the game can be dropped, false to keep it in memory
+     */
+    private boolean evict(GameSession session) {
+        try {
+            store.checkpoint(session.getId(), session.getBoard());
+        } catch (IOException e) {
+            Log.e(TAG, String.format("Could not checkpoint game %d, keeping it in memory: %s",
+                session.getId(), e.getMessage()));
+            return false;
+        }
+        evictions++;
+        Log.d(TAG, "Evicted game " + session.getId());
+        return true;
+    }
+}
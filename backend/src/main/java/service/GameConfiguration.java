@@ -0,0 +1,102 @@
+package service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import entity.tablebase.EndgameTablebase;
+import service.book.OpeningBook;
+import service.journal.GameStore;
+import service.journal.MoveJournal;
+import service.journal.SnapshotStore;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Spring configuration for the collaborators of the game service.
+ * 
+ * <p>Each bean is configured from application properties with a default
+ * that works out of the box:
+ * <ul>
+ *   <li>{@code chess.book.path} - opening book file (default: opening-book.bin)</li>
+ *   <li>{@code chess.tablebase.path} - endgame table directory (default: tablebases)</li>
+ *   <li>{@code chess.journal.path} - move journal file (default: data/moves.journal)</li>
+ *   <li>{@code chess.journal.durability} - NONE, BATCHED or SYNC (default: BATCHED)</li>
+ *   <li>{@code chess.journal.commit-interval-ms} - longest wait for a group commit (default: 5)</li>
+ *   <li>{@code chess.snapshot.path} - board snapshot file (default: data/snapshots.bin)</li>
+ *   <li>{@code chess.snapshot.interval} - plies between snapshots (default: 32)</li>
+ *   <li>{@code chess.games.max-active} - games held in memory before idle ones are evicted (default: 256)</li>
+ * </ul>
+ * 
+ * @see GameInterfaceImpl
+ * @version 1.0
+ */
+@Configuration
+public class GameConfiguration {
+
+    /**
+     * Maps the opening book file, or provides an empty book if there is none.
+     * 
+     * @param path Path of the book file
+     * @return Opening book shared by all games
+     */
+    @Bean
+    public OpeningBook openingBook(@Value("${chess.book.path:opening-book.bin}") String path) {
+        return OpeningBook.openOrEmpty(Paths.get(path));
+    }
+
+    /**
+     * Maps the endgame table files, or provides an empty tablebase if there are none.
+     * 
+     * @param path Directory of the table files
+     * @return Endgame tablebase shared by all games
+     */
+    @Bean
+    public EndgameTablebase endgameTablebase(@Value("${chess.tablebase.path:tablebases}") String path) {
+        return EndgameTablebase.openOrEmpty(Paths.get(path));
+    }
+
+    /**
+     * Opens the move journal shared by all games; closed on shutdown.
+     * 
+     * @param path Journal file
+     * @param durability Durability of appended moves
+     * @param commitIntervalMillis Longest time a move waits for a group commit
+     * @return Move journal
+     * @throws IOException if the journal cannot be opened
+     */
+    @Bean
+    public MoveJournal moveJournal(@Value("${chess.journal.path:data/moves.journal}") String path,
+            @Value("${chess.journal.durability:BATCHED}") MoveJournal.Durability durability,
+            @Value("${chess.journal.commit-interval-ms:5}") long commitIntervalMillis) throws IOException {
+        return new MoveJournal(Paths.get(path), durability, commitIntervalMillis);
+    }
+
+    /**
+     * Creates the game store combining the move journal with periodic snapshots.
+     * 
+     * @param journal Move journal
+     * @param path Snapshot file
+     * @param interval Plies between snapshots
+     * @return Game store
+     * @throws IOException if the snapshot file cannot be opened
+     */
+    @Bean
+    public GameStore gameStore(MoveJournal journal,
+            @Value("${chess.snapshot.path:data/snapshots.bin}") String path,
+            @Value("${chess.snapshot.interval:32}") int interval) throws IOException {
+        return new GameStore(journal, new SnapshotStore(Paths.get(path)), interval);
+    }
+
+    /**
+     * Creates the cache of games held in memory, evicting idle games to the store.
+     * 
+     * @param store Game store
+     * @param maxActive Most games held in memory
+     * @return Game cache
+     */
+    @Bean
+    public GameCache gameCache(GameStore store, @Value("${chess.games.max-active:256}") int maxActive) {
+        return new GameCache(store, maxActive);
+    }
+}
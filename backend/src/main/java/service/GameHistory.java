@@ -0,0 +1,226 @@
+package service;
+
+import entity.Board;
+import entity.BoardSnapshot;
+import helper.InvalidMoveException;
+import helper.InvalidPositionException;
+import utility.Log;
+import utility.MoveCodec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Move list of one game with periodic position checkpoints.
+ *
+ * <p>Moves are kept as encoded shorts (see {@link MoveCodec}) and every
+ * {@code interval} plies the position is kept as a {@link BoardSnapshot},
+ * so a game of any length costs 2 bytes per ply plus one snapshot per
+ * interval. The position at any ply is rebuilt by decoding the checkpoint
+ * at or before it and replaying fewer than {@code interval} moves.
+ *
+ * <p>Checkpoints do not hold earlier position keys, so a position is
+ * replayed from the checkpoint at or before its last capture or pawn move
+ * instead when needed, and repetitions spanning a checkpoint still count.
+ *
+ * <p>Checkpoints of moves recorded as they are played are taken from the
+ * live board. A history restored from the journal starts with the initial
+ * position only and fills in the missing checkpoints on first use.
+ *
+ * @see GameInterfaceImpl
+ * @version 1.0
+ */
+public class GameHistory {
+
+    private static final String TAG = GameHistory.class.getSimpleName();
+
+    /** Default plies between checkpoints */
+    public static final int DEFAULT_INTERVAL = 16;
+
+    /** Encoding of the starting position, the checkpoint of ply 0 */
+    private static final byte[] INITIAL = BoardSnapshot.encode(new Board());
+
+    /** Plies between checkpoints */
+    private final int interval;
+
+    /** Moves by ply; only the first {@link #size} are valid */
+    private short[] moves = new short[64];
+
+    /** Number of moves */
+    private int size;
+
+    /** Checkpoints by ply / interval; later ones may still be missing */
+    private final List<byte[]> checkpoints = new ArrayList<>();
+
+    /**
+     * Creates an empty history.
+     *
+     * @param interval Plies between checkpoints
+     */
+    public GameHistory(int interval) {
+        this.interval = interval;
+        checkpoints.add(INITIAL);
+    }
+
+    /**
+     * Creates the history of a game from its journaled moves.
+     *
+     * @param interval Plies between checkpoints
+     * @param journaled All moves of the game, in ply order
+     */
+    public GameHistory(int interval, List<Short> journaled) {
+        this(interval);
+        moves = new short[Math.max(64, journaled.size())];
+        for (short move : journaled) {
+            moves[size++] = move;
+        }
+    }
+
+    /**
+     * Appends a played move.
+     *
+     * @param move Encoded move
+     * @param board Board after the move, checkpointed when its ply reaches the interval
+     */
+    public synchronized void append(short move, Board board) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+        if (size % interval == 0 && checkpoints.size() == size / interval) {
+            checkpoints.add(BoardSnapshot.encode(board));
+        }
+    }
+
+    /**
+     * Drops the moves from a ply on, after a takeback.
+     *
+     * @param ply Number of moves to keep
+     */
+    public synchronized void truncate(int ply) {
+        size = Math.min(size, ply);
+        int keep = size / interval + 1;
+        while (checkpoints.size() > keep) {
+            checkpoints.remove(checkpoints.size() - 1);
+        }
+    }
+
+    /**
+     * Gets the number of moves.
+     *
+     * @return Plies played
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Rebuilds the position at a ply.
+     *
+     * @param ply Number of moves played in the position, from 0 to {@link #size()}
+     * @return New board of the position, or null if the ply is out of range
+     */
+    public Board positionAt(int ply) {
+        byte[] checkpoint;
+        short[] replay;
+        synchronized (this) {
+            if (ply < 0 || ply > size) {
+                return null;
+            }
+            int index = fillCheckpoints(ply / interval);
+            byte[] nearest = checkpoints.get(index);
+            int reversibleFrom = BoardSnapshot.ply(nearest) - BoardSnapshot.halfmoveClock(nearest);
+            index = Math.min(index, Math.max(0, reversibleFrom) / interval);
+            checkpoint = checkpoints.get(index);
+            replay = Arrays.copyOfRange(moves, index * interval, ply);
+        }
+        Board board = BoardSnapshot.decode(checkpoint);
+        for (short move : replay) {
+            if (!play(board, move)) {
+                break;
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Streams every position of the game, from the starting position to
+     * the current one, replaying each move once on a single board.
+     *
+     * <p>The moves are read when the stream is created. Each element is
+     * the same board, moved on to the next ply, so elements must be used
+     * before the next one is requested.
+     *
+     * @return Positions by ply
+     */
+    public Stream<Board> positions() {
+        short[] replay;
+        synchronized (this) {
+            replay = Arrays.copyOf(moves, size);
+        }
+        Iterator<Board> iterator = new Iterator<>() {
+            private Board board;
+            private int ply;
+
+            @Override
+            public boolean hasNext() {
+                return board == null || ply < replay.length;
+            }
+
+            @Override
+            public Board next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (board == null) {
+                    board = BoardSnapshot.decode(INITIAL);
+                } else if (!play(board, replay[ply++])) {
+                    ply = replay.length;
+                }
+                return board;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliterator(iterator, replay.length + 1L,
+            Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Computes missing checkpoints up to an index by replaying from the
+     * last one present.
+     *
+     * @return Index of the highest checkpoint at or before the requested one
+     */
+    private int fillCheckpoints(int index) {
+        if (checkpoints.size() > index) {
+            return index;
+        }
+        int from = checkpoints.size() - 1;
+        Board board = BoardSnapshot.decode(checkpoints.get(from));
+        for (int ply = from * interval; ply < index * interval; ply++) {
+            if (!play(board, moves[ply])) {
+                return checkpoints.size() - 1;
+            }
+            if ((ply + 1) % interval == 0) {
+                checkpoints.add(BoardSnapshot.encode(board));
+            }
+        }
+        return index;
+    }
+
+    private static boolean play(Board board, short move) {
+        try {
+            board.move(MoveCodec.from(move), MoveCodec.to(move));
+            return true;
+        } catch (InvalidMoveException | InvalidPositionException e) {
+            Log.e(TAG, String.format("Cannot replay %s at ply %d", MoveCodec.toNotation(move), board.getPly()));
+            return false;
+        }
+    }
+}
@@ -2,18 +2,47 @@ package service;
 
 import com.google.common.collect.ImmutableSet;
 import helper.Colour;
+import helper.Evaluation;
+import helper.OpeningInfo;
+import helper.TablebaseResult;
 import helper.InvalidMoveException;
 import helper.InvalidPositionException;
 import helper.GameState;
 import helper.Position;
 import entity.Board;
 import entity.BasePiece;
+import entity.ImmutableBoard;
+import entity.tablebase.EndgameTablebase;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import service.book.OpeningBook;
+import service.journal.GameStore;
+import service.journal.MoveJournal;
 import utility.BoardAdapter;
+import utility.GameMetrics;
 import utility.Log;
+import utility.MoveCodec;
+import utility.SingleFlight;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * Main implementation of the chess game interface.
@@ -29,6 +58,11 @@ import java.util.Set;
  * 
  * <p>The implementation ensures thread-safe access to game state and
  * coordinates all game operations through a well-defined interface.
+ * Reads, including every game state sent to clients, listeners and batch
+ * readers, are built from a board's published immutable version and
+ * never touch the live board. Clicks, takebacks and redos read the current
+ * game once and hold that game's write lock for the whole call, so its
+ * live board and square selection are used by one thread at a time.
  * 
  * Class containing the main logic of the backend.
  * The click inputs from the webapp are communicated with the backend.
@@ -43,15 +77,46 @@ public class GameInterfaceImpl implements IGameInterface {
 
     /** Logger tag for this class */
     private static final String TAG = GameInterfaceImpl.class.getSimpleName();
+
+    /** Threads reading the games of batched state requests */
+    private static final int BATCH_READ_THREADS = 16;
+
+    /** Reads the games of batched state requests, reloading evicted ones */
+    private static final ExecutorService BATCH_READS = Executors.newFixedThreadPool(BATCH_READ_THREADS, task -> {
+        Thread thread = new Thread(task, "board-batch-read");
+        thread.setDaemon(true);
+        return thread;
+    });
     
-    /** The game board instance */
-    private final Board board;
-    
-    /** Starting position for a move in progress */
-    private Position moveStartPos;
-    
-    /** Currently highlighted squares on the board */
-    private Set<Position> highlightSquares;
+    /** Games by id; idle games may be evicted to the store and reloaded */
+    private GameCache games;
+
+    /** Next id handed out by {@link #newGame()} */
+    private final AtomicInteger nextGameId;
+
+    /** Coalesces concurrent state reads by game id and position version */
+    private final SingleFlight<Map.Entry<Integer, Long>, GameState> stateReads;
+
+    /** Id of the game the web interface is playing */
+    private volatile int gameId;
+
+    /** Opening book used to answer book moves and opening names */
+    private OpeningBook openingBook;
+
+    /** Endgame tables given to every board */
+    private EndgameTablebase tablebase;
+
+    /** Store of accepted moves and snapshots, or null if games are not persisted */
+    private GameStore store;
+
+    /** Listeners notified of every new position */
+    private final List<GameStateListener> stateListeners = new CopyOnWriteArrayList<>();
+
+    /** Move histories by game id, kept for every game including evicted ones */
+    private final ConcurrentMap<Integer, GameHistory> histories = new ConcurrentHashMap<>();
+
+    /** Locks serializing the moves of a game, kept across eviction and reload */
+    private final ConcurrentMap<Integer, Object> writeLocks = new ConcurrentHashMap<>();
 
     /**
      * Creates a new game interface with initial setup.
@@ -59,26 +124,183 @@ public class GameInterfaceImpl implements IGameInterface {
      * <p>Initializes:
      * <ul>
      *   <li>New game board</li>
-     *   <li>Empty move state</li>
-     *   <li>No highlighted squares</li>
+     *   <li>Empty opening book and endgame tables</li>
      * </ul>
      */
     public GameInterfaceImpl() {
         Log.d(TAG, "initGame GameInterfaceImpl()");
-        board = new Board();
-        moveStartPos = null;
-        highlightSquares = ImmutableSet.of();
+        games = new GameCache();
+        nextGameId = new AtomicInteger();
+        stateReads = new SingleFlight<>();
+        GameMetrics.bindSingleFlight("chess.board.reads", stateReads);
+        openingBook = OpeningBook.empty();
+        tablebase = EndgameTablebase.empty();
+        newGame();
+    }
+
+    /**
+     * Sets the opening book used for book moves and opening names.
+     * 
+     * @param openingBook Opening book shared by all games
+     */
+    @Autowired(required = false)
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * Sets the endgame tablebase the board uses to detect checkmate.
+     * 
+     * @param tablebase Endgame tablebase shared by all games
+     */
+    @Autowired(required = false)
+    public void setTablebase(EndgameTablebase tablebase) {
+        this.tablebase = tablebase;
+        games.setTablebase(tablebase);
+    }
+
+    /**
+     * Sets the cache games are held in, and recovers the games of its store.
+     * 
+     * <p>Accepted moves are recorded in the cache's store. The most recent
+     * recovered game becomes the current game and new games are numbered
+     * after it; without recovered games the current game moves to the cache.
+     * 
+     * @param cache Game cache shared by all games
+     */
+    @Autowired(required = false)
+    public void setGameCache(GameCache cache) {
+        GameSession current = games.get(gameId);
+        this.games = cache;
+        this.store = cache.getStore();
+        cache.setTablebase(tablebase);
+        cache.setRestorer(this::restoreRepetitions);
+        try {
+            if (store != null) {
+                store.readMoves().forEach((id, moves) ->
+                    histories.put(id, new GameHistory(GameHistory.DEFAULT_INTERVAL, moves)));
+            }
+            int latest = cache.recover();
+            if (latest >= 0) {
+                gameId = latest;
+                nextGameId.set(Math.max(nextGameId.get(), latest + 1));
+                return;
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Could not recover games: " + e.getMessage());
+        }
+        cache.put(current);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>This implementation registers a fresh board under the next game id;
+     * the previous game stays available for recovery.
+     */
+    @Override
+    public int newGame() {
+        GameSession session = new GameSession(nextGameId.getAndIncrement(), new Board());
+        games.put(session);
+        histories.put(session.getId(), new GameHistory(GameHistory.DEFAULT_INTERVAL));
+        gameId = session.getId();
+        GameMetrics.GAMES_STARTED.increment();
+        Log.d(TAG, "Started game " + session.getId());
+        publishState(session);
+        return session.getId();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getGameId() {
+        return gameId;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addStateListener(GameStateListener listener) {
+        stateListeners.add(listener);
     }
 
     /**
      * {@inheritDoc}
      * 
      * <p>This implementation converts the internal board state to a
-     * format suitable for the web interface using BoardAdapter.
+     * format suitable for the web interface using BoardAdapter. Clients
+     * polling the same game at the same moment share one conversion per
+     * position version.
      */
     @Override
     public GameState getBoard() {
-        return BoardAdapter.convertModelBoardToGameState(board);
+        return getBoard(gameId);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>Reads share conversions with {@link #getBoard()} by game id and
+     * position version.
+     */
+    @Override
+    public GameState getBoard(int gameId) {
+        GameSession session = games.get(gameId);
+        return session == null ? null : stateOf(gameId, session.getBoard().snapshot());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GameState getBoardIfChanged(int gameId, long knownVersion) {
+        GameSession session = games.get(gameId);
+        if (session == null) {
+            return null;
+        }
+        ImmutableBoard snapshot = session.getBoard().snapshot();
+        return snapshot.getVersion() == knownVersion ? null : stateOf(gameId, snapshot);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>Games are read by a dedicated pool of {@value #BATCH_READ_THREADS}
+     * threads. The game cache reloads evicted games outside its lock, so
+     * several of them are read from the store at once. Closing the stream
+     * cancels the reads not yet started.
+     */
+    @Override
+    public Stream<GameState> getBoards(Map<Integer, Long> knownVersions) {
+        ExecutorCompletionService<GameState> reads = new ExecutorCompletionService<>(BATCH_READS);
+        List<Future<GameState>> pending = new ArrayList<>(knownVersions.size());
+        knownVersions.forEach((id, known) ->
+            pending.add(reads.submit(() -> getBoardIfChanged(id, known == null ? -1 : known))));
+        return Stream.generate(() -> takeRead(reads))
+            .limit(pending.size())
+            .filter(Objects::nonNull)
+            .onClose(() -> pending.forEach(read -> read.cancel(false)));
+    }
+
+    /**
+     * Waits for the next batched read to complete.
+     * 
+     * @param reads Reads in flight
+     * @return State read, or null if unchanged or unknown
+     */
+    private static GameState takeRead(ExecutorCompletionService<GameState> reads) {
+        try {
+            return reads.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted reading game states", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException
+                ? (RuntimeException) e.getCause()
+                : new IllegalStateException(e.getCause());
+        }
     }
 
     /**
@@ -107,22 +329,28 @@ public class GameInterfaceImpl implements IGameInterface {
      */
     @Override
     public GameState onClick(String squareLabel) {
-        try {
-            Log.d(TAG, ">>> onClick called: squareLabel: " + squareLabel);
-            
-            if (squareLabel.contains("-")) {
-                handleMoveCommand(squareLabel);
-            } else {
-                handleSquareSelection(squareLabel);
+        long startNanos = System.nanoTime();
+        int id = gameId;
+        synchronized (writeLock(id)) {
+            GameSession session = games.get(id);
+            try {
+                Log.d(TAG, ">>> onClick called: squareLabel: " + squareLabel);
+                
+                if (squareLabel.contains("-")) {
+                    handleMoveCommand(session, squareLabel);
+                } else {
+                    handleSquareSelection(session, squareLabel);
+                }
+            } catch (InvalidMoveException e) {
+                Log.e(TAG, "InvalidMoveException onClick: " + e.getMessage());
+                GameMetrics.ILLEGAL_MOVES.increment();
+                session.clearSelection();
+            } finally {
+                GameMetrics.recordSince(GameMetrics.CLICK, startNanos);
             }
-        } catch (InvalidMoveException e) {
-            Log.e(TAG, "InvalidMoveException onClick: " + e.getMessage());
-            moveStartPos = null;
-            highlightSquares = ImmutableSet.of();
-            return BoardAdapter.convertModelBoardToGameState(board);
+            
+            return stateOf(id, session.getBoard().snapshot());
         }
-        
-        return BoardAdapter.convertModelBoardToGameState(board);
     }
 
     /**
@@ -133,16 +361,155 @@ public class GameInterfaceImpl implements IGameInterface {
      */
     @Override
     public Colour getTurn() {
-        return board.getTurn();
+        return currentBoard().snapshot().getTurn();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>This implementation reads the board's incrementally maintained
+     * evaluation, as of its latest published version, without scanning
+     * the board.
+     */
+    @Override
+    public Evaluation getEvaluation() {
+        return BoardAdapter.convertModelBoardToEvaluation(currentBoard().snapshot());
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>This implementation looks up the board's position key in the
+     * memory-mapped opening book.
+     */
+    @Override
+    public OpeningInfo getOpeningInfo() {
+        long key = currentBoard().snapshot().getPositionKey();
+        return new OpeningInfo(openingBook.getOpeningName(key), openingBook.getMoves(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>This implementation probes the memory-mapped endgame tables with
+     * the board's latest published version.
+     */
+    @Override
+    public TablebaseResult getTablebaseResult() {
+        ImmutableBoard snapshot = currentBoard().snapshot();
+        return tablebase.probe(snapshot.getPieces(), snapshot.getTurn());
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>This implementation rebuilds the position from the game's move
+     * history, replaying fewer than {@link GameHistory#DEFAULT_INTERVAL}
+     * moves past the last capture or pawn move.
+     */
+    @Override
+    public GameState getBoardAt(int gameId, int ply) {
+        GameHistory history = histories.get(gameId);
+        Board board = history == null ? null : history.positionAt(ply);
+        return board == null ? null : toGameState(gameId, board);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<GameState> getPositions(int gameId) {
+        GameHistory history = histories.get(gameId);
+        if (history == null) {
+            return Stream.empty();
+        }
+        return history.positions().map(board -> toGameState(gameId, board));
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>This implementation journals the takeback, so the moves stay
+     * taken back after a restart. A board reloaded from a snapshot keeps no
+     * undo records, so its last move is taken back by rebuilding the
+     * position before it from the game's history; such a takeback cannot
+     * be redone.
+     */
+    @Override
+    public GameState takeBack() {
+        int id = gameId;
+        synchronized (writeLock(id)) {
+            GameSession session = games.get(id);
+            session.clearSelection();
+            Board board = session.getBoard();
+            if (board.takeBack() || takeBackFromHistory(session)) {
+                GameHistory history = histories.get(id);
+                if (history != null) {
+                    history.truncate(board.getPly());
+                }
+                if (store != null) {
+                    awaitCommit(store.recordTakeback(id, board));
+                }
+                publishState(session);
+            }
+            return stateOf(id, board.snapshot());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>This implementation journals the redone move like a played one.
+     */
+    @Override
+    public GameState redo() {
+        int id = gameId;
+        synchronized (writeLock(id)) {
+            GameSession session = games.get(id);
+            session.clearSelection();
+            Board board = session.getBoard();
+            int ply = board.getPly();
+            if (board.redo()) {
+                int[] move = board.getLastMove();
+                recordMove(session, ply, MoveCodec.encode(move[0], move[1]));
+                countGameEnd(board);
+                publishState(session);
+            }
+            return stateOf(id, board.snapshot());
+        }
+    }
+
+    /**
+     * Takes back the last move of a game's board by rebuilding the position
+     * before it from the game's history.
+     * 
+     * @param session Game whose board has no undo records
+     * @return true if a move was taken back, false if the history does not reach it
+     */
+    private boolean takeBackFromHistory(GameSession session) {
+        GameHistory history = histories.get(session.getId());
+        Board board = session.getBoard();
+        int ply = board.getPly();
+        if (ply == 0 || history == null || history.size() != ply) {
+            return false;
+        }
+        Board previous = history.positionAt(ply - 1);
+        if (previous == null) {
+            return false;
+        }
+        board.takeBackTo(previous);
+        return true;
     }
 
     /**
      * Processes a move command in algebraic notation.
      * 
+     * @param session Game to move in, whose write lock is held
      * @param command Move command in format "e2-e4"
      * @throws InvalidMoveException if the move is invalid
      */
-    private void handleMoveCommand(String command) throws InvalidMoveException {
+    private void handleMoveCommand(GameSession session, String command) throws InvalidMoveException {
+        Board board = session.getBoard();
         String[] positions = command.split("-");
         if (positions.length != 2) {
             throw new InvalidMoveException("Invalid move format");
@@ -151,7 +518,7 @@ public class GameInterfaceImpl implements IGameInterface {
         String startSquare = positions[0];
         String endSquare = positions[1];
         
-        Position startPosition = getPositionFromAlgebraic(startSquare);
+        Position startPosition = getPositionFromAlgebraic(board, startSquare);
         if (startPosition == null) {
             throw new InvalidMoveException("Invalid start position");
         }
@@ -161,7 +528,7 @@ public class GameInterfaceImpl implements IGameInterface {
             throw new InvalidMoveException("No piece at start position");
         }
         
-        Position endPosition = getEndPosition(piece, endSquare);
+        Position endPosition = getEndPosition(board, piece, endSquare);
         if (endPosition == null) {
             throw new InvalidMoveException("Invalid end position");
         }
@@ -169,52 +536,61 @@ public class GameInterfaceImpl implements IGameInterface {
         Log.d(TAG, String.format("Moving piece %s from %s to %s", 
             piece.toString(), startPosition, endPosition));
         
+        int ply = board.getPly();
+        long startNanos = System.nanoTime();
         try {
             board.move(startPosition, endPosition);
-            resetMoveState();
         } catch (InvalidPositionException e) {
             throw new InvalidMoveException("Invalid move: " + e.getMessage());
+        } finally {
+            GameMetrics.recordSince(GameMetrics.MOVE, startNanos);
         }
+        recordMove(session, ply, MoveCodec.encode(startPosition, endPosition));
+        countGameEnd(board);
+        session.clearSelection();
+        publishState(session);
     }
 
     /**
      * Processes a square selection command.
      * 
+     * @param session Game to select in, whose write lock is held
      * @param square Square in algebraic notation (e.g., "e4")
      */
-    private void handleSquareSelection(String square) {
+    private void handleSquareSelection(GameSession session, String square) {
+        Board board = session.getBoard();
         try {
-            Position position = getPositionFromAlgebraic(square);
+            Position position = getPositionFromAlgebraic(board, square);
             if (position == null) {
-                resetMoveState();
+                session.clearSelection();
                 return;
             }
             
-            if (board.isCurrentPlayersPiece(position)) {
-                moveStartPos = position;
-                highlightSquares = board.getPossibleMoves(moveStartPos);
-                if (highlightSquares.isEmpty()) {
-                    resetMoveState();
-                }
+            Set<Position> highlightSquares = board.isCurrentPlayersPiece(position)
+                ? board.getPossibleMoves(position)
+                : ImmutableSet.of();
+            if (highlightSquares.isEmpty()) {
+                session.clearSelection();
             } else {
-                resetMoveState();
+                session.select(position, highlightSquares);
             }
         } catch (Exception e) {
             Log.e(TAG, "Error in square selection: " + e.getMessage());
-            resetMoveState();
+            session.clearSelection();
         }
     }
 
     /**
      * Converts algebraic notation to internal position.
      * 
+     * @param board Board to look for the square's piece on
      * @param algebraic Square in algebraic notation (e.g., "e4")
      * @return Position object or null if invalid
      */
-    private Position getPositionFromAlgebraic(String algebraic) {
+    private Position getPositionFromAlgebraic(Board board, String algebraic) {
         try {
             int col = algebraic.charAt(0) - 'a';
-            int row = Character.getNumericValue(algebraic.charAt(1)) - 1;
+            int row = 8 - Character.getNumericValue(algebraic.charAt(1));
             
             // Try both color spaces
             try {
@@ -238,14 +614,15 @@ public class GameInterfaceImpl implements IGameInterface {
     /**
      * Determines the correct end position for a move.
      * 
+     * @param board Board the piece moves on
      * @param piece Moving piece
      * @param algebraic Target square in algebraic notation
      * @return Position object or null if invalid
      */
-    private Position getEndPosition(BasePiece piece, String algebraic) {
+    private Position getEndPosition(Board board, BasePiece piece, String algebraic) {
         try {
             int col = algebraic.charAt(0) - 'a';
-            int row = Character.getNumericValue(algebraic.charAt(1)) - 1;
+            int row = 8 - Character.getNumericValue(algebraic.charAt(1));
             
             // Try same color space first
             Position endPos = Position.get(piece.getColour(), row, col);
@@ -270,16 +647,132 @@ public class GameInterfaceImpl implements IGameInterface {
     }
 
     /**
-     * Resets the move state.
+     * Records an accepted move in the game's history and the game store.
      * 
-     * <p>Clears:
-     * <ul>
-     *   <li>Move start position</li>
-     *   <li>Highlighted squares</li>
-     * </ul>
+     * <p>Only SYNC durability waits, and then for the group commit shared
+     * with every other game rather than an fsync of its own.
+     * 
+     * @param session Game the move was played in
+     * @param ply Ply of the move
+     * @param move Encoded move
+     */
+    private void recordMove(GameSession session, int ply, short move) {
+        GameHistory history = histories.get(session.getId());
+        if (history != null) {
+            history.append(move, session.getBoard());
+        }
+        if (store == null) {
+            return;
+        }
+        awaitCommit(store.recordMove(session.getId(), ply, move, session.getBoard()));
+    }
+
+    /**
+     * Restores the position keys a board decoded from a snapshot lacks,
+     * from the moves since its last capture or pawn move.
+     * 
+     * @param gameId Id of the game
+     * @param board Board recovered or reloaded from a snapshot
+     */
+    private void restoreRepetitions(int gameId, Board board) {
+        GameHistory history = histories.get(gameId);
+        if (history == null || board.getHalfmoveClock() == 0) {
+            return;
+        }
+        Board replayed = history.positionAt(board.getPly());
+        if (replayed != null) {
+            board.restoreRepetitionKeys(replayed.getRepetitionKeys());
+        }
+    }
+
+    /**
+     * Counts a game as ended if the move just played ended it.
+     * 
+     * @param board Board the move was played on
+     */
+    private void countGameEnd(Board board) {
+        if (board.isGameOver()) {
+            GameMetrics.GAMES_ENDED.increment();
+        }
+    }
+
+    /**
+     * Converts a published board version of a game to its web state,
+     * sharing the conversion with concurrent reads of the same version.
+     * 
+     * @param gameId Id of the game
+     * @param snapshot Published board version
+     * @return GameState tagged with the game id
+     */
+    private GameState stateOf(int gameId, ImmutableBoard snapshot) {
+        return stateReads.get(Map.entry(gameId, snapshot.getVersion()), () -> {
+            GameState state = BoardAdapter.convertModelBoardToGameState(snapshot);
+            state.setGameId(gameId);
+            return state;
+        });
+    }
+
+    /**
+     * Converts a board of a game to its web state.
+     * 
+     * @param gameId Id of the game
+     * @param board Board of the game
+     * @return GameState tagged with the game id
      */
-    private void resetMoveState() {
-        moveStartPos = null;
-        highlightSquares = ImmutableSet.of();
+    private static GameState toGameState(int gameId, Board board) {
+        GameState state = BoardAdapter.convertModelBoardToGameState(board);
+        state.setGameId(gameId);
+        return state;
+    }
+
+    /**
+     * Waits for a journal record to commit if durability is SYNC.
+     * 
+     * @param commit Commit of the record
+     */
+    private void awaitCommit(CompletableFuture<Void> commit) {
+        if (store.getDurability() == MoveJournal.Durability.SYNC) {
+            try {
+                commit.join();
+            } catch (CompletionException e) {
+                Log.e(TAG, "Move not journaled: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Gets the lock held while a game's board is moved.
+     * 
+     * @param gameId Id of the game
+     * @return Lock of the game, the same object across eviction and reload
+     */
+    private Object writeLock(int gameId) {
+        return writeLocks.computeIfAbsent(gameId, id -> new Object());
+    }
+
+    /**
+     * Gets the board of the current game, reloading it if it was evicted.
+     * 
+     * @return Current board
+     */
+    private Board currentBoard() {
+        return games.get(gameId).getBoard();
+    }
+
+    /**
+     * Notifies the state listeners of a game's position, built once
+     * through the same path as polled reads.
+     * 
+     * @param session Game whose position changed
+     */
+    private void publishState(GameSession session) {
+        if (stateListeners.isEmpty()) {
+            return;
+        }
+        ImmutableBoard snapshot = session.getBoard().snapshot();
+        GameState state = stateOf(session.getId(), snapshot);
+        for (GameStateListener listener : stateListeners) {
+            listener.onStateChanged(session.getId(), snapshot.getVersion(), state);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package service;
+
+import com.google.common.collect.ImmutableSet;
+import entity.Board;
+import helper.Position;
+
+import java.util.Set;
+
+/**
+ * One game hosted by the game service.
+ *
+ * <p>Pairs the game's board with the id under which its moves are
+ * journaled, so that several games can be played and recovered side by
+ * side.
+ *
+ * <p>The board and the square selection are used by one thread at a time:
+ * the game service holds the game's write lock while it moves the board
+ * or selects a square. Other threads read the board's published snapshot.
+ *
+ * @see GameInterfaceImpl
+ * @version 1.0
+ */
+public class GameSession {
+
+    /** Id of the game, unique across restarts */
+    private final int id;
+
+    /** Board of the game */
+    private final Board board;
+
+    /** Selected piece of a move in progress, or null */
+    private Position moveStartPos;
+
+    /** Squares the selected piece can move to */
+    private Set<Position> highlightSquares = ImmutableSet.of();
+
+    /**
+     * Creates a session for a board.
+     *
+     * @param id Game id
+     * @param board Board of the game
+     */
+    public GameSession(int id, Board board) {
+        this.id = id;
+        this.board = board;
+    }
+
+    /**
+     * Gets the game id.
+     *
+     * @return Game id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the board of the game.
+     *
+     * @return Game board
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Selects a piece to move.
+     *
+     * @param start Position of the selected piece
+     * @param targets Squares the piece can move to
+     */
+    public void select(Position start, Set<Position> targets) {
+        moveStartPos = start;
+        highlightSquares = targets;
+    }
+
+    /**
+     * Clears the selected piece and its highlighted squares.
+     */
+    public void clearSelection() {
+        moveStartPos = null;
+        highlightSquares = ImmutableSet.of();
+    }
+
+    /**
+     * Gets the selected piece of a move in progress.
+     *
+     * @return Position of the selected piece, or null if none is selected
+     */
+    public Position getMoveStartPos() {
+        return moveStartPos;
+    }
+
+    /**
+     * Gets the squares the selected piece can move to.
+     *
+     * @return Highlighted squares, empty if no piece is selected
+     */
+    public Set<Position> getHighlightSquares() {
+        return highlightSquares;
+    }
+}
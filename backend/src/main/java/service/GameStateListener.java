@@ -0,0 +1,24 @@
+package service;
+
+import helper.GameState;
+
+/**
+ * Listener notified when a game reaches a new position.
+ * 
+ * <p>Used to push positions to clients instead of having them poll.
+ * 
+ * @see IGameInterface#addStateListener(GameStateListener)
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface GameStateListener {
+
+    /**
+     * Called after a move is applied or a new game is started.
+     * 
+     * @param gameId Id of the game
+     * @param version Position version of the game's board
+     * @param state Game state of the new position, shared by all listeners
+     */
+    void onStateChanged(int gameId, long version, GameState state);
+}
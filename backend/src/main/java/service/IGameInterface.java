@@ -1,7 +1,13 @@
 package service;
 import helper.Colour;
+import helper.Evaluation;
+import helper.OpeningInfo;
+import helper.TablebaseResult;
 import helper.GameState;
 
+import java.util.Map;
+import java.util.stream.Stream;
+
 /**
  * Main interface for the 3-Player Chess game.
  * This interface defines the core game operations and state management.
@@ -38,6 +44,72 @@ public interface IGameInterface {
      */
     GameState getBoard();
 
+    /**
+     * Gets the board state of any game, without selection state.
+     * 
+     * <p>Used to show a game to clients that are not playing it. An evicted
+     * game is reloaded from the store.
+     *
+     * @param gameId Id of the game
+     * @return GameState of the game's position, or null if the game is unknown
+     * @see GameState
+     */
+    GameState getBoard(int gameId);
+
+    /**
+     * Gets the board state of a game unless its position is still the one
+     * the caller has.
+     * 
+     * <p>The version is compared before the state is built, so unchanged
+     * games cost a lookup only.
+     *
+     * @param gameId Id of the game
+     * @param knownVersion Version the caller last saw, or -1 if none
+     * @return GameState of the game's position, or null if unchanged or the game is unknown
+     * @see GameState#getVersion()
+     */
+    GameState getBoardIfChanged(int gameId, long knownVersion);
+
+    /**
+     * Gets the board states of many games, skipping the games whose
+     * position is still the one the caller has.
+     * 
+     * <p>The games are read in parallel and the stream yields each state as
+     * soon as it is built, in no particular order; every state carries its
+     * game id.
+     *
+     * @param knownVersions Versions the caller last saw by game id; a null version means none
+     * @return Changed GameStates of known games
+     * @see #getBoardIfChanged(int, long)
+     */
+    Stream<GameState> getBoards(Map<Integer, Long> knownVersions);
+
+    /**
+     * Gets the board state of a game as it was after a number of moves.
+     * 
+     * <p>The position is rebuilt from the nearest checkpoint before the ply
+     * and the moves after it, so the cost does not grow with the game.
+     *
+     * @param gameId Id of the game
+     * @param ply Number of moves played, from 0 to the current ply
+     * @return GameState of the position, or null if the game or ply is unknown
+     * @see GameState
+     */
+    GameState getBoardAt(int gameId, int ply);
+
+    /**
+     * Gets the board states of every position of a game, from the starting
+     * position to the current one.
+     * 
+     * <p>The states are built lazily by replaying the game once, each move
+     * on the board of the one before.
+     *
+     * @param gameId Id of the game
+     * @return GameStates by ply, empty if the game is unknown
+     * @see GameState
+     */
+    Stream<GameState> getPositions(int gameId);
+
     /**
      * Processes a player's click on the game board.
      * 
@@ -55,6 +127,26 @@ public interface IGameInterface {
      */
     GameState onClick(String squareLabel);
 
+    /**
+     * Takes back the last move of the current game.
+     * 
+     * <p>Any selection is cleared. The move can be redone until another
+     * move is played. Only moves played since the game was last loaded
+     * can be taken back.
+     *
+     * @return GameState after the takeback, unchanged if there was no move
+     * @see #redo()
+     */
+    GameState takeBack();
+
+    /**
+     * Redoes the last move taken back in the current game.
+     *
+     * @return GameState after the move, unchanged if there was none to redo
+     * @see #takeBack()
+     */
+    GameState redo();
+
     /**
      * Gets the color of the player whose turn it currently is.
      * 
@@ -68,4 +160,69 @@ public interface IGameInterface {
      * @see Colour
      */
     Colour getTurn();
+
+    /**
+     * Gets the static evaluation of the current position.
+     * 
+     * <p>The evaluation is maintained incrementally by the board, so this
+     * is cheap enough to call on every poll.
+     *
+     * @return Evaluation summary with score, material and game phase
+     * @see Evaluation
+     */
+    Evaluation getEvaluation();
+
+    /**
+     * Gets opening book information for the current position.
+     * 
+     * <p>Looks up the position in the opening book by its hash key and returns:
+     * <ul>
+     *   <li>The name of the opening, if known</li>
+     *   <li>The book moves for the side to move</li>
+     * </ul>
+     *
+     * @return Opening information, with no moves when out of book
+     * @see OpeningInfo
+     */
+    OpeningInfo getOpeningInfo();
+
+    /**
+     * Gets the exact result of the current position from the endgame tablebase.
+     * 
+     * <p>Only endings with a bare king against a king and one or two pieces
+     * are covered, and only when their table has been generated.
+     *
+     * @return Result for the side to move, or null if the position is not covered
+     * @see TablebaseResult
+     */
+    TablebaseResult getTablebaseResult();
+
+    /**
+     * Starts a new game and makes it the current game.
+     * 
+     * <p>Earlier games are kept, so their moves remain in the journal and
+     * are recovered on restart.
+     *
+     * @return Id of the new game
+     */
+    int newGame();
+
+    /**
+     * Gets the id of the current game.
+     *
+     * @return Game id under which moves are journaled
+     */
+    int getGameId();
+
+    /**
+     * Registers a listener notified whenever a game reaches a new position.
+     * 
+     * <p>Listeners are called on the thread that made the move, after the
+     * move has been applied and journaled, so they should hand the state
+     * off rather than block.
+     *
+     * @param listener Listener to notify
+     * @see GameStateListener
+     */
+    void addStateListener(GameStateListener listener);
 }
@@ -0,0 +1,224 @@
+package service.book;
+
+import helper.BookMove;
+import utility.Log;
+import utility.MoveCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only opening book backed by a memory-mapped file.
+ *
+ * <p>The book file is mapped once with {@link FileChannel#map} and searched
+ * in place; entries are never deserialized into objects. The file layout is:
+ * <ul>
+ *   <li>Header: magic, version, entry count, name count (4 ints)</li>
+ *   <li>Entries: sorted by position key, 16 bytes each
+ *       (long key, short move, short weight, int name index)</li>
+ *   <li>Name offsets: one int per name, relative to the name data</li>
+ *   <li>Name data: per name, a short length followed by UTF-8 bytes</li>
+ * </ul>
+ *
+ * <p>All entries for a position are adjacent, so a lookup is a binary search
+ * for the first matching key followed by a short forward scan. Reads use
+ * absolute buffer access only, so one instance can be shared by any number
+ * of threads.
+ *
+ * @see OpeningBookBuilder
+ * @see entity.Board#getPositionKey()
+ * @version 1.0
+ */
+public class OpeningBook {
+
+    /** Logger tag for this class */
+    private static final String TAG = OpeningBook.class.getSimpleName();
+
+    /** File magic, "CBK1" */
+    static final int MAGIC = 0x43424B31;
+
+    /**
+     * Current file format version. Version 2 keys positions with castling
+     * rights and the en-passant target, so version 1 books never match.
+     */
+    static final int VERSION = 2;
+
+    /** Size of the file header in bytes */
+    static final int HEADER_SIZE = 16;
+
+    /** Size of one entry in bytes */
+    static final int ENTRY_SIZE = 16;
+
+    /** Name index stored for entries without an opening name */
+    static final int NO_NAME = -1;
+
+    /** Mapped book contents, or an empty buffer */
+    private final ByteBuffer buffer;
+
+    /** Number of entries in the book */
+    private final int entryCount;
+
+    /** Number of opening names in the book */
+    private final int nameCount;
+
+    /** Offset of the name offset table */
+    private final int nameTableOffset;
+
+    private OpeningBook(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() == 0) {
+            this.entryCount = 0;
+            this.nameCount = 0;
+            this.nameTableOffset = HEADER_SIZE;
+            return;
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an opening book file");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported opening book version: " + buffer.getInt(4));
+        }
+        this.entryCount = buffer.getInt(8);
+        this.nameCount = buffer.getInt(12);
+        this.nameTableOffset = HEADER_SIZE + entryCount * ENTRY_SIZE;
+        if ((long) nameTableOffset + (long) nameCount * Integer.BYTES > buffer.capacity()) {
+            throw new IOException("Truncated opening book file");
+        }
+    }
+
+    /**
+     * Maps an opening book file into memory.
+     *
+     * @param path Book file
+     * @return Opening book backed by the mapped file
+     * @throws IOException if the file cannot be read or is not a valid book
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Maps an opening book file, falling back to an empty book.
+     *
+     * @param path Book file
+     * @return Opening book, empty if the file is missing or invalid
+     */
+    public static OpeningBook openOrEmpty(Path path) {
+        if (!path.toFile().isFile()) {
+            Log.d(TAG, "No opening book at " + path);
+            return empty();
+        }
+        try {
+            OpeningBook book = open(path);
+            Log.d(TAG, String.format("Opening book %s: %d entries", path, book.size()));
+            return book;
+        } catch (IOException e) {
+            Log.e(TAG, "Could not open opening book " + path + ": " + e.getMessage());
+            return empty();
+        }
+    }
+
+    /**
+     * Creates a book without any entries.
+     *
+     * @return Empty opening book
+     */
+    public static OpeningBook empty() {
+        try {
+            return new OpeningBook(ByteBuffer.allocate(0));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gets the number of entries in the book.
+     *
+     * @return Entry count
+     */
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * Gets the book moves for a position, most popular first.
+     *
+     * @param positionKey Zobrist key of the position
+     * @return Book moves, empty if the position is not in the book
+     */
+    public List<BookMove> getMoves(long positionKey) {
+        int index = findFirst(positionKey);
+        if (index < 0) {
+            return Collections.emptyList();
+        }
+
+        List<BookMove> moves = new ArrayList<>();
+        for (int i = index; i < entryCount && keyAt(i) == positionKey; i++) {
+            int offset = entryOffset(i);
+            short move = buffer.getShort(offset + 8);
+            int weight = Short.toUnsignedInt(buffer.getShort(offset + 10));
+            moves.add(new BookMove(MoveCodec.toNotation(move), weight));
+        }
+        moves.sort((a, b) -> Integer.compare(b.getWeight(), a.getWeight()));
+        return moves;
+    }
+
+    /**
+     * Gets the opening name recorded for a position.
+     *
+     * @param positionKey Zobrist key of the position
+     * @return Opening name, or null if the position is not named
+     */
+    public String getOpeningName(long positionKey) {
+        int index = findFirst(positionKey);
+        if (index < 0) {
+            return null;
+        }
+        int nameIndex = buffer.getInt(entryOffset(index) + 12);
+        if (nameIndex == NO_NAME || nameIndex >= nameCount) {
+            return null;
+        }
+
+        int dataOffset = nameTableOffset + nameCount * Integer.BYTES;
+        int nameOffset = dataOffset + buffer.getInt(nameTableOffset + nameIndex * Integer.BYTES);
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort(nameOffset))];
+        buffer.get(nameOffset + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Binary search for the first entry with the given key.
+     *
+     * @return Entry index, or -1 if no entry has the key
+     */
+    private int findFirst(long positionKey) {
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keyAt(mid) < positionKey) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < entryCount && keyAt(low) == positionKey ? low : -1;
+    }
+
+    private long keyAt(int index) {
+        return buffer.getLong(entryOffset(index));
+    }
+
+    private static int entryOffset(int index) {
+        return HEADER_SIZE + index * ENTRY_SIZE;
+    }
+}
@@ -0,0 +1,258 @@
+package service.book;
+
+import entity.Board;
+import helper.Colour;
+import helper.InvalidMoveException;
+import helper.InvalidPositionException;
+import utility.Log;
+import utility.MoveCodec;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Offline tool that builds an opening book file from a PGN corpus.
+ *
+ * <p>Each game is replayed on a fresh {@link Board} for its first plies.
+ * For every position reached the builder records:
+ * <ul>
+ *   <li>The move played, weighted by how often it was played and won</li>
+ *   <li>The game's Opening (or ECO) tag, used to name the position when a
+ *       majority of the games through it agree</li>
+ * </ul>
+ *
+ * <p>Replay stops at the first move the board rejects, so games are only
+ * used as far as they agree with this project's move rules.
+ *
+ * <p>Usage: {@code OpeningBookBuilder <output> <pgn>... [--plies N]}
+ *
+ * @see OpeningBook
+ * @see PgnReader
+ * @version 1.0
+ */
+public class OpeningBookBuilder {
+
+    /** Logger tag for this class */
+    private static final String TAG = OpeningBookBuilder.class.getSimpleName();
+
+    /** Default number of plies of each game stored in the book */
+    public static final int DEFAULT_MAX_PLIES = 24;
+
+    /** Largest weight that fits the 16-bit weight field */
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    /** Number of plies of each game to record */
+    private final int maxPlies;
+
+    /** Move weights per position key, sorted by key */
+    private final TreeMap<Long, Map<Short, Integer>> weights = new TreeMap<>();
+
+    /** Opening name counts per position key */
+    private final Map<Long, Map<String, Integer>> names = new HashMap<>();
+
+    /** Number of games recorded per position key */
+    private final Map<Long, Integer> visits = new HashMap<>();
+
+    /** Games stopped early because a move could not be replayed */
+    private int truncatedGames;
+
+    /**
+     * Creates a builder recording the first plies of each game.
+     *
+     * @param maxPlies Number of plies per game to record
+     */
+    public OpeningBookBuilder(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Adds all games of a PGN source to the book.
+     *
+     * @param source PGN text
+     * @return Number of games read
+     * @throws IOException if the source cannot be read
+     */
+    public int addGames(Reader source) throws IOException {
+        PgnReader reader = new PgnReader(source);
+        int count = 0;
+        for (PgnReader.Game game = reader.next(); game != null; game = reader.next()) {
+            addGame(game);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Replays the opening of one game and records its positions.
+     *
+     * @param game Game read from PGN
+     */
+    public void addGame(PgnReader.Game game) {
+        String name = game.getTag("Opening") != null ? game.getTag("Opening") : game.getTag("ECO");
+        String result = game.getTag("Result");
+        Board board = new Board();
+
+        List<String> moves = game.getMoves();
+        for (int ply = 0; ply < Math.min(maxPlies, moves.size()); ply++) {
+            short move = SanParser.resolve(board, moves.get(ply));
+            if (move == SanParser.UNRESOLVED) {
+                truncatedGames++;
+                return;
+            }
+
+            long key = board.getPositionKey();
+            int weight = 1 + (isWinFor(board.getTurn(), result) ? 1 : 0);
+            weights.computeIfAbsent(key, k -> new LinkedHashMap<>()).merge(move, weight, Integer::sum);
+            visits.merge(key, 1, Integer::sum);
+            if (name != null) {
+                names.computeIfAbsent(key, k -> new HashMap<>()).merge(name, 1, Integer::sum);
+            }
+
+            try {
+                board.move(MoveCodec.from(move), MoveCodec.to(move));
+            } catch (InvalidMoveException | InvalidPositionException e) {
+                truncatedGames++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of games that could not be replayed to the end of the book depth.
+     *
+     * @return Number of truncated games
+     */
+    public int getTruncatedGames() {
+        return truncatedGames;
+    }
+
+    /**
+     * Writes the book file.
+     *
+     * @param output Destination file, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path output) throws IOException {
+        List<String> nameTable = new ArrayList<>();
+        Map<String, Integer> nameIndex = new HashMap<>();
+        int entryCount = weights.values().stream().mapToInt(Map::size).sum();
+
+        ByteBuffer entries = ByteBuffer.allocate(entryCount * OpeningBook.ENTRY_SIZE);
+        for (Map.Entry<Long, Map<Short, Integer>> position : weights.entrySet()) {
+            String name = majorityName(position.getKey());
+            int index = OpeningBook.NO_NAME;
+            if (name != null) {
+                index = nameIndex.computeIfAbsent(name, n -> {
+                    nameTable.add(n);
+                    return nameTable.size() - 1;
+                });
+            }
+            for (Map.Entry<Short, Integer> move : position.getValue().entrySet()) {
+                entries.putLong(position.getKey());
+                entries.putShort(move.getKey());
+                entries.putShort((short) Math.min(move.getValue(), MAX_WEIGHT));
+                entries.putInt(index);
+            }
+        }
+
+        ByteBuffer nameOffsets = ByteBuffer.allocate(nameTable.size() * Integer.BYTES);
+        List<byte[]> encodedNames = new ArrayList<>();
+        int nameDataSize = 0;
+        for (String name : nameTable) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            nameOffsets.putInt(nameDataSize);
+            encodedNames.add(bytes);
+            nameDataSize += Short.BYTES + bytes.length;
+        }
+        ByteBuffer nameData = ByteBuffer.allocate(nameDataSize);
+        for (byte[] bytes : encodedNames) {
+            nameData.putShort((short) bytes.length);
+            nameData.put(bytes);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(OpeningBook.HEADER_SIZE);
+        header.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putInt(entryCount).putInt(nameTable.size());
+
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] parts = {header.flip(), entries.flip(), nameOffsets.flip(), nameData.flip()};
+            long total = 0;
+            for (ByteBuffer part : parts) {
+                total += part.remaining();
+            }
+            long written = 0;
+            while (written < total) {
+                written += channel.write(parts);
+            }
+        }
+    }
+
+    /**
+     * Gets the name shared by more than half of the games through a position.
+     */
+    private String majorityName(long key) {
+        Map<String, Integer> counts = names.get(key);
+        if (counts == null) {
+            return null;
+        }
+        int total = visits.getOrDefault(key, 0);
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() * 2 > total) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isWinFor(Colour colour, String result) {
+        return colour == Colour.WHITE ? "1-0".equals(result) : "0-1".equals(result);
+    }
+
+    /**
+     * Builds a book file from PGN files.
+     *
+     * @param args Output file followed by PGN files, optionally {@code --plies N}
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        int plies = DEFAULT_MAX_PLIES;
+        List<Path> inputs = new ArrayList<>();
+        Path output = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--plies") && i + 1 < args.length) {
+                plies = Integer.parseInt(args[++i]);
+            } else if (output == null) {
+                output = Paths.get(args[i]);
+            } else {
+                inputs.add(Paths.get(args[i]));
+            }
+        }
+        if (output == null || inputs.isEmpty()) {
+            System.err.println("Usage: OpeningBookBuilder <output> <pgn>... [--plies N]");
+            System.exit(1);
+        }
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(plies);
+        int games = 0;
+        for (Path input : inputs) {
+            try (Reader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+                games += builder.addGames(reader);
+            }
+        }
+        builder.write(output);
+        Log.d(TAG, String.format("Wrote %s from %d games (%d truncated)", output, games, builder.getTruncatedGames()));
+    }
+}
@@ -0,0 +1,154 @@
+package service.book;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal streaming reader for games in Portable Game Notation.
+ *
+ * <p>Reads one game at a time from a PGN corpus, keeping only what the
+ * opening book needs:
+ * <ul>
+ *   <li>Tag pairs such as Opening, ECO and Result</li>
+ *   <li>The main line in Standard Algebraic Notation</li>
+ * </ul>
+ *
+ * <p>Comments, variations, numeric annotation glyphs, move numbers and
+ * result markers are skipped.
+ *
+ * @see OpeningBookBuilder
+ * @version 1.0
+ */
+public class PgnReader {
+
+    /** Pattern of a tag pair line, e.g. [Opening "Sicilian Defense"] */
+    private static final Pattern TAG = Pattern.compile("^\\[(\\w+)\\s+\"(.*)\"\\]$");
+
+    /** Pattern of a game result token */
+    private static final Pattern RESULT = Pattern.compile("1-0|0-1|1/2-1/2|\\*");
+
+    private final BufferedReader reader;
+
+    /** Tag line read ahead while finishing the previous game */
+    private String pendingLine;
+
+    /**
+     * A game read from a PGN file.
+     */
+    public static class Game {
+        private final Map<String, String> tags;
+        private final List<String> moves;
+
+        Game(Map<String, String> tags, List<String> moves) {
+            this.tags = tags;
+            this.moves = moves;
+        }
+
+        /**
+         * Gets a tag value.
+         *
+         * @param name Tag name (e.g., "Opening")
+         * @return Tag value, or null if absent
+         */
+        public String getTag(String name) {
+            return tags.get(name);
+        }
+
+        /**
+         * Gets the main line moves in Standard Algebraic Notation.
+         *
+         * @return List of SAN moves
+         */
+        public List<String> getMoves() {
+            return moves;
+        }
+    }
+
+    /**
+     * Creates a reader over a PGN stream.
+     *
+     * @param reader Source of PGN text
+     */
+    public PgnReader(Reader reader) {
+        this.reader = new BufferedReader(reader);
+    }
+
+    /**
+     * Reads the next game.
+     *
+     * @return Next game, or null at the end of the input
+     * @throws IOException if the input cannot be read
+     */
+    public Game next() throws IOException {
+        Map<String, String> tags = new HashMap<>();
+        StringBuilder moveText = new StringBuilder();
+
+        String line = pendingLine != null ? pendingLine : reader.readLine();
+        pendingLine = null;
+        while (line != null) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("[")) {
+                if (moveText.length() > 0) {
+                    pendingLine = line;
+                    break;
+                }
+                Matcher matcher = TAG.matcher(trimmed);
+                if (matcher.matches()) {
+                    tags.put(matcher.group(1), matcher.group(2));
+                }
+            } else if (!trimmed.startsWith("%")) {
+                moveText.append(stripLineComment(trimmed)).append(' ');
+            }
+            line = reader.readLine();
+        }
+
+        if (tags.isEmpty() && moveText.toString().isBlank()) {
+            return null;
+        }
+        return new Game(tags, parseMoves(moveText.toString()));
+    }
+
+    private static String stripLineComment(String line) {
+        int index = line.indexOf(';');
+        return index < 0 ? line : line.substring(0, index);
+    }
+
+    /**
+     * Extracts the main line SAN moves from movetext.
+     */
+    static List<String> parseMoves(String moveText) {
+        StringBuilder mainLine = new StringBuilder();
+        int variationDepth = 0;
+        boolean inComment = false;
+        for (char c : moveText.toCharArray()) {
+            if (inComment) {
+                inComment = c != '}';
+            } else if (c == '{') {
+                inComment = true;
+            } else if (c == '(') {
+                variationDepth++;
+            } else if (c == ')') {
+                variationDepth = Math.max(0, variationDepth - 1);
+            } else if (variationDepth == 0) {
+                mainLine.append(c);
+            }
+        }
+
+        List<String> moves = new ArrayList<>();
+        for (String token : mainLine.toString().split("\\s+")) {
+            String move = token.replaceFirst("^\\d+\\.+", "");
+            if (move.isEmpty() || move.startsWith("$") || RESULT.matcher(move).matches()) {
+                continue;
+            }
+            moves.add(move);
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,122 @@
+package service.book;
+
+import entity.BasePiece;
+import entity.Board;
+import helper.Colour;
+import helper.InvalidPositionException;
+import helper.PieceType;
+import helper.Position;
+import utility.MoveCodec;
+
+import java.util.Map;
+
+/**
+ * Resolves moves in Standard Algebraic Notation against a board.
+ *
+ * <p>SAN names only the moving piece type and the destination, so the start
+ * square is found by asking the board which of the side to move's pieces
+ * can legally reach the destination. Supported forms:
+ * <ul>
+ *   <li>Piece and pawn moves with optional capture marker and disambiguation</li>
+ *   <li>Castling (O-O and O-O-O)</li>
+ *   <li>Promotion to a Queen, the only promotion the board supports</li>
+ * </ul>
+ *
+ * @see PgnReader
+ * @see MoveCodec
+ * @version 1.0
+ */
+public class SanParser {
+
+    /** Returned when a move cannot be resolved */
+    public static final short UNRESOLVED = -1;
+
+    /**
+     * Resolves a SAN move for the side to move.
+     *
+     * @param board Board in the position before the move
+     * @param san Move in Standard Algebraic Notation (e.g., "Nbd7", "exd5", "O-O")
+     * @return Encoded move, or {@link #UNRESOLVED} if the move is ambiguous, illegal or unsupported
+     */
+    public static short resolve(Board board, String san) {
+        String move = san.replaceAll("[+#!?]", "");
+        try {
+            if (move.startsWith("O-O") || move.startsWith("0-0")) {
+                return resolveCastling(board, move.length() > 3);
+            }
+
+            int promotion = move.indexOf('=');
+            if (promotion >= 0) {
+                if (!move.substring(promotion + 1).equals("Q")) {
+                    return UNRESOLVED;
+                }
+                move = move.substring(0, promotion);
+            }
+            if (move.length() < 2) {
+                return UNRESOLVED;
+            }
+
+            PieceType type = typeOf(move.charAt(0));
+            String qualifier = move.substring(type == PieceType.PAWN ? 0 : 1, move.length() - 2).replace("x", "");
+            int end = MoveCodec.parseSquare(move.substring(move.length() - 2));
+            return resolvePieceMove(board, type, qualifier, end);
+        } catch (InvalidPositionException e) {
+            return UNRESOLVED;
+        }
+    }
+
+    private static short resolveCastling(Board board, boolean queenSide) throws InvalidPositionException {
+        Colour turn = board.getTurn();
+        int row = turn == Colour.WHITE ? 7 : 0;
+        Position king = Position.get(turn, row, 4);
+        Position end = Position.get(turn, row, queenSide ? 2 : 6);
+        return board.getPiece(king) != null && board.isLegalMove(king, end)
+            ? MoveCodec.encode(king, end) : UNRESOLVED;
+    }
+
+    private static short resolvePieceMove(Board board, PieceType type, String qualifier, int endSquare)
+            throws InvalidPositionException {
+        Colour turn = board.getTurn();
+        Position end = Position.get(turn, endSquare / 8, endSquare % 8);
+        short found = UNRESOLVED;
+
+        for (Map.Entry<Position, BasePiece> entry : board.getBoardMap().entrySet()) {
+            Position start = entry.getKey();
+            BasePiece piece = entry.getValue();
+            if (piece.getColour() != turn || piece.getType() != type || !matchesQualifier(start, qualifier)) {
+                continue;
+            }
+            if (board.isLegalMove(start, end)) {
+                if (found != UNRESOLVED) {
+                    return UNRESOLVED;
+                }
+                found = MoveCodec.encode(start, end);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Checks a start position against SAN disambiguation (file, rank or both).
+     */
+    private static boolean matchesQualifier(Position start, String qualifier) {
+        for (char c : qualifier.toCharArray()) {
+            if (c >= 'a' && c <= 'h' && start.getColumn() != c - 'a') {
+                return false;
+            }
+            if (c >= '1' && c <= '8' && start.getRow() != 8 - (c - '0')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static PieceType typeOf(char letter) {
+        for (PieceType type : PieceType.values()) {
+            if (type != PieceType.PAWN && type.getSymbol() == letter) {
+                return type;
+            }
+        }
+        return PieceType.PAWN;
+    }
+}
@@ -0,0 +1,234 @@
+package service.journal;
+
+import entity.Board;
+import entity.BoardSnapshot;
+import helper.InvalidMoveException;
+import helper.InvalidPositionException;
+import utility.Log;
+import utility.MoveCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Event-sourced game persistence: move events plus periodic snapshots.
+ *
+ * <p>Every accepted move is an event in the {@link MoveJournal}. Every
+ * {@code snapshotInterval} plies the board is also saved as a fixed-size
+ * {@link BoardSnapshot}. A game is loaded by decoding its latest snapshot
+ * and replaying only the events after it, so loading costs at most one
+ * snapshot decode and {@code snapshotInterval - 1} moves however long the
+ * game is.
+ *
+ * <p>A snapshot is only written once the journal has committed the moves
+ * it holds. A snapshot ahead of the journal would survive a crash that
+ * lost those moves, and the moves journaled after it would then be
+ * dropped as out of order on the next recovery.
+ *
+ * @see MoveJournal
+ * @see SnapshotStore
+ * @version 1.0
+ */
+public class GameStore implements Closeable {
+
+    /** Logger tag for this class */
+    private static final String TAG = GameStore.class.getSimpleName();
+
+    /** Default number of plies between snapshots */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 32;
+
+    private final MoveJournal journal;
+    private final SnapshotStore snapshots;
+    private final int snapshotInterval;
+
+    /**
+     * Creates a store over a journal and a snapshot file.
+     *
+     * @param journal Journal of move events, owned by the caller
+     * @param snapshots Snapshot file, closed with this store
+     * @param snapshotInterval Plies between snapshots
+     */
+    public GameStore(MoveJournal journal, SnapshotStore snapshots, int snapshotInterval) {
+        this.journal = journal;
+        this.snapshots = snapshots;
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+    }
+
+    /**
+     * Records an accepted move, snapshotting the board when it reaches the interval.
+     *
+     * @param gameId Game id
+     * @param ply Ply of the move
+     * @param move Encoded move
+     * @param board Board after the move
+     * @return Future completed when the move is as durable as the journal is configured
+     */
+    public CompletableFuture<Void> recordMove(int gameId, int ply, short move, Board board) {
+        CompletableFuture<Void> commit = journal.append(gameId, ply, move);
+        if (board.getPly() % snapshotInterval == 0) {
+            try {
+                save(gameId, BoardSnapshot.encode(board));
+            } catch (IOException e) {
+                Log.e(TAG, String.format("Could not snapshot game %d: %s", gameId, e.getMessage()));
+            }
+        }
+        return commit;
+    }
+
+    /**
+     * Records that moves were taken back, to the board's current ply.
+     *
+     * <p>The board is snapshotted first, so the latest snapshot never holds
+     * a position the journal has dropped.
+     *
+     * @param gameId Game id
+     * @param board Board after the takeback
+     * @return Future completed when the takeback is as durable as the journal is configured
+     */
+    public CompletableFuture<Void> recordTakeback(int gameId, Board board) {
+        try {
+            checkpoint(gameId, board);
+        } catch (IOException e) {
+            Log.e(TAG, String.format("Could not snapshot game %d: %s", gameId, e.getMessage()));
+        }
+        return journal.append(gameId, board.getPly(), MoveJournal.TAKEBACK);
+    }
+
+    /**
+     * Snapshots a game's board outside the regular interval, so that the
+     * game can later be reloaded from the snapshot alone. Nothing is
+     * written if the latest snapshot already holds the same state.
+     *
+     * @param gameId Game id
+     * @param board Current board of the game
+     * @throws IOException if the snapshot cannot be written
+     * @see #reload(int)
+     */
+    public void checkpoint(int gameId, Board board) throws IOException {
+        byte[] snapshot = BoardSnapshot.encode(board);
+        if (!Arrays.equals(snapshot, snapshots.latest(gameId))) {
+            save(gameId, snapshot);
+        }
+    }
+
+    /**
+     * Saves a snapshot once the journal has committed every move it holds.
+     *
+     * @param gameId Game id
+     * @param snapshot Encoded board
+     * @throws IOException if the journal cannot commit or the snapshot cannot be written
+     */
+    private void save(int gameId, byte[] snapshot) throws IOException {
+        try {
+            journal.flush().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+        snapshots.save(gameId, snapshot);
+    }
+
+    /**
+     * Reloads a checkpointed game from its latest snapshot without reading
+     * the journal.
+     *
+     * @param gameId Game id
+     * @return Board of the game, or null if the game has no snapshot
+     */
+    public Board reload(int gameId) {
+        byte[] snapshot = snapshots.latest(gameId);
+        return snapshot == null ? null : BoardSnapshot.decode(snapshot);
+    }
+
+    /**
+     * Gets the durability of recorded moves.
+     *
+     * @return Journal durability
+     */
+    public MoveJournal.Durability getDurability() {
+        return journal.getDurability();
+    }
+
+    /**
+     * Loads every stored game.
+     *
+     * <p>Games are independent, so each is loaded on its own board in parallel.
+     *
+     * @return Boards per game id
+     * @throws IOException if the journal cannot be read
+     */
+    public Map<Integer, Board> recoverGames() throws IOException {
+        Map<Integer, List<Short>> events = journal.readGames();
+        Set<Integer> ids = new HashSet<>(events.keySet());
+        ids.addAll(snapshots.gameIds());
+
+        Map<Integer, Board> boards = new ConcurrentHashMap<>();
+        ids.parallelStream().forEach(id ->
+            boards.put(id, load(id, events.getOrDefault(id, Collections.emptyList()))));
+        Log.d(TAG, String.format("Recovered %d games", boards.size()));
+        return boards;
+    }
+
+    /**
+     * Reads the moves of every stored game, without those taken back.
+     *
+     * @return Encoded moves in ply order per game id
+     * @throws IOException if the journal cannot be read
+     */
+    public Map<Integer, List<Short>> readMoves() throws IOException {
+        return journal.readGames();
+    }
+
+    /**
+     * Rebuilds one game from its latest snapshot and the events after it.
+     *
+     * @param gameId Game id
+     * @param events All journaled moves of the game, in ply order
+     * @return Board of the game
+     */
+    Board load(int gameId, List<Short> events) {
+        byte[] snapshot = snapshots.latest(gameId);
+        Board board;
+        int from = 0;
+        if (snapshot != null) {
+            board = BoardSnapshot.decode(snapshot);
+            from = Math.min(BoardSnapshot.ply(snapshot), events.size());
+            if (BoardSnapshot.ply(snapshot) > events.size()) {
+                Log.e(TAG, String.format("Game %d: journal ends at ply %d before its snapshot at ply %d",
+                    gameId, events.size(), BoardSnapshot.ply(snapshot)));
+                return board;
+            }
+        } else {
+            board = new Board();
+        }
+
+        for (short move : events.subList(from, events.size())) {
+            try {
+                board.move(MoveCodec.from(move), MoveCodec.to(move));
+            } catch (InvalidMoveException | InvalidPositionException e) {
+                Log.e(TAG, String.format("Game %d: cannot replay %s at ply %d", gameId,
+                    MoveCodec.toNotation(move), board.getPly()));
+                break;
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Closes the snapshot file; the journal is closed by its owner.
+     *
+     * @throws IOException if the snapshots cannot be forced to disk
+     */
+    @Override
+    public void close() throws IOException {
+        snapshots.close();
+    }
+}
@@ -0,0 +1,327 @@
+package service.journal;
+
+import utility.Log;
+import utility.MoveCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of the moves accepted by every game.
+ *
+ * <p>Each move is one fixed-size record appended to a single file through a
+ * {@link FileChannel}:
+ * <ul>
+ *   <li>Game id (int)</li>
+ *   <li>Ply of the move within its game (short)</li>
+ *   <li>Encoded move (short, see {@link MoveCodec})</li>
+ *   <li>CRC32 of the fields above (int)</li>
+ * </ul>
+ *
+ * <p>Appends only copy the record into a shared buffer. A single commit
+ * thread writes the buffer and forces it to disk, so all moves of all games
+ * that arrive during one fsync share the next one (group commit). How long
+ * an append waits is set by its {@link Durability}.
+ *
+ * <p>A record with the {@link #TAKEBACK} move takes a game back to the
+ * record's ply: the game's moves from that ply on are dropped when read.
+ *
+ * <p>On open, records after the last one with a valid checksum (a torn write
+ * from a crash) are truncated.
+ *
+ * @see Durability
+ * @see GameStore
+ * @version 1.0
+ */
+public class MoveJournal implements Closeable {
+
+    /** Logger tag for this class */
+    private static final String TAG = MoveJournal.class.getSimpleName();
+
+    /** Size of one record in bytes */
+    static final int RECORD_SIZE = 12;
+
+    /** Size of the checksummed part of a record */
+    private static final int PAYLOAD_SIZE = 8;
+
+    /** Move of a record that takes its game back to the record's ply; h1-h1 is never a move */
+    public static final short TAKEBACK = -1;
+
+    /**
+     * How far a move must have reached before its append completes.
+     */
+    public enum Durability {
+        /** Written to the file by the commit thread, never forced; survives a process crash only */
+        NONE,
+        /** Forced to disk by the next group commit; appends never wait */
+        BATCHED,
+        /** Forced to disk by the next group commit; appends wait for it */
+        SYNC
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Durability durability;
+    private final long commitIntervalMillis;
+
+    /** Guards the pending buffer and commit */
+    private final Object lock = new Object();
+
+    /** Records waiting for the next commit */
+    private ByteBuffer pending = ByteBuffer.allocate(256 * RECORD_SIZE);
+
+    /** Completed when the pending records are committed */
+    private CompletableFuture<Void> pendingCommit = new CompletableFuture<>();
+
+    /** Whether a SYNC append is waiting for the commit thread */
+    private boolean commitRequested;
+
+    private volatile boolean closed;
+
+    private final Thread committer;
+
+    /**
+     * Opens a journal file, creating it if needed and truncating a torn tail.
+     *
+     * @param path Journal file
+     * @param durability Durability of appended moves
+     * @param commitIntervalMillis Longest time records wait for a group commit
+     * @throws IOException if the file cannot be opened
+     */
+    public MoveJournal(Path path, Durability durability, long commitIntervalMillis) throws IOException {
+        this.path = path;
+        this.durability = durability;
+        this.commitIntervalMillis = Math.max(1, commitIntervalMillis);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+
+        long valid = validLength();
+        if (valid < channel.size()) {
+            Log.e(TAG, String.format("Truncating torn journal tail at %d of %d bytes", valid, channel.size()));
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+
+        this.committer = new Thread(this::commitLoop, "move-journal-commit");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /**
+     * Appends an accepted move.
+     *
+     * @param gameId Game the move was played in
+     * @param ply Ply of the move, starting at 0
+     * @param move Encoded move
+     * @return Future completed when the move is as durable as configured
+     */
+    public CompletableFuture<Void> append(int gameId, int ply, short move) {
+        CompletableFuture<Void> commit;
+        synchronized (lock) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IOException("Journal is closed"));
+            }
+            if (pending.remaining() < RECORD_SIZE) {
+                ByteBuffer larger = ByteBuffer.allocate(pending.capacity() * 2);
+                pending.flip();
+                larger.put(pending);
+                pending = larger;
+            }
+            ByteBuffer record = ByteBuffer.allocate(PAYLOAD_SIZE);
+            record.putInt(gameId).putShort((short) ply).putShort(move);
+            pending.put(record.array()).putInt(checksum(record.array()));
+            commit = pendingCommit;
+            if (durability == Durability.SYNC && !commitRequested) {
+                commitRequested = true;
+                lock.notifyAll();
+            }
+        }
+        return durability == Durability.SYNC ? commit : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Commits the records appended so far without waiting for the interval.
+     *
+     * <p>The records are written to the file, and forced to disk unless
+     * the durability is NONE, when the returned future completes.
+     *
+     * @return Future completed when every record appended before the call is committed
+     */
+    public CompletableFuture<Void> flush() {
+        synchronized (lock) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IOException("Journal is closed"));
+            }
+            if (!commitRequested) {
+                commitRequested = true;
+                lock.notifyAll();
+            }
+            return pendingCommit;
+        }
+    }
+
+    /**
+     * Gets the configured durability.
+     *
+     * @return Durability of appended moves
+     */
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Reads every record and groups the moves by game, in journal order,
+     * without the moves that were taken back.
+     *
+     * @return Encoded moves per game id
+     * @throws IOException if the file cannot be read
+     */
+    public Map<Integer, List<Short>> readGames() throws IOException {
+        Map<Integer, List<Short>> games = new LinkedHashMap<>();
+        Map<Integer, Integer> nextPly = new LinkedHashMap<>();
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 4096);
+        long position = 0;
+        long end = channel.size() - channel.size() % RECORD_SIZE;
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            while (buffer.hasRemaining()) {
+                channel.read(buffer, position + buffer.position());
+            }
+            buffer.flip();
+            while (buffer.remaining() >= RECORD_SIZE) {
+                int gameId = buffer.getInt();
+                int ply = Short.toUnsignedInt(buffer.getShort());
+                short move = buffer.getShort();
+                buffer.getInt();
+                int expected = nextPly.getOrDefault(gameId, 0);
+                if (move == TAKEBACK && ply <= expected) {
+                    List<Short> moves = games.computeIfAbsent(gameId, id -> new ArrayList<>());
+                    moves.subList(ply, moves.size()).clear();
+                    nextPly.put(gameId, ply);
+                } else if (ply == expected) {
+                    games.computeIfAbsent(gameId, id -> new ArrayList<>()).add(move);
+                    nextPly.put(gameId, expected + 1);
+                } else {
+                    Log.e(TAG, String.format("Skipping out-of-order record: game %d ply %d, expected %d",
+                        gameId, ply, expected));
+                }
+            }
+            position += buffer.limit();
+        }
+        return games;
+    }
+
+    /**
+     * Commits outstanding records and closes the file.
+     *
+     * @throws IOException if the final commit fails
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    /**
+     * Commit thread: waits for the interval or a SYNC append, then writes and
+     * forces everything appended so far in one batch.
+     */
+    private void commitLoop() {
+        boolean running = true;
+        while (running) {
+            ByteBuffer batch;
+            CompletableFuture<Void> commit;
+            synchronized (lock) {
+                if (!closed && !commitRequested) {
+                    try {
+                        lock.wait(commitIntervalMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        closed = true;
+                    }
+                }
+                running = !closed;
+                batch = pending;
+                commit = pendingCommit;
+                pending = ByteBuffer.allocate(batch.capacity());
+                pendingCommit = new CompletableFuture<>();
+                commitRequested = false;
+            }
+            commit(batch.flip(), commit);
+        }
+    }
+
+    private void commit(ByteBuffer batch, CompletableFuture<Void> commit) {
+        if (!batch.hasRemaining()) {
+            commit.complete(null);
+            return;
+        }
+        try {
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            if (durability != Durability.NONE) {
+                channel.force(false);
+            }
+            commit.complete(null);
+        } catch (IOException e) {
+            Log.e(TAG, "Journal commit failed: " + e.getMessage());
+            commit.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Gets the length of the journal up to the last record with a valid checksum.
+     */
+    private long validLength() throws IOException {
+        long size = channel.size() - channel.size() % RECORD_SIZE;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        byte[] payload = new byte[PAYLOAD_SIZE];
+        for (long position = 0; position < size; position += RECORD_SIZE) {
+            record.clear();
+            while (record.hasRemaining()) {
+                if (channel.read(record, position + record.position()) < 0) {
+                    return position;
+                }
+            }
+            record.flip();
+            record.get(payload);
+            if (record.getInt() != checksum(payload)) {
+                return position;
+            }
+        }
+        return size;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
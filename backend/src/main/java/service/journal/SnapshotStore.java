@@ -0,0 +1,145 @@
+package service.journal;
+
+import entity.BoardSnapshot;
+import utility.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of periodic board snapshots.
+ *
+ * <p>Each record is a game id (int), a {@link BoardSnapshot} and a CRC32 of
+ * both. The latest snapshot of every game is indexed in memory when the
+ * file is opened, so finding a game's starting point never reads the file.
+ * The last snapshot written for a game is its latest, even at a lower ply
+ * than an earlier one, so a checkpoint after a takeback replaces the
+ * positions taken back.
+ *
+ * <p>Snapshots can always be rebuilt from the move journal, so they are
+ * written without fsync and only forced on close. A torn tail is truncated
+ * on open, like the journal's.
+ *
+ * @see GameStore
+ * @version 1.0
+ */
+public class SnapshotStore implements Closeable {
+
+    /** Logger tag for this class */
+    private static final String TAG = SnapshotStore.class.getSimpleName();
+
+    /** Size of one record in bytes */
+    static final int RECORD_SIZE = Integer.BYTES + BoardSnapshot.SIZE + Integer.BYTES;
+
+    private final FileChannel channel;
+
+    /** Last written snapshot per game id */
+    private final Map<Integer, byte[]> latest = new ConcurrentHashMap<>();
+
+    /**
+     * Opens a snapshot file, creating it if needed, and indexes its records.
+     *
+     * @param path Snapshot file
+     * @throws IOException if the file cannot be opened
+     */
+    public SnapshotStore(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+
+        long position = 0;
+        long size = channel.size();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        while (position + RECORD_SIZE <= size) {
+            record.clear();
+            while (record.hasRemaining()) {
+                channel.read(record, position + record.position());
+            }
+            if (record.getInt(RECORD_SIZE - Integer.BYTES) != checksum(record.array())) {
+                break;
+            }
+            byte[] snapshot = new byte[BoardSnapshot.SIZE];
+            record.get(Integer.BYTES, snapshot);
+            index(record.getInt(0), snapshot);
+            position += RECORD_SIZE;
+        }
+        if (position < size) {
+            Log.e(TAG, String.format("Truncating torn snapshot tail at %d of %d bytes", position, size));
+            channel.truncate(position);
+        }
+        channel.position(position);
+    }
+
+    /**
+     * Appends a snapshot of a game.
+     *
+     * @param gameId Game id
+     * @param snapshot Encoded board
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void save(int gameId, byte[] snapshot) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putInt(gameId).put(snapshot).putInt(checksum(record.array()));
+        record.flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        index(gameId, snapshot);
+    }
+
+    /**
+     * Gets the last snapshot written for a game.
+     *
+     * @param gameId Game id
+     * @return Encoded board, or null if the game has no snapshot
+     */
+    public byte[] latest(int gameId) {
+        return latest.get(gameId);
+    }
+
+    /**
+     * Gets the ids of all games with a snapshot.
+     *
+     * @return Game ids
+     */
+    public Set<Integer> gameIds() {
+        return latest.keySet();
+    }
+
+    /**
+     * Forces the snapshots to disk and closes the file.
+     *
+     * @throws IOException if the file cannot be forced or closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private void index(int gameId, byte[] snapshot) {
+        latest.put(gameId, snapshot);
+    }
+
+    /**
+     * Computes the checksum of a record's id and snapshot.
+     */
+    private static int checksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, RECORD_SIZE - Integer.BYTES);
+        return (int) crc.getValue();
+    }
+}
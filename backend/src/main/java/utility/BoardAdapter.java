@@ -1,11 +1,13 @@
 package utility;
 
 import helper.Colour;
+import helper.Evaluation;
 import helper.InvalidPositionException;
 import helper.Position;
 import helper.GameState;
 import entity.BasePiece;
 import entity.Board;
+import entity.ImmutableBoard;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -45,29 +47,77 @@ public class BoardAdapter {
      * <ul>
      *   <li>Board layout conversion</li>
      *   <li>Possible moves calculation</li>
+     *   <li>Legal moves of the side to move</li>
      *   <li>Game status tracking</li>
      *   <li>Eliminated pieces tracking</li>
      * </ul>
      * 
+     * <p>The state is built from the board's latest published version.
+     * 
      * @param board The current game board
      * @return GameState object for web interface
      */
     public static GameState convertModelBoardToGameState(Board board) {
+        return convertModelBoardToGameState(board.snapshot());
+    }
+
+    /**
+     * Converts a published board version to web interface game state.
+     * 
+     * <p>Reads nothing but the immutable version, so it can run on any
+     * thread while the board moves on.
+     * 
+     * @param board Published version of a game board
+     * @return GameState object for web interface
+     * @see Board#snapshot()
+     */
+    public static GameState convertModelBoardToGameState(ImmutableBoard board) {
         GameState gameState = new GameState();
 
-        Map<String, String> viewBoard = convertModelBoardToViewBoard(board.getBoardMap());
-        gameState.setBoard(viewBoard);
+        gameState.setBoard(board.getWebViewBoard());
 
         gameState.setPossibleMoves(Collections.emptyList());
+        gameState.setLegalMoves(board.isGameOver()
+            ? Collections.emptyMap()
+            : convertLegalMovesToViewBoard(board.getLegalMoves()));
         gameState.setGameOver(board.isGameOver(), board.getWinner());
+        gameState.setEvaluation(board.getEvaluation());
+        gameState.setDrawReason(board.getDrawReason());
+        gameState.setHalfmoveClock(board.getHalfmoveClock());
+        gameState.setRepetitionCount(board.getRepetitionCount());
+        gameState.setVersion(board.getVersion());
 
-        Map<String, List<String>> eliminatedPieces = board.getEliminatedPieces();
-        gameState.setEliminatedWhitePieces(eliminatedPieces.getOrDefault("white", Collections.emptyList()));
-        gameState.setEliminatedBlackPieces(eliminatedPieces.getOrDefault("black", Collections.emptyList()));
+        gameState.setEliminatedWhitePieces(convertPiecesToView(board.getEliminated(Colour.WHITE)));
+        gameState.setEliminatedBlackPieces(convertPiecesToView(board.getEliminated(Colour.BLACK)));
 
         return gameState;
     }
 
+    /**
+     * Converts the board's incremental evaluation to a web interface summary.
+     * 
+     * @param board The current game board
+     * @return Evaluation summary for web interface
+     */
+    public static Evaluation convertModelBoardToEvaluation(Board board) {
+        return convertModelBoardToEvaluation(board.snapshot());
+    }
+
+    /**
+     * Converts the evaluation of a published board version to a web
+     * interface summary.
+     * 
+     * @param board Published version of a game board
+     * @return Evaluation summary for web interface
+     */
+    public static Evaluation convertModelBoardToEvaluation(ImmutableBoard board) {
+        return new Evaluation(
+            board.getEvaluation(),
+            board.getMaterial(Colour.WHITE),
+            board.getMaterial(Colour.BLACK),
+            board.getGamePhase());
+    }
+
     /**
      * Converts internal board map to web interface format.
      * 
@@ -103,6 +153,20 @@ public class BoardAdapter {
         return viewBoard;
     }
 
+    /**
+     * Converts pieces to their web interface representations.
+     * 
+     * @param pieces Pieces, such as the eliminated pieces of one colour
+     * @return Piece representations in the same order
+     */
+    public static List<String> convertPiecesToView(List<BasePiece> pieces) {
+        List<String> view = new ArrayList<>(pieces.size());
+        for (BasePiece piece : pieces) {
+            view.add(piece.toString());
+        }
+        return view;
+    }
+
     /**
      * Converts a set of positions to web interface square notation.
      * 
@@ -131,6 +195,26 @@ public class BoardAdapter {
         return moves;
     }
 
+    /**
+     * Converts the legal moves of a board to web interface square notation.
+     * 
+     * <p>The board generates its legal moves once per position, so repeated
+     * state requests between moves only pay for this conversion.
+     * 
+     * @param legalMoves Legal target positions by start position
+     * @return Target squares by start square, in algebraic notation
+     * @see Board#getLegalMoves()
+     */
+    public static Map<String, List<String>> convertLegalMovesToViewBoard(Map<Position, Set<Position>> legalMoves) {
+        Map<String, List<String>> moves = new HashMap<>();
+        for (Map.Entry<Position, Set<Position>> entry : legalMoves.entrySet()) {
+            Position start = entry.getKey();
+            String startSquare = String.format("%c%d", (char)('a' + start.getColumn()), 8 - start.getRow());
+            moves.put(startSquare, convertHighlightSquaresToViewBoard(entry.getValue()));
+        }
+        return moves;
+    }
+
     /**
      * Converts algebraic notation to internal position.
      * 
@@ -0,0 +1,90 @@
+package utility;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utility class holding the meters of the game hot paths.
+ *
+ * <p>Meters are registered on Micrometer's global registry, which Spring
+ * Boot's actuator joins with its own registry, so they are exported with
+ * the application metrics without wiring. Without a registry they are
+ * no-ops.
+ *
+ * <p>Timers publish the median, 99th and 99.9th percentiles:
+ * <ul>
+ *   <li>{@code chess.board.move} - executing a move played through the game service; moves
+ *       replayed while loading games or rebuilding positions are not timed</li>
+ *   <li>{@code chess.board.possible.moves} - generating the moves of a piece</li>
+ *   <li>{@code chess.board.game.end} - checkmate and stalemate detection after a move</li>
+ *   <li>{@code chess.game.click} - handling a click from the web interface</li>
+ * </ul>
+ *
+ * <p>Counters:
+ * <ul>
+ *   <li>{@code chess.moves.illegal} - rejected move attempts</li>
+ *   <li>{@code chess.games.started} / {@code chess.games.ended} - game lifecycle</li>
+ *   <li>{@code <name>.computed} / {@code <name>.coalesced} - reads computed and
+ *       reads that shared a concurrent computation, see {@link #bindSingleFlight}</li>
+ * </ul>
+ *
+ * @version 1.0
+ */
+public final class GameMetrics {
+
+    public static final Timer MOVE = timer("chess.board.move", "Time to execute a move on the board");
+    public static final Timer POSSIBLE_MOVES = timer("chess.board.possible.moves",
+        "Time to generate the legal moves of a piece");
+    public static final Timer GAME_END = timer("chess.board.game.end", "Time to detect checkmate or stalemate after a move");
+    public static final Timer CLICK = timer("chess.game.click", "Time to handle a click from the web interface");
+
+    public static final Counter ILLEGAL_MOVES = counter("chess.moves.illegal", "Rejected move attempts");
+    public static final Counter GAMES_STARTED = counter("chess.games.started", "Games started");
+    public static final Counter GAMES_ENDED = counter("chess.games.ended", "Games ended by checkmate or draw");
+
+    private GameMetrics() {
+    }
+
+    /**
+     * Records the time elapsed since a start time taken with {@link System#nanoTime()}.
+     *
+     * @param timer Timer to record in
+     * @param startNanos Start time
+     */
+    public static void recordSince(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Publishes how often a single-flight computation ran and how often
+     * concurrent callers shared it.
+     *
+     * @param name Meter name prefix
+     * @param flight Coalesced computation to observe
+     */
+    public static void bindSingleFlight(String name, SingleFlight<?, ?> flight) {
+        FunctionCounter.builder(name + ".computed", flight, SingleFlight::computedCount)
+            .description("Reads computed")
+            .register(Metrics.globalRegistry);
+        FunctionCounter.builder(name + ".coalesced", flight, SingleFlight::coalescedCount)
+            .description("Reads served by a concurrent identical read")
+            .register(Metrics.globalRegistry);
+    }
+
+    private static Timer timer(String name, String description) {
+        return Timer.builder(name)
+            .description(description)
+            .publishPercentiles(0.5, 0.99, 0.999)
+            .register(Metrics.globalRegistry);
+    }
+
+    private static Counter counter(String name, String description) {
+        return Counter.builder(name)
+            .description(description)
+            .register(Metrics.globalRegistry);
+    }
+}
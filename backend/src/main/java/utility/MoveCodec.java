@@ -0,0 +1,124 @@
+package utility;
+
+import helper.InvalidPositionException;
+import helper.Position;
+
+/**
+ * Utility class for encoding moves into compact integer form.
+ * 
+ * <p>A move is stored in 16 bits using physical square indices
+ * (row * 8 + column), which are shared by both colour spaces:
+ * <ul>
+ *   <li>Bits 0-5: start square</li>
+ *   <li>Bits 6-11: end square</li>
+ *   <li>Bits 12-15: reserved (promotion is always to a Queen)</li>
+ * </ul>
+ * 
+ * <p>The compact form is used wherever moves are stored in bulk, such as
+ * opening books and game records. Squares are written in standard algebraic
+ * notation, with row 0 being the eighth rank.
+ * 
+ * @see Position#getSquare()
+ * @version 1.0
+ */
+public class MoveCodec {
+
+    /** Mask selecting a 6-bit square index */
+    private static final int SQUARE_MASK = 0x3F;
+
+    /**
+     * Encodes a move between two physical squares.
+     * 
+     * @param from Start square (0-63)
+     * @param to End square (0-63)
+     * @return Encoded move
+     */
+    public static short encode(int from, int to) {
+        return (short) ((from & SQUARE_MASK) | (to & SQUARE_MASK) << 6);
+    }
+
+    /**
+     * Encodes a move between two positions, ignoring their colour spaces.
+     * 
+     * @param start Start position
+     * @param end End position
+     * @return Encoded move
+     */
+    public static short encode(Position start, Position end) {
+        return encode(start.getSquare(), end.getSquare());
+    }
+
+    /**
+     * Gets the start square of an encoded move.
+     * 
+     * @param move Encoded move
+     * @return Start square (0-63)
+     */
+    public static int from(short move) {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * Gets the end square of an encoded move.
+     * 
+     * @param move Encoded move
+     * @return End square (0-63)
+     */
+    public static int to(short move) {
+        return (move >>> 6) & SQUARE_MASK;
+    }
+
+    /**
+     * Converts a physical square to algebraic notation.
+     * 
+     * @param square Square index (0-63)
+     * @return Square name (e.g., "e4")
+     */
+    public static String squareName(int square) {
+        return String.format("%c%d", (char) ('a' + square % 8), 8 - square / 8);
+    }
+
+    /**
+     * Converts algebraic notation to a physical square.
+     * 
+     * @param name Square name (e.g., "e4")
+     * @return Square index (0-63)
+     * @throws InvalidPositionException if the notation is invalid
+     */
+    public static int parseSquare(String name) throws InvalidPositionException {
+        if (name == null || name.length() != 2) {
+            throw new InvalidPositionException("Invalid String position: " + name);
+        }
+        int column = Character.toLowerCase(name.charAt(0)) - 'a';
+        int row = 8 - (name.charAt(1) - '0');
+        if (column < 0 || column > 7 || row < 0 || row > 7) {
+            throw new InvalidPositionException("Invalid String position: " + name);
+        }
+        return row * 8 + column;
+    }
+
+    /**
+     * Converts an encoded move to "start-end" notation (e.g., "e2-e4").
+     * 
+     * @param move Encoded move
+     * @return Move in the format accepted by move commands
+     */
+    public static String toNotation(short move) {
+        return squareName(from(move)) + "-" + squareName(to(move));
+    }
+
+    /**
+     * Parses a move in "start-end" notation.
+     * 
+     * @param notation Move such as "e2-e4"
+     * @return Encoded move
+     * @throws InvalidPositionException if the notation is invalid
+     */
+    public static short fromNotation(String notation) throws InvalidPositionException {
+        String[] squares = notation == null ? new String[0] : notation.split("-");
+        if (squares.length != 2) {
+            throw new InvalidPositionException("Invalid move notation: " + notation);
+        }
+        return encode(parseSquare(squares[0]), parseSquare(squares[1]));
+    }
+}
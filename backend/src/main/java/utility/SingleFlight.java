@@ -0,0 +1,84 @@
+package utility;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent computations of the same key into one.
+ *
+ * <p>The first caller for a key runs the computation; callers arriving
+ * while it is in flight wait for it and share its result instead of
+ * computing their own. Nothing is cached: once the computation completes
+ * the key is released and the next caller computes again, so callers must
+ * put everything the result depends on into the key.
+ *
+ * @param <K> Key type, with value equality
+ * @param <V> Result type, shared between callers and so best immutable
+ * @version 1.0
+ */
+public final class SingleFlight<K, V> {
+
+    /** Computations in flight by key */
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /** Computations run */
+    private final AtomicLong computed = new AtomicLong();
+
+    /** Calls served by another caller's computation */
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Gets the result for a key, joining a computation already in flight.
+     *
+     * @param key Key identifying the result
+     * @param computation Computes the result if none is in flight
+     * @return Result of the computation
+     * @throws RuntimeException thrown by the computation, in every caller sharing it
+     */
+    public V get(K key, Supplier<V> computation) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        computed.incrementAndGet();
+        try {
+            V result = computation.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Gets the number of computations run.
+     *
+     * @return Calls that ran the computation themselves
+     */
+    public long computedCount() {
+        return computed.get();
+    }
+
+    /**
+     * Gets the number of calls that shared another caller's computation.
+     *
+     * @return Calls served without computing
+     */
+    public long coalescedCount() {
+        return coalesced.get();
+    }
+}
@@ -0,0 +1,50 @@
+package utility;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Utility class creating executors that run each task on a virtual thread.
+ *
+ * <p>The project compiles for Java 17, where virtual threads do not exist,
+ * so the JDK 21 API ({@code Thread.ofVirtual()} and
+ * {@code Executors.newThreadPerTaskExecutor}) is looked up reflectively.
+ * On an older JDK, or one where virtual threads are still a preview
+ * feature that is not enabled, no executor is returned and callers keep
+ * their platform-thread pools.
+ *
+ * @version 1.0
+ */
+public final class VirtualThreads {
+
+    private static final String TAG = VirtualThreads.class.getSimpleName();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread for every task.
+     *
+     * @param namePrefix Prefix of the thread names, followed by a counter
+     * @return Executor, or empty if the JDK does not support virtual threads
+     */
+    public static Optional<ExecutorService> newPerTaskExecutor(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return Optional.of((ExecutorService) Executors.class
+                .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                .invoke(null, factory));
+        } catch (InvocationTargetException e) {
+            Log.e(TAG, "Virtual threads unavailable: " + e.getCause());
+        } catch (ReflectiveOperationException e) {
+            Log.d(TAG, "Virtual threads not supported by this JDK: " + e);
+        }
+        return Optional.empty();
+    }
+}
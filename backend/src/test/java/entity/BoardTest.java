@@ -1,13 +1,17 @@
 package entity;
 
 import helper.Colour;
+import helper.DrawReason;
 import helper.InvalidMoveException;
 import helper.InvalidPositionException;
 import helper.Position;
+import helper.TerminalState;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -69,4 +73,330 @@ class BoardTest {
         assertFalse(possibleMoves.isEmpty());
     }
 
+
+    @Test
+    void move_knightsShuffleBackTwice_drawnByThreefoldRepetition() throws InvalidPositionException, InvalidMoveException {
+        int[][] shuffle = {{62, 45}, {6, 21}, {45, 62}, {21, 6}};
+        for (int round = 0; round < 2; round++) {
+            for (int[] move : shuffle) {
+                assertFalse(board.isGameOver());
+                board.move(move[0], move[1]);
+            }
+            assertEquals(round + 2, board.getRepetitionCount());
+        }
+        assertTrue(board.isGameOver());
+        assertNull(board.getWinner());
+        assertEquals(DrawReason.THREEFOLD_REPETITION, board.getDrawReason());
+        assertEquals(8, board.getHalfmoveClock());
+    }
+
+    @Test
+    void restoreRepetitionKeys_decodedMidShuffle_repetitionSpanningSnapshotDrawn() throws InvalidPositionException, InvalidMoveException {
+        int[][] moves = {{62, 45}, {6, 21}, {45, 62}, {21, 6}, {62, 45}, {6, 21}, {45, 62}};
+        for (int[] move : moves) {
+            board.move(move[0], move[1]);
+        }
+        Board restored = BoardSnapshot.decode(BoardSnapshot.encode(board));
+        assertFalse(restored.restoreRepetitionKeys(new Board().getRepetitionKeys()));
+        assertTrue(restored.restoreRepetitionKeys(board.getRepetitionKeys()));
+
+        restored.move(21, 6);
+        assertTrue(restored.isGameOver());
+        assertEquals(DrawReason.THREEFOLD_REPETITION, restored.getDrawReason());
+    }
+
+    @Test
+    void move_hundredthReversiblePly_drawnByFiftyMoveRule() throws InvalidPositionException, InvalidMoveException {
+        board.restore(new HashMap<>(boardMap), Colour.WHITE, 120, false, null, null, 99,
+            Board.ALL_CASTLING, -1, Collections.emptyMap(), board.getVersion() + 1);
+        board.move(62, 45);
+        assertTrue(board.isGameOver());
+        assertEquals(DrawReason.FIFTY_MOVE_RULE, board.getDrawReason());
+    }
+
+    @Test
+    void move_pawnMove_resetsHalfmoveClock() throws InvalidPositionException, InvalidMoveException {
+        board.move(62, 45);
+        board.move(6, 21);
+        assertEquals(2, board.getHalfmoveClock());
+        board.move(52, 36);
+        assertEquals(0, board.getHalfmoveClock());
+        assertEquals(1, board.getRepetitionCount());
+    }
+
+    @Test
+    void move_whiteCastlesKingSide_rookMovedAndRightsLost() throws InvalidPositionException, InvalidMoveException {
+        int[][] moves = {{62, 45}, {1, 18}, {52, 44}, {18, 1}, {61, 52}, {1, 18}, {60, 62}};
+        for (int[] move : moves) {
+            board.move(move[0], move[1]);
+        }
+        assertTrue(board.getBoardMap().get(Position.get(Colour.WHITE, 7, 6)) instanceof King);
+        assertTrue(board.getBoardMap().get(Position.get(Colour.WHITE, 7, 5)) instanceof Rook);
+        assertEquals(Board.BLACK_KINGSIDE | Board.BLACK_QUEENSIDE, board.getCastlingRights());
+    }
+
+    @Test
+    void move_rookReturnsHome_castlingRightStaysLost() throws InvalidPositionException, InvalidMoveException {
+        int[][] moves = {{62, 45}, {6, 21}, {63, 62}, {21, 6}, {62, 63}, {1, 18}, {45, 62}, {18, 1}};
+        for (int[] move : moves) {
+            board.move(move[0], move[1]);
+        }
+        assertEquals(Board.ALL_CASTLING & ~Board.WHITE_KINGSIDE, board.getCastlingRights());
+        assertNotEquals(new Board().getPositionKey(), board.getPositionKey());
+        assertEquals(1, board.getRepetitionCount());
+    }
+
+    @Test
+    void move_enPassantCapture_removesPushedPawn() throws InvalidPositionException, InvalidMoveException {
+        board.move(52, 36);
+        board.move(8, 16);
+        board.move(36, 28);
+        assertEquals(-1, board.getEnPassantSquare());
+        board.move(11, 27);
+        assertEquals(19, board.getEnPassantSquare());
+        assertEquals(board.getPositionKey(), BoardSnapshot.decode(BoardSnapshot.encode(board)).getPositionKey());
+
+        board.move(28, 19);
+        assertNull(board.getBoardMap().get(Position.get(Colour.BLACK, 3, 3)));
+        assertTrue(board.getBoardMap().get(Position.get(Colour.WHITE, 2, 3)) instanceof Pawn);
+        assertEquals(-1, board.getEnPassantSquare());
+        assertEquals(1, board.getEliminated(Colour.BLACK).size());
+    }
+
+    @Test
+    void getLegalMoves_samePosition_servedFromCache() throws InvalidPositionException, InvalidMoveException {
+        Map<Position, Set<Position>> moves = board.getLegalMoves();
+        assertSame(moves, board.getLegalMoves());
+        assertEquals(20, moves.values().stream().mapToInt(Set::size).sum());
+        assertEquals(moves.get(Position.get(Colour.WHITE, 6, 4)), board.getPossibleMoves(Position.get(Colour.WHITE, 6, 4)));
+
+        long version = board.getVersion();
+        board.move(52, 36);
+        assertTrue(board.getVersion() > version);
+        assertNotSame(moves, board.getLegalMoves());
+        assertTrue(board.getLegalMoves().keySet().stream().allMatch(p -> p.getColour() == Colour.BLACK));
+    }
+
+    @Test
+    void move_foolsMate_blackWinsByCheckmate() throws InvalidPositionException, InvalidMoveException {
+        int[][] moves = {{53, 45}, {12, 28}, {54, 38}, {3, 39}};
+        for (int[] move : moves) {
+            board.move(move[0], move[1]);
+        }
+        assertTrue(board.isGameOver());
+        assertEquals("B", board.getWinner());
+        assertEquals(TerminalState.CHECKMATE, board.getTerminalState());
+        assertTrue(board.getLegalMoves().isEmpty());
+        assertEquals(TerminalState.CHECKMATE, board.getTerminalState());
+    }
+
+    @Test
+    void move_queenTakesLastSquares_drawnByStalemate() throws InvalidPositionException, InvalidMoveException {
+        Map<Position, BasePiece> pieces = new HashMap<>();
+        pieces.put(Position.get(Colour.WHITE, 2, 1), new King(Colour.WHITE));   // b6
+        pieces.put(Position.get(Colour.WHITE, 3, 2), new Queen(Colour.WHITE));  // c5
+        pieces.put(Position.get(Colour.BLACK, 0, 0), new King(Colour.BLACK));   // a8
+        board.setBoardMap(pieces);
+        assertEquals(TerminalState.ONGOING, board.getTerminalState());
+
+        board.move(26, 10); // Qc7
+        assertTrue(board.isGameOver());
+        assertNull(board.getWinner());
+        assertEquals(DrawReason.STALEMATE, board.getDrawReason());
+        assertEquals(TerminalState.STALEMATE, board.getTerminalState());
+    }
+
+    @Test
+    void getTerminalState_checkBlockable_ongoing() throws InvalidPositionException {
+        Map<Position, BasePiece> pieces = new HashMap<>();
+        pieces.put(Position.get(Colour.WHITE, 7, 7), new King(Colour.WHITE));   // h1
+        pieces.put(Position.get(Colour.WHITE, 6, 6), new Pawn(Colour.WHITE));   // g2
+        pieces.put(Position.get(Colour.WHITE, 6, 7), new Pawn(Colour.WHITE));   // h2
+        pieces.put(Position.get(Colour.WHITE, 5, 0), new Rook(Colour.WHITE));   // a3
+        pieces.put(Position.get(Colour.BLACK, 7, 0), new Rook(Colour.BLACK));   // a1
+        pieces.put(Position.get(Colour.BLACK, 0, 4), new King(Colour.BLACK));   // e8
+        board.setBoardMap(pieces);
+        assertEquals(TerminalState.ONGOING, board.getTerminalState());
+
+        pieces.remove(Position.get(Colour.WHITE, 5, 0));
+        board.setBoardMap(pieces);
+        assertEquals(TerminalState.CHECKMATE, board.getTerminalState());
+    }
+
+    @Test
+    void getLegalMoves_pinnedKnight_hasNoMoves() throws InvalidPositionException, InvalidMoveException {
+        Map<Position, BasePiece> pieces = new HashMap<>();
+        pieces.put(Position.get(Colour.WHITE, 7, 4), new King(Colour.WHITE));   // e1
+        pieces.put(Position.get(Colour.WHITE, 6, 4), new Knight(Colour.WHITE)); // e2
+        pieces.put(Position.get(Colour.BLACK, 0, 4), new Rook(Colour.BLACK));   // e8
+        pieces.put(Position.get(Colour.BLACK, 0, 0), new King(Colour.BLACK));   // a8
+        board.setBoardMap(pieces);
+
+        assertTrue(board.getPossibleMoves(Position.get(Colour.WHITE, 6, 4)).isEmpty());
+        assertFalse(board.isLegalMove(Position.get(Colour.WHITE, 6, 4), Position.get(Colour.WHITE, 4, 3)));
+    }
+
+    @Test
+    void getLegalMoves_castlingThroughAttackedSquare_notAllowed() throws InvalidPositionException, InvalidMoveException {
+        Map<Position, BasePiece> pieces = new HashMap<>();
+        pieces.put(Position.get(Colour.WHITE, 7, 4), new King(Colour.WHITE));   // e1
+        pieces.put(Position.get(Colour.WHITE, 7, 7), new Rook(Colour.WHITE));   // h1
+        pieces.put(Position.get(Colour.WHITE, 7, 0), new Rook(Colour.WHITE));   // a1
+        pieces.put(Position.get(Colour.BLACK, 0, 5), new Rook(Colour.BLACK));   // f8
+        pieces.put(Position.get(Colour.BLACK, 0, 0), new King(Colour.BLACK));   // a8
+        board.setBoardMap(pieces);
+
+        Set<Position> kingMoves = board.getLegalMoves().get(Position.get(Colour.WHITE, 7, 4));
+        assertFalse(kingMoves.contains(Position.get(Colour.WHITE, 7, 6)));
+        assertFalse(kingMoves.contains(Position.get(Colour.WHITE, 7, 5)));
+        assertTrue(kingMoves.contains(Position.get(Colour.WHITE, 7, 2)));
+    }
+
+    @Test
+    void getLegalMoves_doubleCheck_onlyKingMoves() throws InvalidPositionException, InvalidMoveException {
+        Map<Position, BasePiece> pieces = new HashMap<>();
+        pieces.put(Position.get(Colour.WHITE, 7, 4), new King(Colour.WHITE));   // e1
+        pieces.put(Position.get(Colour.WHITE, 7, 0), new Rook(Colour.WHITE));   // a1
+        pieces.put(Position.get(Colour.BLACK, 3, 4), new Rook(Colour.BLACK));   // e5
+        pieces.put(Position.get(Colour.BLACK, 5, 3), new Knight(Colour.BLACK)); // d3
+        pieces.put(Position.get(Colour.BLACK, 0, 0), new King(Colour.BLACK));   // a8
+        board.setBoardMap(pieces);
+
+        Map<Position, Set<Position>> moves = board.getLegalMoves();
+        assertEquals(Set.of(Position.get(Colour.WHITE, 7, 4)), moves.keySet());
+        assertFalse(moves.get(Position.get(Colour.WHITE, 7, 4)).contains(Position.get(Colour.WHITE, 6, 4)));
+    }
+
+    @Test
+    void isCheck_rookOnOpenFile_kingCannotRetreatAlongRay() throws InvalidPositionException {
+        Map<Position, BasePiece> pieces = new HashMap<>();
+        pieces.put(Position.get(Colour.WHITE, 6, 4), new King(Colour.WHITE));   // e2
+        pieces.put(Position.get(Colour.BLACK, 0, 4), new Rook(Colour.BLACK));   // e8
+        pieces.put(Position.get(Colour.BLACK, 0, 0), new King(Colour.BLACK));   // a8
+        board.setBoardMap(pieces);
+
+        assertTrue(board.isCheck(Colour.WHITE));
+        assertFalse(board.isCheck(Colour.BLACK));
+        Set<Position> kingMoves = board.getLegalMoves().get(Position.get(Colour.WHITE, 6, 4));
+        assertFalse(kingMoves.contains(Position.get(Colour.WHITE, 7, 4)));
+        assertTrue(kingMoves.contains(Position.get(Colour.WHITE, 7, 3)));
+
+        pieces.put(Position.get(Colour.BLACK, 3, 4), new Pawn(Colour.BLACK));   // e5
+        board.setBoardMap(pieces);
+        assertFalse(board.isCheck(Colour.WHITE));
+    }
+
+    @Test
+    void snapshot_afterMove_earlierVersionUnchangedAndUntouchedRanksShared() throws InvalidPositionException, InvalidMoveException {
+        Position e2 = Position.get(Colour.WHITE, 6, 4);
+        Position e4 = Position.get(Colour.WHITE, 4, 4);
+        ImmutableBoard before = board.snapshot();
+        board.move(e2, e4);
+        ImmutableBoard after = board.snapshot();
+
+        assertTrue(before.getPiece(e2) instanceof Pawn);
+        assertNull(before.getPiece(e4));
+        assertNull(after.getPiece(e2));
+        assertTrue(after.getPiece(e4) instanceof Pawn);
+        assertEquals(Colour.WHITE, before.getTurn());
+        assertEquals(Colour.BLACK, after.getTurn());
+        assertEquals(board.getPositionKey(), after.getPositionKey());
+        assertEquals(boardMap, after.getPieces());
+
+        assertFalse(after.sharesRank(before, Colour.WHITE, 6));
+        assertFalse(after.sharesRank(before, Colour.WHITE, 4));
+        assertTrue(after.sharesRank(before, Colour.WHITE, 7));
+        for (int row = 0; row < 8; row++) {
+            assertTrue(after.sharesRank(before, Colour.BLACK, row));
+        }
+    }
+
+    @Test
+    void snapshot_afterCapture_eliminatedPiecesOnlyInLaterVersion() throws InvalidPositionException, InvalidMoveException {
+        board.move(Position.get(Colour.WHITE, 6, 4), Position.get(Colour.WHITE, 4, 4)); // e4
+        board.move(Position.get(Colour.BLACK, 1, 3), Position.get(Colour.BLACK, 3, 3)); // d5
+        ImmutableBoard before = board.snapshot();
+        board.move(Position.get(Colour.WHITE, 4, 4), Position.get(Colour.WHITE, 3, 3)); // exd5
+
+        assertTrue(before.getEliminated(Colour.BLACK).isEmpty());
+        assertEquals(1, board.snapshot().getEliminated(Colour.BLACK).size());
+        assertTrue(board.snapshot().getEliminated(Colour.BLACK).get(0) instanceof Pawn);
+        assertTrue(before.getPiece(Position.get(Colour.BLACK, 3, 3)) instanceof Pawn);
+        assertNull(board.snapshot().getPiece(Position.get(Colour.BLACK, 3, 3)));
+    }
+
+    @Test
+    void snapshot_afterMove_legalMovesAndEvaluationMatchThatVersion() throws InvalidPositionException, InvalidMoveException {
+        ImmutableBoard before = board.snapshot();
+        Map<Position, Set<Position>> openingMoves = board.getLegalMoves();
+        board.move(Position.get(Colour.WHITE, 6, 4), Position.get(Colour.WHITE, 4, 4)); // e4
+        ImmutableBoard after = board.snapshot();
+
+        assertEquals(openingMoves, before.getLegalMoves());
+        assertEquals(board.getLegalMoves(), after.getLegalMoves());
+        assertNotEquals(before.getLegalMoves(), after.getLegalMoves());
+        assertEquals(board.getMaterial(Colour.WHITE), after.getMaterial(Colour.WHITE));
+        assertEquals(board.getGamePhase(), after.getGamePhase());
+        assertEquals(board.getEvaluation(), after.getEvaluation());
+    }
+
+    @Test
+    void takeBack_castling_restoresRookRightsAndKeyThenRedoes() throws InvalidPositionException, InvalidMoveException {
+        int[][] moves = {{62, 45}, {1, 18}, {52, 44}, {18, 1}, {61, 52}, {1, 18}};
+        for (int[] move : moves) {
+            board.move(move[0], move[1]);
+        }
+        long key = board.getPositionKey();
+        int evaluation = board.getEvaluation();
+        board.move(60, 62);
+        long castledKey = board.getPositionKey();
+
+        assertTrue(board.takeBack());
+        assertEquals(key, board.getPositionKey());
+        assertEquals(evaluation, board.getEvaluation());
+        assertEquals(Board.ALL_CASTLING, board.getCastlingRights());
+        assertEquals(Colour.WHITE, board.getTurn());
+        assertEquals(6, board.getPly());
+        assertTrue(board.getBoardMap().get(Position.get(Colour.WHITE, 7, 4)) instanceof King);
+        assertTrue(board.getBoardMap().get(Position.get(Colour.WHITE, 7, 7)) instanceof Rook);
+        assertNull(board.getBoardMap().get(Position.get(Colour.WHITE, 7, 5)));
+
+        assertTrue(board.redo());
+        assertEquals(castledKey, board.getPositionKey());
+        assertTrue(board.getBoardMap().get(Position.get(Colour.WHITE, 7, 5)) instanceof Rook);
+        assertEquals(60, board.getLastMove()[0]);
+        assertEquals(62, board.getLastMove()[1]);
+        assertFalse(board.redo());
+    }
+
+    @Test
+    void takeBack_capturesAndCheckmate_restoresPiecesAndReopensGame() throws InvalidPositionException, InvalidMoveException {
+        int[][] moves = {{52, 36}, {11, 27}, {36, 27}, {3, 27}};
+        for (int[] move : moves) {
+            board.move(move[0], move[1]);
+        }
+        assertEquals(1, board.getEliminated(Colour.BLACK).size());
+        assertEquals(1, board.getEliminated(Colour.WHITE).size());
+
+        assertTrue(board.takeBack());
+        assertTrue(board.takeBack());
+        assertTrue(board.getEliminated(Colour.BLACK).isEmpty());
+        assertTrue(board.getBoardMap().get(Position.get(Colour.BLACK, 3, 3)) instanceof Pawn);
+        assertEquals(2, board.getPly());
+        assertTrue(board.takeBack());
+        assertTrue(board.takeBack());
+        assertFalse(board.canTakeBack());
+        assertEquals(new Board().getPositionKey(), board.getPositionKey());
+
+        board.move(53, 45);
+        assertFalse(board.canRedo());
+        board.move(12, 28);
+        board.move(54, 38);
+        board.move(3, 39);
+        assertTrue(board.isGameOver());
+        assertTrue(board.takeBack());
+        assertFalse(board.isGameOver());
+        assertNull(board.getWinner());
+        assertEquals(1, board.getRepetitionCount());
+    }
 }
@@ -0,0 +1,77 @@
+package entity.evaluation;
+
+import entity.BasePiece;
+import entity.Board;
+import entity.Knight;
+import entity.Pawn;
+import entity.Queen;
+import helper.Colour;
+import helper.InvalidMoveException;
+import helper.InvalidPositionException;
+import helper.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link IncrementalEvaluator} class.
+ * Verifies that the incrementally maintained score matches a full recomputation.
+ */
+class IncrementalEvaluatorTest {
+
+    private static int recompute(Board board) {
+        IncrementalEvaluator fresh = new IncrementalEvaluator();
+        for (Map.Entry<Position, BasePiece> entry : board.getBoardMap().entrySet()) {
+            fresh.add(entry.getValue(), entry.getKey());
+        }
+        return fresh.getScore();
+    }
+
+    @Test
+    void getEvaluation_initialPosition_balanced() {
+        Board board = new Board();
+        assertEquals(0, board.getEvaluation());
+        assertEquals(24, board.getGamePhase());
+        assertEquals(board.getMaterial(Colour.WHITE), board.getMaterial(Colour.BLACK));
+    }
+
+    @Test
+    void getEvaluation_afterMoves_matchesFullRecomputation() throws InvalidPositionException, InvalidMoveException {
+        Board board = new Board();
+        board.move(Position.get(Colour.WHITE, 6, 4), Position.get(Colour.WHITE, 4, 4)); // e2-e4
+        assertEquals(recompute(board), board.getEvaluation());
+        assertTrue(board.getEvaluation() > 0);
+
+        board.move(Position.get(Colour.BLACK, 0, 6), Position.get(Colour.BLACK, 2, 5)); // g8-f6
+        assertEquals(recompute(board), board.getEvaluation());
+    }
+
+    @Test
+    void getMaterial_afterSetBoardMap_countsOnlyPlacedPieces() throws InvalidPositionException {
+        Board board = new Board();
+        Map<Position, BasePiece> pieces = new HashMap<>();
+        pieces.put(Position.get(Colour.WHITE, 4, 4), new Queen(Colour.WHITE));
+        pieces.put(Position.get(Colour.BLACK, 3, 3), new Knight(Colour.BLACK));
+        pieces.put(Position.get(Colour.BLACK, 1, 0), new Pawn(Colour.BLACK));
+        board.setBoardMap(pieces);
+
+        assertEquals(1025, board.getMaterial(Colour.WHITE));
+        assertEquals(337 + 82, board.getMaterial(Colour.BLACK));
+        assertEquals(5, board.getGamePhase());
+        assertEquals(recompute(board), board.getEvaluation());
+    }
+
+    @Test
+    void getScore_mirroredPieces_oppositeSigns() throws InvalidPositionException {
+        IncrementalEvaluator white = new IncrementalEvaluator();
+        white.add(new Knight(Colour.WHITE), Position.get(Colour.WHITE, 5, 2));
+        IncrementalEvaluator black = new IncrementalEvaluator();
+        black.add(new Knight(Colour.BLACK), Position.get(Colour.BLACK, 2, 2));
+
+        assertEquals(white.getScore(), -black.getScore());
+        assertEquals(white.getScore(Colour.WHITE), black.getScore(Colour.BLACK));
+    }
+}
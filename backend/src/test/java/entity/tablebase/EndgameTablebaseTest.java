@@ -0,0 +1,105 @@
+package entity.tablebase;
+
+import entity.BasePiece;
+import helper.Colour;
+import helper.InvalidPositionException;
+import helper.Position;
+import helper.TablebaseResult;
+import org.junit.jupiter.api.Test;
+import utility.PieceFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link TablebaseGenerator} and {@link EndgameTablebase} classes.
+ * Solves the three-piece endings and probes them through the mapped files.
+ */
+class EndgameTablebaseTest {
+
+    private static TablebaseGenerator generator;
+
+    private static synchronized TablebaseGenerator generator() {
+        if (generator == null) {
+            generator = new TablebaseGenerator();
+            generator.generate("KQK");
+            generator.generate("KRK");
+            generator.generate("KPK");
+        }
+        return generator;
+    }
+
+    private static int longestWin(String material) {
+        int longest = 0;
+        for (int index = 0; index < Material.parse(material).size() / 2; index++) {
+            longest = Math.max(longest, generator().value(material, index) - 1);
+        }
+        return longest;
+    }
+
+    private static int value(String material, boolean strongToMove, int... squares) {
+        return generator().value(material, Material.parse(material).index(squares, strongToMove));
+    }
+
+    private static int square(int row, int column) {
+        return row * 8 + column;
+    }
+
+    @Test
+    void generate_kqkAndKrk_matchKnownLongestWins() {
+        // Mate in 10 and mate in 16 moves with the strong side to move
+        assertEquals(19, longestWin("KQK"));
+        assertEquals(31, longestWin("KRK"));
+    }
+
+    @Test
+    void generate_kqk_checkmateAndMateInOne() {
+        // White Kc6 Qb7, Black Ka8 to move: mated
+        assertEquals(1, value("KQK", false, square(2, 2), square(1, 1), square(0, 0)));
+        // White Kc6 Qb6, Black Ka8, White to move: Qb7 mates
+        assertEquals(2, value("KQK", true, square(2, 2), square(2, 1), square(0, 0)));
+        // Same position with Black to move is stalemate
+        assertEquals(0, value("KQK", false, square(2, 2), square(2, 1), square(0, 0)));
+    }
+
+    @Test
+    void generate_kpk_rookPawnDrawAndPromotionWin() {
+        // White Kb1 Pa6, Black Ka8: the defending king holds the corner
+        assertEquals(0, value("KPK", false, square(7, 1), square(2, 0), square(0, 0)));
+        // White Kd7 Pe7, Black Ka1: the pawn queens
+        int win = value("KPK", true, square(1, 3), square(1, 4), square(7, 0));
+        assertTrue(win > 0 && (win - 1) % 2 == 1);
+    }
+
+    @Test
+    void probe_mappedFile_matchesGeneratorForBothColours() throws IOException, InvalidPositionException {
+        Path directory = Files.createTempDirectory("tablebases");
+        Path file = generator().write("KQK", directory);
+        file.toFile().deleteOnExit();
+        directory.toFile().deleteOnExit();
+        EndgameTablebase tablebase = EndgameTablebase.open(directory);
+
+        Map<Position, BasePiece> boardMap = new HashMap<>();
+        boardMap.put(Position.get(Colour.WHITE, 2, 2), PieceFactory.createPiece("King", Colour.WHITE));
+        boardMap.put(Position.get(Colour.WHITE, 2, 1), PieceFactory.createPiece("Queen", Colour.WHITE));
+        boardMap.put(Position.get(Colour.BLACK, 0, 0), PieceFactory.createPiece("King", Colour.BLACK));
+        TablebaseResult result = tablebase.probe(boardMap, Colour.WHITE);
+        assertEquals(TablebaseResult.Outcome.WIN, result.getOutcome());
+        assertEquals(1, result.getDistanceToMate());
+
+        // Mirrored: Black Kc3 Qb2 against White Ka1, White to move is mated
+        boardMap.clear();
+        boardMap.put(Position.get(Colour.BLACK, 5, 2), PieceFactory.createPiece("King", Colour.BLACK));
+        boardMap.put(Position.get(Colour.BLACK, 6, 1), PieceFactory.createPiece("Queen", Colour.BLACK));
+        boardMap.put(Position.get(Colour.WHITE, 7, 0), PieceFactory.createPiece("King", Colour.WHITE));
+        assertTrue(tablebase.probe(boardMap, Colour.WHITE).isCheckmate());
+
+        boardMap.put(Position.get(Colour.BLACK, 0, 0), PieceFactory.createPiece("Rook", Colour.BLACK));
+        assertNull(tablebase.probe(boardMap, Colour.WHITE));
+    }
+}
@@ -1,73 +1,151 @@
 package main;
 
 import helper.*;
-import entity.Board;
-import entity.BasePiece;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.MockitoAnnotations;
+import service.GameCache;
 import service.GameInterfaceImpl;
+import service.journal.GameStore;
+import service.journal.MoveJournal;
+import service.journal.SnapshotStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.*;
 
 class GameInterfaceImplTest {
 
-    @Mock
-    private Board board;
-
-    @InjectMocks
     private GameInterfaceImpl gameInterfaceImpl;
 
     @BeforeEach
     void setUp() {
-        MockitoAnnotations.openMocks(this);
+        gameInterfaceImpl = new GameInterfaceImpl();
     }
 
     @Test
     void onClick_selectEmptySquare_noHighlight() {
-        when(board.getPiece(any(Position.class))).thenReturn(null);
+        GameState before = gameInterfaceImpl.getBoard();
         GameState response = gameInterfaceImpl.onClick("c3");
         assertEquals(0, response.getHighlightSquares().size());
+        assertEquals(before.getVersion(), response.getVersion());
+        assertEquals(Colour.WHITE, gameInterfaceImpl.getTurn());
     }
 
 
     @Test
     void onClick_selectNonTurnBlackPawn_noHighlight() {
-        BasePiece piece = mock(BasePiece.class);
-        when(piece.getColour()).thenReturn(Colour.BLACK);
-        when(board.getPiece(any(Position.class))).thenReturn(piece);
-
+        GameState before = gameInterfaceImpl.getBoard();
         GameState response = gameInterfaceImpl.onClick("a7");
         assertEquals(0, response.getHighlightSquares().size());
+        assertEquals(before.getBoard(), response.getBoard());
+        assertEquals(Colour.WHITE, gameInterfaceImpl.getTurn());
     }
 
     @Test
     void onClick_moveWhitePawn_noHighlight() {
-        BasePiece piece = mock(BasePiece.class);
-        when(piece.getColour()).thenReturn(Colour.WHITE);
-        when(board.getPiece(any(Position.class))).thenReturn(piece);
-
         gameInterfaceImpl.onClick("b2");
-        GameState response = gameInterfaceImpl.onClick("b4");
+        GameState response = gameInterfaceImpl.onClick("b2-b4");
         assertEquals(0, response.getHighlightSquares().size());
+        assertEquals("WP", response.getBoard().get("b4"));
+        assertNull(response.getBoard().get("b2"));
+        assertEquals(Colour.BLACK, gameInterfaceImpl.getTurn());
     }
 
 
     @Test
-    void onClick_invalidMove_noHighlight() throws InvalidPositionException, InvalidMoveException {
-        BasePiece piece = mock(BasePiece.class);
-        when(piece.getColour()).thenReturn(Colour.WHITE);
-        when(board.getPiece(any(Position.class))).thenReturn(piece);
-        doThrow(new InvalidPositionException("Invalid position")).when(board).move(any(Position.class), any(Position.class));
-
+    void onClick_invalidMove_noHighlight() {
+        GameState before = gameInterfaceImpl.getBoard();
         gameInterfaceImpl.onClick("b2");
-        GameState response = gameInterfaceImpl.onClick("b5");
+        GameState response = gameInterfaceImpl.onClick("b2-b5");
         assertEquals(0, response.getHighlightSquares().size());
+        assertEquals(before.getVersion(), response.getVersion());
+        assertEquals("WP", response.getBoard().get("b2"));
+        assertEquals(Colour.WHITE, gameInterfaceImpl.getTurn());
+    }
+
+    @Test
+    void onClick_captureOfferedAsLegalMove_played() {
+        GameInterfaceImpl game = new GameInterfaceImpl();
+        game.onClick("e2-e4");
+        GameState beforeCapture = game.onClick("d7-d5");
+        assertTrue(beforeCapture.getLegalMoves().get("e4").contains("d5"));
+
+        GameState response = game.onClick("e4-d5");
+        assertEquals(game.getGameId(), response.getGameId());
+        assertEquals(Colour.BLACK, game.getTurn());
+        assertEquals("WP", response.getBoard().get("d5"));
+        assertNull(response.getBoard().get("e4"));
+        assertEquals(1, response.getEliminatedBlackPieces().size());
     }
 
+    @Test
+    void takeBack_currentGameEvictedAndReloaded_takesBackLastMove() throws IOException {
+        Path journalFile = Files.createTempFile("moves", ".bin");
+        Path snapshotFile = Files.createTempFile("snapshots", ".bin");
+        journalFile.toFile().deleteOnExit();
+        snapshotFile.toFile().deleteOnExit();
+        try (MoveJournal journal = new MoveJournal(journalFile, MoveJournal.Durability.NONE, 5);
+             GameStore store = new GameStore(journal, new SnapshotStore(snapshotFile), 32)) {
+            GameInterfaceImpl game = new GameInterfaceImpl();
+            game.setGameCache(new GameCache(store, 1));
+            int first = game.getGameId();
+            game.newGame();
+            game.onClick("e2-e4");
+            game.onClick("e7-e5");
+            GameState afterE4 = game.getBoard();
+            game.onClick("g1-f3");
+
+            // Reloading the first game evicts the current one
+            assertNotNull(game.getBoard(first));
+            GameState response = game.takeBack();
+
+            assertEquals(Colour.WHITE, game.getTurn());
+            assertEquals(afterE4.getBoard(), response.getBoard());
+            assertTrue(response.getVersion() > afterE4.getVersion());
+            game.takeBack();
+            assertNull(game.getBoard().getBoard().get("e5"));
+            assertEquals("WP", game.getBoard().getBoard().get("e4"));
+        }
+    }
 
+    @Test
+    void getBoard_readWhileMovesAndTakebacksPlayed_neverFails() throws InterruptedException {
+        GameInterfaceImpl game = new GameInterfaceImpl();
+        int gameId = game.getGameId();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                while (!done.get()) {
+                    assertFalse(game.getBoard(gameId).getLegalMoves().isEmpty());
+                    game.getBoards(Map.of(gameId, -1L)).forEach(state -> assertFalse(state.getLegalMoves().isEmpty()));
+                    assertNotNull(game.getEvaluation());
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        reader.start();
+        try {
+            for (int i = 0; i < 500 && failure.get() == null; i++) {
+                game.onClick("g1-f3");
+                assertEquals(Colour.BLACK, game.getTurn());
+                game.onClick("g8-f6");
+                assertEquals(Colour.WHITE, game.getTurn());
+                game.takeBack();
+                game.takeBack();
+                assertEquals(Colour.WHITE, game.getTurn());
+            }
+        } finally {
+            done.set(true);
+            reader.join();
+        }
+        assertNull(failure.get());
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package service;
+
+import entity.Board;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.journal.GameStore;
+import service.journal.MoveJournal;
+import service.journal.SnapshotStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link GameCache} class.
+ * Evicts idle games to a game store and reloads them on lookup.
+ */
+class GameCacheTest {
+
+    private MoveJournal journal;
+    private GameStore store;
+
+    private static Path tempFile(String name) throws IOException {
+        Path file = Files.createTempFile(name, ".bin");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journal = new MoveJournal(tempFile("moves"), MoveJournal.Durability.NONE, 5);
+        store = new GameStore(journal, new SnapshotStore(tempFile("snapshots")), 32);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+        journal.close();
+    }
+
+    @Test
+    void get_evictedGame_reloadedFromCheckpoint() throws Exception {
+        GameCache cache = new GameCache(store, 2);
+        Board first = new Board();
+        first.move(52, 36);
+        cache.put(new GameSession(0, first));
+        cache.put(new GameSession(1, new Board()));
+        cache.put(new GameSession(2, new Board()));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+
+        GameSession reloaded = cache.get(0);
+        assertNotSame(first, reloaded.getBoard());
+        assertEquals(first.getPositionKey(), reloaded.getBoard().getPositionKey());
+        assertEquals(1, reloaded.getBoard().getPly());
+        assertEquals(32, reloaded.getBoard().snapshot().getPieces().size());
+        assertEquals(1, cache.missCount());
+        assertEquals(2, cache.evictionCount());
+    }
+
+    @Test
+    void get_recentlyUsedGame_keptInMemory() {
+        GameCache cache = new GameCache(store, 2);
+        GameSession first = new GameSession(0, new Board());
+        cache.put(first);
+        cache.put(new GameSession(1, new Board()));
+        assertSame(first, cache.get(0));
+        cache.put(new GameSession(2, new Board()));
+
+        assertSame(first, cache.get(0));
+        assertEquals(2, cache.hitCount());
+        assertEquals(1.0, cache.hitRatio());
+        assertNull(cache.get(7));
+    }
+
+    @Test
+    void get_concurrentLookupsOfEvictedGame_shareOneSession() throws Exception {
+        GameCache cache = new GameCache(store, 2);
+        Board first = new Board();
+        first.move(52, 36);
+        cache.put(new GameSession(0, first));
+        cache.put(new GameSession(1, new Board()));
+        cache.put(new GameSession(2, new Board()));
+
+        ExecutorService readers = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<GameSession>> lookups = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                lookups.add(readers.submit(() -> {
+                    start.await();
+                    return cache.get(0);
+                }));
+            }
+            start.countDown();
+
+            GameSession reloaded = lookups.get(0).get();
+            assertEquals(first.getPositionKey(), reloaded.getBoard().getPositionKey());
+            for (Future<GameSession> lookup : lookups) {
+                assertSame(reloaded, lookup.get());
+            }
+            assertSame(reloaded, cache.get(0));
+        } finally {
+            readers.shutdown();
+        }
+    }
+
+    @Test
+    void put_withoutStore_neverEvicts() {
+        GameCache cache = new GameCache();
+        for (int id = 0; id < 10; id++) {
+            cache.put(new GameSession(id, new Board()));
+        }
+        assertEquals(10, cache.size());
+        assertEquals(0, cache.evictionCount());
+    }
+}
@@ -0,0 +1,98 @@
+package service;
+
+import entity.Board;
+import helper.DrawReason;
+import helper.InvalidMoveException;
+import helper.InvalidPositionException;
+import org.junit.jupiter.api.Test;
+import utility.MoveCodec;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link GameHistory} class.
+ * Rebuilds positions at any ply from checkpoints and the moves after them.
+ */
+class GameHistoryTest {
+
+    /** Knights out and back, then Nc3 Nc6 e4 e5 d4: 9 plies */
+    private static final int[][] MOVES = {
+        {62, 45}, {6, 21}, {45, 62}, {21, 6}, {57, 42}, {1, 18}, {52, 36}, {12, 28}, {51, 35}};
+
+    private static GameHistory play(Board board, int interval) throws InvalidMoveException, InvalidPositionException {
+        GameHistory history = new GameHistory(interval);
+        for (int[] move : MOVES) {
+            board.move(move[0], move[1]);
+            history.append(MoveCodec.encode(move[0], move[1]), board);
+        }
+        return history;
+    }
+
+    @Test
+    void positionAt_everyPly_matchesPlayedPositions() throws InvalidMoveException, InvalidPositionException {
+        Board board = new Board();
+        GameHistory history = play(board, 4);
+        assertEquals(MOVES.length, history.size());
+        assertEquals(board.getPositionKey(), history.positionAt(MOVES.length).getPositionKey());
+        assertEquals(new Board().getPositionKey(), history.positionAt(0).getPositionKey());
+        assertEquals(history.positionAt(0).getPositionKey(), history.positionAt(4).getPositionKey());
+        assertEquals(5, history.positionAt(5).getPly());
+        assertNull(history.positionAt(MOVES.length + 1));
+        assertNull(history.positionAt(-1));
+    }
+
+    @Test
+    void positionAt_journaledMoves_fillsCheckpointsLazily() throws InvalidMoveException, InvalidPositionException {
+        Board board = new Board();
+        play(board, 4);
+        List<Short> moves = Arrays.stream(MOVES)
+            .map(move -> MoveCodec.encode(move[0], move[1])).collect(Collectors.toList());
+
+        GameHistory journaled = new GameHistory(4, moves);
+        assertEquals(MOVES.length, journaled.size());
+        assertEquals(board.getPositionKey(), journaled.positionAt(MOVES.length).getPositionKey());
+        assertEquals(6, journaled.positionAt(6).getPly());
+    }
+
+    @Test
+    void positionAt_repetitionSpanningCheckpoint_drawn() {
+        int[][] shuffle = {{62, 45}, {6, 21}, {45, 62}, {21, 6}};
+        List<Short> moves = Arrays.stream(shuffle)
+            .map(move -> MoveCodec.encode(move[0], move[1])).collect(Collectors.toList());
+        moves.addAll(List.copyOf(moves));
+
+        GameHistory history = new GameHistory(4, moves);
+        // Fills the checkpoint at ply 8 from the one at ply 4, which holds no earlier keys
+        history.positionAt(4);
+        Board board = history.positionAt(8);
+        assertTrue(board.isGameOver());
+        assertEquals(DrawReason.THREEFOLD_REPETITION, board.getDrawReason());
+    }
+
+    @Test
+    void truncate_afterTakeback_dropsLaterMovesAndCheckpoints() throws InvalidMoveException, InvalidPositionException {
+        GameHistory history = play(new Board(), 4);
+        history.truncate(3);
+        assertEquals(3, history.size());
+        assertNull(history.positionAt(4));
+
+        Board board = history.positionAt(3);
+        board.move(21, 6);
+        history.append(MoveCodec.encode(21, 6), board);
+        assertEquals(board.getPositionKey(), history.positionAt(4).getPositionKey());
+    }
+
+    @Test
+    void positions_wholeGame_oneBoardPerPly() throws InvalidMoveException, InvalidPositionException {
+        Board board = new Board();
+        GameHistory history = play(board, 4);
+        List<Long> keys = history.positions().map(Board::getPositionKey).collect(Collectors.toList());
+        assertEquals(MOVES.length + 1, keys.size());
+        assertEquals(board.getPositionKey(), (long) keys.get(MOVES.length));
+        assertEquals(keys.get(0), keys.get(4));
+    }
+}
@@ -0,0 +1,94 @@
+package service.book;
+
+import entity.Board;
+import helper.BookMove;
+import helper.InvalidMoveException;
+import helper.InvalidPositionException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link OpeningBook} and {@link OpeningBookBuilder} classes.
+ * Builds a small book from PGN text and probes it through the mapped file.
+ */
+class OpeningBookTest {
+
+    private static final String PGN =
+        "[Event \"Test\"]\n" +
+        "[Opening \"King's Knight Opening\"]\n" +
+        "[Result \"1-0\"]\n" +
+        "\n" +
+        "1. e4 e5 {main line} 2. Nf3 (2. Nc3 Nf6) Nc6 1-0\n" +
+        "\n" +
+        "[Event \"Test\"]\n" +
+        "[Opening \"King's Knight Opening\"]\n" +
+        "[Result \"0-1\"]\n" +
+        "\n" +
+        "1. e4 e5 2. Nf3 Nf6 0-1\n" +
+        "\n" +
+        "[Event \"Test\"]\n" +
+        "[Opening \"Queen's Pawn Game\"]\n" +
+        "[Result \"1/2-1/2\"]\n" +
+        "\n" +
+        "1. d4 d5 1/2-1/2\n";
+
+    private static OpeningBook buildBook() throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(OpeningBookBuilder.DEFAULT_MAX_PLIES);
+        assertEquals(3, builder.addGames(new StringReader(PGN)));
+        assertEquals(0, builder.getTruncatedGames());
+
+        Path file = Files.createTempFile("opening-book", ".bin");
+        file.toFile().deleteOnExit();
+        builder.write(file);
+        return OpeningBook.open(file);
+    }
+
+    @Test
+    void getMoves_initialPosition_sortedByWeight() throws IOException {
+        OpeningBook book = buildBook();
+        List<BookMove> moves = book.getMoves(new Board().getPositionKey());
+
+        assertEquals(2, moves.size());
+        assertEquals("e2-e4", moves.get(0).getMove());
+        assertEquals(3, moves.get(0).getWeight());
+        assertEquals("d2-d4", moves.get(1).getMove());
+        assertEquals(1, moves.get(1).getWeight());
+    }
+
+    @Test
+    void getOpeningName_positionInBook_majorityName() throws IOException, InvalidPositionException, InvalidMoveException {
+        OpeningBook book = buildBook();
+        Board board = new Board();
+        board.move(6 * 8 + 4, 4 * 8 + 4); // e2-e4
+
+        assertEquals("King's Knight Opening", book.getOpeningName(board.getPositionKey()));
+        assertEquals("e7-e5", book.getMoves(board.getPositionKey()).get(0).getMove());
+
+        Board queenPawn = new Board();
+        queenPawn.move(6 * 8 + 3, 4 * 8 + 3); // d2-d4
+        assertEquals("Queen's Pawn Game", book.getOpeningName(queenPawn.getPositionKey()));
+    }
+
+    @Test
+    void getMoves_positionNotInBook_empty() throws IOException, InvalidPositionException, InvalidMoveException {
+        OpeningBook book = buildBook();
+        Board board = new Board();
+        board.move(6 * 8 + 0, 5 * 8 + 0); // a2-a3
+
+        assertTrue(book.getMoves(board.getPositionKey()).isEmpty());
+        assertTrue(OpeningBook.empty().getMoves(board.getPositionKey()).isEmpty());
+    }
+
+    @Test
+    void parseMoves_movetextWithAnnotations_mainLineOnly() {
+        List<String> moves = PgnReader.parseMoves("1. e4 $1 e5 {comment (x)} 2. Nf3 (2. f4 exf4) 2... Nc6 3. Bb5+ *");
+        assertEquals(List.of("e4", "e5", "Nf3", "Nc6", "Bb5+"), moves);
+    }
+}
@@ -0,0 +1,159 @@
+package service.journal;
+
+import entity.BasePiece;
+import entity.Board;
+import entity.BoardSnapshot;
+import helper.Colour;
+import helper.Position;
+import org.junit.jupiter.api.Test;
+import utility.MoveCodec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link GameStore} and {@link BoardSnapshot} classes.
+ * Loads games from snapshots and the moves journaled after them.
+ */
+class GameStoreTest {
+
+    private static final short E2_E4 = MoveCodec.encode(52, 36);
+    private static final short E7_E5 = MoveCodec.encode(12, 28);
+    private static final short G1_F3 = MoveCodec.encode(62, 45);
+
+    private static Path tempFile(String name) throws IOException {
+        Path file = Files.createTempFile(name, ".bin");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    @Test
+    void snapshot_roundTrip_restoresPositionTurnAndPly() throws Exception {
+        Board board = new Board();
+        board.move(52, 36);
+        board.move(12, 28);
+        board.move(62, 45);
+
+        byte[] snapshot = BoardSnapshot.encode(board);
+        assertEquals(BoardSnapshot.SIZE, snapshot.length);
+        assertEquals(3, BoardSnapshot.ply(snapshot));
+
+        Board decoded = BoardSnapshot.decode(snapshot);
+        assertEquals(board.getPositionKey(), decoded.getPositionKey());
+        assertEquals(Colour.BLACK, decoded.getTurn());
+        assertEquals(3, decoded.getPly());
+        assertEquals(1, decoded.getHalfmoveClock());
+        assertEquals(board.getVersion(), decoded.getVersion());
+        assertFalse(decoded.isGameOver());
+    }
+
+    @Test
+    void snapshot_decodedBoard_publishesOnlyDecodedPiecesAndReencodes() throws Exception {
+        Board board = new Board();
+        board.move(52, 36);
+        board.move(11, 27);
+        board.move(36, 27);
+        byte[] snapshot = BoardSnapshot.encode(board);
+
+        Board decoded = BoardSnapshot.decode(snapshot);
+        Map<Position, BasePiece> pieces = decoded.snapshot().getPieces();
+        assertEquals(31, pieces.size());
+        assertEquals(board.getBoardMap().keySet(), pieces.keySet());
+        pieces.forEach((position, piece) -> assertEquals(board.getPiece(position).toString(), piece.toString()));
+        assertArrayEquals(snapshot, BoardSnapshot.encode(decoded));
+    }
+
+    @Test
+    void recoverGames_snapshotInterval_replaysMovesAfterSnapshot() throws Exception {
+        Path journalFile = tempFile("moves");
+        Path snapshotFile = tempFile("snapshots");
+        Board board = new Board();
+        try (MoveJournal journal = new MoveJournal(journalFile, MoveJournal.Durability.SYNC, 5);
+             GameStore store = new GameStore(journal, new SnapshotStore(snapshotFile), 2)) {
+            short[] moves = {E2_E4, E7_E5, G1_F3};
+            for (int ply = 0; ply < moves.length; ply++) {
+                board.move(MoveCodec.from(moves[ply]), MoveCodec.to(moves[ply]));
+                store.recordMove(0, ply, moves[ply], board).join();
+            }
+        }
+
+        try (MoveJournal journal = new MoveJournal(journalFile, MoveJournal.Durability.SYNC, 5);
+             SnapshotStore snapshots = new SnapshotStore(snapshotFile)) {
+            assertEquals(2, BoardSnapshot.ply(snapshots.latest(0)));
+            GameStore store = new GameStore(journal, snapshots, 2);
+            Map<Integer, Board> games = store.recoverGames();
+            assertEquals(board.getPositionKey(), games.get(0).getPositionKey());
+            assertEquals(3, games.get(0).getPly());
+        }
+    }
+
+    @Test
+    void recordMove_snapshotWithMovesStillBatched_journalCommittedFirst() throws Exception {
+        Path journalFile = tempFile("moves");
+        Path snapshotFile = tempFile("snapshots");
+        Board board = new Board();
+        try (MoveJournal journal = new MoveJournal(journalFile, MoveJournal.Durability.NONE, 60_000);
+             GameStore store = new GameStore(journal, new SnapshotStore(snapshotFile), 2)) {
+            short[] moves = {E2_E4, E7_E5};
+            for (int ply = 0; ply < moves.length; ply++) {
+                board.move(MoveCodec.from(moves[ply]), MoveCodec.to(moves[ply]));
+                store.recordMove(0, ply, moves[ply], board).join();
+            }
+
+            // Read while the writer is still open, as after a crash before the next group commit
+            try (MoveJournal recovered = new MoveJournal(journalFile, MoveJournal.Durability.NONE, 5);
+                 SnapshotStore snapshots = new SnapshotStore(snapshotFile)) {
+                assertEquals(2, BoardSnapshot.ply(snapshots.latest(0)));
+                assertEquals(List.of(E2_E4, E7_E5), recovered.readGames().get(0));
+            }
+        }
+    }
+
+    @Test
+    void reload_movesTakenBack_returnsPositionAfterTakebacks() throws Exception {
+        Path journalFile = tempFile("moves");
+        Path snapshotFile = tempFile("snapshots");
+        Board board = new Board();
+        try (MoveJournal journal = new MoveJournal(journalFile, MoveJournal.Durability.SYNC, 5);
+             GameStore store = new GameStore(journal, new SnapshotStore(snapshotFile), 2)) {
+            short[] moves = {E2_E4, E7_E5};
+            for (int ply = 0; ply < moves.length; ply++) {
+                board.move(MoveCodec.from(moves[ply]), MoveCodec.to(moves[ply]));
+                store.recordMove(0, ply, moves[ply], board).join();
+            }
+            for (int i = 0; i < 2; i++) {
+                assertTrue(board.takeBack());
+                store.recordTakeback(0, board).join();
+            }
+            Board reloaded = store.reload(0);
+            assertEquals(0, reloaded.getPly());
+            assertEquals(board.getPositionKey(), reloaded.getPositionKey());
+        }
+
+        try (MoveJournal journal = new MoveJournal(journalFile, MoveJournal.Durability.SYNC, 5);
+             GameStore store = new GameStore(journal, new SnapshotStore(snapshotFile), 2)) {
+            Board recovered = store.recoverGames().get(0);
+            assertEquals(0, recovered.getPly());
+            assertEquals(board.getPositionKey(), recovered.getPositionKey());
+        }
+    }
+
+    @Test
+    void load_snapshotOnly_returnsSnapshotBoard() throws Exception {
+        Board board = new Board();
+        board.move(52, 36);
+        board.move(12, 28);
+        try (MoveJournal journal = new MoveJournal(tempFile("moves"), MoveJournal.Durability.NONE, 5);
+             GameStore store = new GameStore(journal, new SnapshotStore(tempFile("snapshots")), 2)) {
+            store.recordMove(4, 1, E7_E5, board);
+            Board loaded = store.load(4, List.of());
+            assertEquals(board.getPositionKey(), loaded.getPositionKey());
+            assertEquals(2, loaded.getPly());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package service.journal;
+
+import org.junit.jupiter.api.Test;
+import utility.MoveCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link MoveJournal} class.
+ * Appends moves of several games and recovers them from the file.
+ */
+class MoveJournalTest {
+
+    private static final short E2_E4 = MoveCodec.encode(52, 36);
+    private static final short E7_E5 = MoveCodec.encode(12, 28);
+    private static final short D2_D4 = MoveCodec.encode(51, 35);
+
+    private static Path journalFile() throws IOException {
+        Path file = Files.createTempFile("moves", ".journal");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    @Test
+    void readGames_syncAppends_groupedByGame() throws Exception {
+        Path file = journalFile();
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.SYNC, 5)) {
+            journal.append(0, 0, E2_E4).join();
+            journal.append(1, 0, D2_D4).join();
+            journal.append(0, 1, E7_E5).join();
+            assertEquals(3 * MoveJournal.RECORD_SIZE, Files.size(file));
+        }
+
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.SYNC, 5)) {
+            Map<Integer, List<Short>> games = journal.readGames();
+            assertEquals(2, games.size());
+            assertEquals(List.of(E2_E4, E7_E5), games.get(0));
+            assertEquals(List.of(D2_D4), games.get(1));
+        }
+    }
+
+    @Test
+    void readGames_takeback_dropsLaterMovesAndAcceptsNewLine() throws Exception {
+        Path file = journalFile();
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.SYNC, 5)) {
+            journal.append(0, 0, E2_E4).join();
+            journal.append(0, 1, E7_E5).join();
+            journal.append(0, 1, MoveJournal.TAKEBACK).join();
+            journal.append(0, 0, MoveJournal.TAKEBACK).join();
+            journal.append(0, 0, D2_D4).join();
+        }
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.SYNC, 5)) {
+            assertEquals(List.of(D2_D4), journal.readGames().get(0));
+        }
+    }
+
+    @Test
+    void close_batchedAppends_committedBeforeClose() throws Exception {
+        Path file = journalFile();
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.BATCHED, 10_000)) {
+            assertTrue(journal.append(7, 0, E2_E4).isDone());
+        }
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.BATCHED, 10_000)) {
+            assertEquals(List.of(E2_E4), journal.readGames().get(7));
+        }
+    }
+
+    @Test
+    void open_tornTail_truncatedToLastValidRecord() throws Exception {
+        Path file = journalFile();
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.SYNC, 5)) {
+            journal.append(0, 0, E2_E4).join();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 0, 0, 1, 0, 0, 9, 9, 9, 9, 1, 2}));
+        }
+
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.SYNC, 5)) {
+            assertEquals(MoveJournal.RECORD_SIZE, Files.size(file));
+            journal.append(0, 1, E7_E5).join();
+            assertEquals(List.of(E2_E4, E7_E5), journal.readGames().get(0));
+        }
+    }
+}
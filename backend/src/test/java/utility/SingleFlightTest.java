@@ -0,0 +1,72 @@
+package utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link SingleFlight} class.
+ * Shares one computation between concurrent callers of the same key.
+ */
+class SingleFlightTest {
+
+    @Test
+    void get_concurrentSameKey_computedOnce() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            results.add(executor.submit(() -> flight.get("board", () -> {
+                runs.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 42;
+            })));
+            while (flight.computedCount() == 0) {
+                Thread.onSpinWait();
+            }
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> flight.get("board", runs::incrementAndGet)));
+            }
+            while (flight.coalescedCount() < 3) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(42, (int) result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, runs.get());
+        assertEquals(1, flight.computedCount());
+        assertEquals(3, flight.coalescedCount());
+    }
+
+    @Test
+    void get_afterCompletion_computesAgain() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+        assertEquals(1, (int) flight.get("board", runs::incrementAndGet));
+        assertEquals(2, (int) flight.get("board", runs::incrementAndGet));
+        assertThrows(IllegalStateException.class, () -> flight.get("board", () -> {
+            throw new IllegalStateException("failed");
+        }));
+        assertEquals(3, (int) flight.get("board", runs::incrementAndGet));
+        assertEquals(0, flight.coalescedCount());
+    }
+}
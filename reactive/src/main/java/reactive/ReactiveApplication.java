@@ -0,0 +1,48 @@
+package reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+
+/**
+ * Main Spring Boot application class for the reactive game API.
+ * 
+ * <p>Serves the same game service as the webapp on Spring WebFlux and
+ * Netty, where connections are not tied to threads:
+ * <ul>
+ *   <li>Component scanning for the service layer</li>
+ *   <li>Component scanning for the reactive controllers</li>
+ *   <li>The Netty server, declared explicitly: the backend jar bundles
+ *       its runtime classpath, Tomcat included, and auto-configuration
+ *       would otherwise prefer Tomcat</li>
+ * </ul>
+ * 
+ * @see reactive.controller.ReactiveGameController
+ * @version 1.0
+ */
+@ComponentScan(basePackages = "service")
+@ComponentScan(basePackages = "reactive.controller")
+@SpringBootApplication
+public class ReactiveApplication {
+
+    /**
+     * Main entry point for the reactive application.
+     * 
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveApplication.class, args);
+    }
+
+    /**
+     * Serves the API on Netty.
+     * 
+     * @return Netty server factory, configured from the {@code server.*} properties
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,251 @@
+package reactive.controller;
+
+import helper.Evaluation;
+import helper.GameState;
+import helper.OpeningInfo;
+import helper.TablebaseResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import service.IGameInterface;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Reactive REST controller for the chess game.
+ *
+ * <p>Serves the endpoints of the webapp's {@code GameController} with
+ * Mono handlers, plus a stream of new positions. Netty's event loop never
+ * waits on the game service: calls that may block on the move journal or
+ * on reloading an evicted game run on the bounded elastic scheduler, and
+ * idle stream subscribers hold no thread at all.
+ *
+ * @see IGameInterface
+ * @see GameState
+ * @version 1.0
+ */
+@RestController
+public class ReactiveGameController {
+
+    /** Games read at once by a batched state request */
+    private static final int BATCH_CONCURRENCY = 32;
+
+    /** Game service interface for managing game state and rules */
+    private final IGameInterface game;
+
+    /** Latest position of the current game, replayed to stream subscribers */
+    private final Sinks.Many<GameState> positions = Sinks.many().replay().latest();
+
+    /** Game of the latest position, guarded by {@link #positions} */
+    private int latestGameId = -1;
+
+    /** Version of the latest position, guarded by {@link #positions} */
+    private long latestVersion = -1;
+
+    /**
+     * Creates a new reactive game controller and subscribes to new positions.
+     *
+     * @param game Game service implementation
+     */
+    @Autowired
+    public ReactiveGameController(IGameInterface game) {
+        this.game = game;
+        game.addStateListener((gameId, version, state) -> {
+            if (gameId == game.getGameId()) {
+                publish(gameId, version, state);
+            }
+        });
+    }
+
+    /**
+     * Starts a new game.
+     *
+     * @return Id of the new game
+     */
+    @GetMapping("/newGame")
+    public Mono<Integer> newGame() {
+        return call(game::newGame);
+    }
+
+    /**
+     * Gets the current board state.
+     *
+     * @return Current game state
+     */
+    @GetMapping("/board")
+    public Mono<GameState> getBoard() {
+        return call(game::getBoard);
+    }
+
+    /**
+     * Handles a square selection or a move in "start-end" notation.
+     *
+     * @param polygonText Clicked square or move
+     * @return Game state after the click
+     */
+    @PostMapping("/onClick")
+    public Mono<GameState> onClick(@RequestBody Mono<String> polygonText) {
+        return polygonText.publishOn(Schedulers.boundedElastic()).map(game::onClick);
+    }
+
+    /**
+     * Gets the board states of many games in one request.
+     *
+     * <p>The body maps game ids to the version of the position the client
+     * already has, or null. Up to {@value #BATCH_CONCURRENCY} games are read
+     * at once and each changed state is written as newline-delimited JSON as
+     * soon as it is read; unchanged and unknown games are left out.
+     *
+     * @param knownVersions Known versions by game id
+     * @return Changed game states, each carrying its game id
+     */
+    @PostMapping(value = "/games/states", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<GameState> getBoards(@RequestBody Mono<Map<Integer, Long>> knownVersions) {
+        return knownVersions.flatMapIterable(Map::entrySet)
+            .flatMap(known -> call(() -> game.getBoardIfChanged(known.getKey(),
+                known.getValue() == null ? -1 : known.getValue())), BATCH_CONCURRENCY);
+    }
+
+    /**
+     * Gets the board state of a game after a number of moves, for review.
+     *
+     * @param gameId Id of the game
+     * @param ply Number of moves played
+     * @return Game state of the position, or an empty response if the game or ply is unknown
+     */
+    @GetMapping("/games/{gameId}/positions/{ply}")
+    public Mono<GameState> getBoardAt(@PathVariable int gameId, @PathVariable int ply) {
+        return call(() -> game.getBoardAt(gameId, ply));
+    }
+
+    /**
+     * Streams the board states of every position of a game as
+     * newline-delimited JSON, each written as soon as its move is replayed.
+     *
+     * @param gameId Id of the game
+     * @return Game states by ply, empty if the game is unknown
+     */
+    @GetMapping(value = "/games/{gameId}/positions", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<GameState> streamPositions(@PathVariable int gameId) {
+        return Flux.fromStream(() -> game.getPositions(gameId)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Takes back the last move.
+     *
+     * @return Game state after the takeback
+     */
+    @PostMapping("/takeback")
+    public Mono<GameState> takeBack() {
+        return call(game::takeBack);
+    }
+
+    /**
+     * Redoes the last move taken back.
+     *
+     * @return Game state after the move
+     */
+    @PostMapping("/redo")
+    public Mono<GameState> redo() {
+        return call(game::redo);
+    }
+
+    /**
+     * Gets the player whose turn it is.
+     *
+     * @return "W" or "B"
+     */
+    @GetMapping("/currentPlayer")
+    public Mono<String> getCurrentPlayer() {
+        return call(() -> game.getTurn().toString());
+    }
+
+    /**
+     * Gets the complete board state, including selection and game status.
+     *
+     * @return Complete game state
+     */
+    @GetMapping("/boardState")
+    public Mono<GameState> getBoardState() {
+        return call(game::getBoard);
+    }
+
+    /**
+     * Gets the static evaluation of the current position.
+     *
+     * @return Evaluation summary
+     */
+    @GetMapping("/evaluation")
+    public Mono<Evaluation> getEvaluation() {
+        return call(game::getEvaluation);
+    }
+
+    /**
+     * Gets opening book information for the current position.
+     *
+     * @return Opening name and book moves
+     */
+    @GetMapping("/opening")
+    public Mono<OpeningInfo> getOpeningInfo() {
+        return call(game::getOpeningInfo);
+    }
+
+    /**
+     * Gets the endgame tablebase result for the current position.
+     *
+     * @return Tablebase result, or an empty response if not covered
+     */
+    @GetMapping("/tablebase")
+    public Mono<TablebaseResult> getTablebaseResult() {
+        return call(game::getTablebaseResult);
+    }
+
+    /**
+     * Streams the current position of the current game followed by every
+     * new one.
+     *
+     * <p>Every state is a full snapshot, so a subscriber that cannot keep
+     * up only needs the newest one: it keeps at most one pending position,
+     * which newer ones replace, and never slows down the game. The latest
+     * position is always delivered.
+     *
+     * @return Server-sent events of game states
+     */
+    @GetMapping(value = "/board/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<GameState> streamBoard() {
+        return getBoard()
+            .doOnNext(state -> publish(state.getGameId(), state.getVersion(), state))
+            .thenMany(positions.asFlux())
+            .filter(state -> state.getGameId() == game.getGameId())
+            .onBackpressureLatest();
+    }
+
+    /**
+     * Emits a position unless an equal or newer one of the same game was
+     * emitted already.
+     */
+    private void publish(int gameId, long version, GameState state) {
+        // Moves may complete on several threads; the sink needs serialized emissions
+        synchronized (positions) {
+            if (gameId == latestGameId && version <= latestVersion) {
+                return;
+            }
+            latestGameId = gameId;
+            latestVersion = version;
+            positions.tryEmitNext(state);
+        }
+    }
+
+    private static <T> Mono<T> call(Callable<T> work) {
+        return Mono.fromCallable(work).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,63 @@
+package reactive.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller streaming games to spectators.
+ *
+ * <p>Events are written as the pre-serialized bytes shared by all
+ * spectators of a game, wrapped rather than copied, and flushed one by one.
+ *
+ * @see SpectatorHub
+ * @version 1.0
+ */
+@RestController
+public class SpectatorController {
+
+    /** Broadcaster of watched games */
+    private final SpectatorHub hub;
+
+    /**
+     * Creates a new spectator controller.
+     *
+     * @param hub Broadcaster of watched games
+     */
+    @Autowired
+    public SpectatorController(SpectatorHub hub) {
+        this.hub = hub;
+    }
+
+    /**
+     * Streams a game's current position and every new one as server-sent
+     * "state" events. Spectators that read slowly skip to the newest position.
+     *
+     * @param gameId Id of the game to watch
+     * @param response Response the events are written to
+     * @return Completion of the stream
+     */
+    @GetMapping("/games/{gameId}/spectate")
+    public Mono<Void> spectate(@PathVariable int gameId, ServerHttpResponse response) {
+        DataBufferFactory buffers = response.bufferFactory();
+        response.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+        response.getHeaders().setCacheControl("no-cache");
+        return response.writeAndFlushWith(hub.watch(gameId).map(event -> Mono.just(buffers.wrap(event))));
+    }
+
+    /**
+     * Gets the number of spectators watching a game.
+     *
+     * @param gameId Id of the game
+     * @return Current spectators
+     */
+    @GetMapping("/games/{gameId}/spectators")
+    public int getSpectatorCount(@PathVariable int gameId) {
+        return hub.spectatorCount(gameId);
+    }
+}
@@ -0,0 +1,190 @@
+package reactive.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import helper.GameState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import service.IGameInterface;
+import utility.Log;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Broadcasts the positions of watched games to their spectators.
+ *
+ * <p>Each position is serialized once, as a complete server-sent event,
+ * and the same bytes are handed to every spectator of the game. Only games
+ * with at least one spectator are serialized at all.
+ *
+ * <p>Every event is a full snapshot, so a spectator that falls behind only
+ * needs the newest one: each spectator buffers at most one pending event,
+ * which newer positions replace, and never holds up the game or other
+ * spectators.
+ *
+ * @see SpectatorController
+ * @version 1.0
+ */
+@Component
+public class SpectatorHub {
+
+    private static final String TAG = SpectatorHub.class.getSimpleName();
+
+    /** Game service interface for reading positions */
+    private final IGameInterface game;
+
+    /** Serializer of game states */
+    private final ObjectMapper mapper;
+
+    /** Channels of watched games by game id */
+    private final ConcurrentMap<Integer, Channel> channels = new ConcurrentHashMap<>();
+
+    /** Events serialized, one per position of a watched game */
+    private final AtomicLong serialized = new AtomicLong();
+
+    /**
+     * Creates a spectator hub and subscribes to new positions.
+     *
+     * @param game Game service implementation
+     * @param mapper Serializer of game states
+     */
+    @Autowired
+    public SpectatorHub(IGameInterface game, ObjectMapper mapper) {
+        this.game = game;
+        this.mapper = mapper;
+        game.addStateListener((gameId, version, state) -> {
+            Channel channel = channels.get(gameId);
+            if (channel != null) {
+                channel.emit(version, state);
+            }
+        });
+    }
+
+    /**
+     * Watches a game: the current position followed by every new one.
+     *
+     * @param gameId Id of the game
+     * @return Server-sent events, each a complete snapshot of the game
+     */
+    public Flux<byte[]> watch(int gameId) {
+        return Flux.defer(() -> {
+            Channel channel = join(gameId);
+            return channel.events.asFlux()
+                .onBackpressureLatest()
+                .doFinally(signal -> leave(channel));
+        });
+    }
+
+    /**
+     * Gets the number of spectators of a game.
+     *
+     * @param gameId Id of the game
+     * @return Current spectators
+     */
+    public int spectatorCount(int gameId) {
+        Channel channel = channels.get(gameId);
+        return channel == null ? 0 : channel.events.currentSubscriberCount();
+    }
+
+    /**
+     * Gets the number of events serialized.
+     *
+     * @return Positions serialized for spectators
+     */
+    public long serializedCount() {
+        return serialized.get();
+    }
+
+    private Channel join(int gameId) {
+        while (true) {
+            Channel channel = channels.computeIfAbsent(gameId, id -> {
+                Channel created = new Channel(id);
+                // Seeded after registering, so a move made meanwhile is emitted by the listener
+                Mono.<GameState>fromCallable(() -> game.getBoard(id))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .subscribe(created::seed, e -> Log.e(TAG, "Reading game " + id + " failed: " + e));
+                return created;
+            });
+            synchronized (channel) {
+                if (!channel.closed) {
+                    channel.watchers++;
+                    return channel;
+                }
+            }
+        }
+    }
+
+    private void leave(Channel channel) {
+        synchronized (channel) {
+            if (--channel.watchers == 0) {
+                channel.closed = true;
+                channels.remove(channel.gameId, channel);
+            }
+        }
+    }
+
+    private byte[] toEvent(GameState state) {
+        try {
+            String json = mapper.writeValueAsString(state);
+            serialized.incrementAndGet();
+            return ("event: state\ndata: " + json + "\n\n").getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            Log.e(TAG, "Serializing game state failed: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Spectator channel of one game.
+     */
+    private final class Channel {
+
+        private final int gameId;
+
+        /** Latest event, replayed to spectators joining later */
+        private final Sinks.Many<byte[]> events = Sinks.many().replay().latest();
+
+        /** Version of the latest event, -1 before the first */
+        private long version = -1;
+
+        /** Spectators joined, guarded by the channel */
+        private int watchers;
+
+        /** Whether the last spectator left, guarded by the channel */
+        private boolean closed;
+
+        private Channel(int gameId) {
+            this.gameId = gameId;
+        }
+
+        /**
+         * Emits the first position, unless a move was emitted already.
+         */
+        private synchronized void seed(GameState state) {
+            if (version < 0 && state != null) {
+                emit(state.getVersion(), state);
+            }
+        }
+
+        /**
+         * Emits a position newer than the latest one.
+         */
+        private synchronized void emit(long newVersion, GameState state) {
+            if (newVersion < version) {
+                return;
+            }
+            byte[] event = toEvent(state);
+            if (event != null) {
+                version = newVersion;
+                events.tryEmitNext(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Controller package for the reactive game API.
+ * 
+ * <p>This package provides:
+ * <ul>
+ *   <li>Non-blocking REST endpoints for game operations</li>
+ *   <li>Push streams of new positions</li>
+ * </ul>
+ * 
+ * <p>Key components:
+ * <ul>
+ *   <li>{@link reactive.controller.ReactiveGameController} - Reactive game controller</li>
+ * </ul>
+ * 
+ * @see reactive.controller.ReactiveGameController
+ * @version 1.0
+ */
+package reactive.controller;
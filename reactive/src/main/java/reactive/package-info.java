@@ -0,0 +1,17 @@
+/**
+ * Main application package for the reactive game API.
+ * 
+ * <p>This package contains:
+ * <ul>
+ *   <li>Spring Boot application entry point</li>
+ *   <li>Component scanning setup</li>
+ * </ul>
+ * 
+ * <p>Key components:
+ * <ul>
+ *   <li>{@link reactive.ReactiveApplication} - Main application class</li>
+ * </ul>
+ * 
+ * @version 1.0
+ */
+package reactive;
@@ -9,3 +9,4 @@
 rootProject.name = "3-Player-Chess-main-2"
 include("backend")
 include("webapp")
+include("reactive")
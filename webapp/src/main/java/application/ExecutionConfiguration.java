@@ -0,0 +1,62 @@
+package application;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import utility.Log;
+import utility.VirtualThreads;
+
+/**
+ * Spring configuration for the opt-in virtual-thread execution mode.
+ *
+ * <p>With {@code chess.threads.virtual=true} on a JDK with virtual threads
+ * (21 or later), every request handled by Tomcat, and so every
+ * {@link application.controller.GameController} call with the service work
+ * it blocks on, runs on its own virtual thread instead of a thread of
+ * Tomcat's fixed pool. Spring's application task executor, used for
+ * asynchronous request processing, runs on virtual threads as well.
+ *
+ * <p>On an older JDK the mode logs an error and both executors keep their
+ * default platform-thread pools. Without the property nothing changes.
+ *
+ * @see VirtualThreads
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "chess.threads.virtual", havingValue = "true")
+public class ExecutionConfiguration {
+
+    private static final String TAG = ExecutionConfiguration.class.getSimpleName();
+
+    /**
+     * Replaces Tomcat's request thread pool with a virtual thread per request.
+     *
+     * @return Customizer of the Tomcat connector
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandler() {
+        return handler -> VirtualThreads.newPerTaskExecutor("http-virtual-").ifPresentOrElse(
+            handler::setExecutor,
+            () -> Log.e(TAG, "Virtual threads unavailable, requests run on the Tomcat pool"));
+    }
+
+    /**
+     * Runs Spring's asynchronous tasks on virtual threads, falling back to
+     * the pool configured by {@code spring.task.execution.*}.
+     *
+     * @param builder Builder of the default application task executor
+     * @return Application task executor
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return VirtualThreads.newPerTaskExecutor("task-virtual-")
+            .<AsyncTaskExecutor>map(TaskExecutorAdapter::new)
+            .orElseGet(builder::build);
+    }
+}
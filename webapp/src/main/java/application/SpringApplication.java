@@ -2,6 +2,7 @@ package application;
 
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
 
 /**
  * Main Spring Boot application class for the chess game.
@@ -11,6 +12,8 @@ import org.springframework.context.annotation.ComponentScan;
  * <ul>
  *   <li>Component scanning for service layer</li>
  *   <li>Component scanning for controllers</li>
+ *   <li>Opt-in virtual-thread request execution ({@link ExecutionConfiguration})</li>
+ *   <li>Fingerprinted, precompressed static assets ({@link StaticResourceConfiguration})</li>
  *   <li>Auto-configuration of Spring Boot features</li>
  *   <li>Web server initialization</li>
  * </ul>
@@ -30,6 +33,7 @@ import org.springframework.context.annotation.ComponentScan;
 @ComponentScan(basePackages = "service")
 @ComponentScan(basePackages = "application.controller")
 @SpringBootApplication
+@Import({ExecutionConfiguration.class, StaticResourceConfiguration.class})
 public class SpringApplication {
     
     /**
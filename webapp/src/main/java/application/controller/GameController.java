@@ -1,9 +1,21 @@
 package application.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import service.IGameInterface;
+import helper.Evaluation;
 import helper.GameState;
+import helper.OpeningInfo;
+import helper.TablebaseResult;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * REST controller for managing chess game interactions.
@@ -33,14 +45,19 @@ public class GameController {
     /** Game service interface for managing game state and rules */
     private final IGameInterface game;
 
+    /** Serializer of streamed game states */
+    private final ObjectMapper mapper;
+
     /**
      * Creates a new game controller with injected game service.
      * 
      * @param game Game service implementation
+     * @param mapper Serializer of streamed game states
      */
     @Autowired
-    public GameController(IGameInterface game) {
+    public GameController(IGameInterface game, ObjectMapper mapper) {
         this.game = game;
+        this.mapper = mapper;
     }
 
     /**
@@ -52,10 +69,13 @@ public class GameController {
      *   <li>Clears any existing game progress</li>
      *   <li>Sets up pieces in starting positions</li>
      * </ul>
+     * 
+     * @return Id of the new game
      */
     @GetMapping("/newGame")
-    public void newGame() {
-        // Additional logic can be added here if necessary
+    @ResponseBody
+    public int newGame() {
+        return game.newGame();
     }
 
     /**
@@ -77,6 +97,29 @@ public class GameController {
         return game.getBoard();
     }
 
+    /**
+     * Gets the board states of many games in one request.
+     * 
+     * <p>The body maps game ids to the version of the position the client
+     * already has, or null. Only games whose position changed are returned,
+     * as newline-delimited JSON, each state written as soon as it is read.
+     * Unknown games are left out.
+     * 
+     * @param knownVersions Known versions by game id
+     * @return Stream of changed game states, each carrying its game id
+     */
+    @PostMapping(value = "/games/states", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseBody
+    public StreamingResponseBody getBoards(@RequestBody Map<Integer, Long> knownVersions) {
+        return out -> {
+            try (Stream<GameState> states = game.getBoards(knownVersions)) {
+                states.forEach(state -> writeLine(out, state));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
     /**
      * Handles player clicks on the board.
      * 
@@ -97,6 +140,62 @@ public class GameController {
         return game.onClick(polygonText);
     }
 
+    /**
+     * Gets the board state of a game after a number of moves, for review.
+     * 
+     * @param gameId Id of the game
+     * @param ply Number of moves played
+     * @return Game state of the position, or an empty body if the game or ply is unknown
+     */
+    @GetMapping("/games/{gameId}/positions/{ply}")
+    @ResponseBody
+    public GameState getBoardAt(@PathVariable int gameId, @PathVariable int ply) {
+        return game.getBoardAt(gameId, ply);
+    }
+
+    /**
+     * Gets the board states of every position of a game, for replay.
+     * 
+     * <p>The states are written as newline-delimited JSON, each as soon as
+     * its move is replayed, so no more than one position is held at a time.
+     * 
+     * @param gameId Id of the game
+     * @return Stream of game states by ply, empty if the game is unknown
+     */
+    @GetMapping(value = "/games/{gameId}/positions", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseBody
+    public StreamingResponseBody getPositions(@PathVariable int gameId) {
+        return out -> {
+            try (Stream<GameState> positions = game.getPositions(gameId)) {
+                positions.forEach(state -> writeLine(out, state));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    /**
+     * Takes back the last move.
+     * 
+     * @return Game state after the takeback
+     */
+    @PostMapping("/takeback")
+    @ResponseBody
+    public GameState takeBack() {
+        return game.takeBack();
+    }
+
+    /**
+     * Redoes the last move taken back.
+     * 
+     * @return Game state after the move
+     */
+    @PostMapping("/redo")
+    @ResponseBody
+    public GameState redo() {
+        return game.redo();
+    }
+
     /**
      * Gets the current player's turn.
      * 
@@ -131,4 +230,72 @@ public class GameController {
     public GameState getBoardState() {
         return game.getBoard();
     }
+
+    /**
+     * Gets the static evaluation of the current position.
+     * 
+     * <p>Returns:
+     * <ul>
+     *   <li>Score in centipawns (positive favours White)</li>
+     *   <li>Material for each side</li>
+     *   <li>Game phase</li>
+     * </ul>
+     * 
+     * @return Evaluation summary
+     */
+    @GetMapping("/evaluation")
+    @ResponseBody
+    public Evaluation getEvaluation() {
+        return game.getEvaluation();
+    }
+
+    /**
+     * Gets opening book information for the current position.
+     * 
+     * <p>Returns:
+     * <ul>
+     *   <li>Opening name, if known</li>
+     *   <li>Book moves for the side to move, most popular first</li>
+     * </ul>
+     * 
+     * @return Opening information
+     */
+    @GetMapping("/opening")
+    @ResponseBody
+    public OpeningInfo getOpeningInfo() {
+        return game.getOpeningInfo();
+    }
+
+    /**
+     * Gets the exact endgame result for the current position.
+     * 
+     * <p>Returns:
+     * <ul>
+     *   <li>Outcome for the side to move (WIN, DRAW or LOSS)</li>
+     *   <li>Distance to mate in plies</li>
+     * </ul>
+     * 
+     * @return Tablebase result, or an empty body if the material is not covered
+     */
+    @GetMapping("/tablebase")
+    @ResponseBody
+    public TablebaseResult getTablebaseResult() {
+        return game.getTablebaseResult();
+    }
+
+    /**
+     * Writes a game state as one line of JSON. States are serialized on the
+     * threads that read them and written one at a time.
+     */
+    private void writeLine(OutputStream out, GameState state) {
+        try {
+            byte[] json = mapper.writeValueAsBytes(state);
+            synchronized (out) {
+                out.write(json);
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -10,8 +10,18 @@ const colorMap = {
     'B': 'Black'
 };
 
+const SVG_NS = 'http://www.w3.org/2000/svg';
+
 let theme = 'arialTheme';  // Default theme
 let selectedSquare = null; // Track selected square
+let legalMoves = {};       // Legal target squares of the side to move, by start square
+
+const squareNodes = {};    // Square rects by square id, created once
+const pieceNodes = {};     // Piece glyphs by square id, for occupied squares only
+let renderedBoard = {};    // Piece codes by square id, as currently rendered
+let renderedEliminated = null; // Eliminated pieces as currently rendered, joined per colour
+let pendingState = null;   // Latest game state waiting for the next animation frame
+let confirmedState = null; // Latest game state received from the server
 
 // Initialize the game when the page loads
 function bodyLoaded() {
@@ -21,14 +31,16 @@ function bodyLoaded() {
     requestCurrentPlayer();
 }
 
-// Update theme when radio buttons are clicked
+// Update theme when radio buttons are clicked, restyling the rendered pieces in place
 function updateTheme(themeId) {
     theme = themeId;
-    // Re-render the board with new theme
-    requestUpdatedBoard();
+    Object.values(pieceNodes).forEach(node => node.setAttribute('class', theme));
+    document.querySelectorAll('.eliminated-piece').forEach(node => {
+        node.className = 'eliminated-piece ' + theme;
+    });
 }
 
-// Render the chessboard squares dynamically
+// Render the chessboard squares once; clicks are handled by a single listener on the board
 function renderBoard() {
     const boardGroup = document.getElementById('board');
     boardGroup.innerHTML = ''; // Clear existing squares
@@ -36,37 +48,62 @@ function renderBoard() {
     // Create squares
     for (let row = 7; row >= 0; row--) {
         for (let col = 0; col < 8; col++) {
-            const square = document.createElementNS('http://www.w3.org/2000/svg', 'rect');
+            const square = document.createElementNS(SVG_NS, 'rect');
             square.setAttribute('x', col * 60);  // Reduced size
             square.setAttribute('y', (7 - row) * 60);  // Reduced size
             square.setAttribute('width', 60);    // Reduced size
             square.setAttribute('height', 60);   // Reduced size
             square.setAttribute('fill', (row + col) % 2 === 0 ? '#f0d9b5' : '#b58863');
-            square.setAttribute('id', `${String.fromCharCode(97 + col)}${8 - row}`);
-            square.addEventListener('click', () => handleSquareClick(square.id));
+            square.setAttribute('id', `${String.fromCharCode(97 + col)}${row + 1}`);
+            squareNodes[square.id] = square;
             boardGroup.appendChild(square);
         }
     }
+    boardGroup.addEventListener('click', event => {
+        if (squareNodes[event.target.id] === event.target) {
+            handleSquareClick(event.target.id);
+        }
+    });
 }
 
-// Handle square clicks
+// Handle square clicks, validating moves against the legal moves of the last game state
 function handleSquareClick(squareId) {
     if (selectedSquare === null) {
         // First click - select the square
-        selectedSquare = squareId;
-        highlightSquare(squareId, 'rgba(0, 255, 0, 0.3)'); // Green highlight for selected square
-    } else {
-        // Second click - attempt to move
-        const moveCommand = `${selectedSquare}-${squareId}`; // Adds separator between positions
-        sendPolygonClicked(moveCommand);
-        unhighlightSquare(selectedSquare);
-        selectedSquare = null;
+        selectSquare(squareId);
+        return;
+    }
+    // Second click - move if legal, otherwise select another piece or cancel without a request
+    const startSquare = selectedSquare;
+    const targets = legalMoves[startSquare] || [];
+    clearSelection();
+    if (targets.includes(squareId)) {
+        sendPolygonClicked(`${startSquare}-${squareId}`); // Adds separator between positions
+    } else if (squareId !== startSquare) {
+        selectSquare(squareId);
     }
 }
 
+// Select a piece of the side to move and highlight its legal moves
+function selectSquare(squareId) {
+    if (!legalMoves[squareId]) {
+        return;
+    }
+    selectedSquare = squareId;
+    highlightSquare(squareId, 'rgba(0, 255, 0, 0.3)'); // Green highlight for selected square
+    displayPossibleMoves(legalMoves[squareId]);
+}
+
+// Remove the highlights of the selected square and its legal moves
+function clearSelection() {
+    unhighlightSquare(selectedSquare);
+    (legalMoves[selectedSquare] || []).forEach(unhighlightSquare);
+    selectedSquare = null;
+}
+
 // Highlight a square
 function highlightSquare(squareId, color) {
-    const square = document.getElementById(squareId);
+    const square = squareNodes[squareId];
     if (square) {
         square.setAttribute('fill', color);
     }
@@ -74,9 +111,9 @@ function highlightSquare(squareId, color) {
 
 // Unhighlight a square
 function unhighlightSquare(squareId) {
-    const square = document.getElementById(squareId);
+    const square = squareNodes[squareId];
     if (square) {
-        const row = 8 - parseInt(squareId[1]);
+        const row = parseInt(squareId[1]) - 1;
         const col = squareId.charCodeAt(0) - 97;
         square.setAttribute('fill', (row + col) % 2 === 0 ? '#f0d9b5' : '#b58863');
     }
@@ -103,26 +140,40 @@ function getColorForDisplay(color) {
     }
 }
 
-// Update the board after a response from the server
+// Update the board after a response from the server. Legal moves are taken at once so clicks
+// are validated against the latest state; rendering waits for the next animation frame, and
+// only the latest of several states arriving within one frame is rendered.
 function updateBoard(gameState) {
-    console.log('New GameState:', gameState);
+    confirmedState = gameState;
+    showState(gameState);
+}
+
+// Schedule a game state, confirmed or optimistic, for rendering
+function showState(gameState) {
+    legalMoves = gameState['legalMoves'] || {};
+    if (pendingState === null) {
+        requestAnimationFrame(renderPendingState);
+    }
+    pendingState = gameState;
+}
+
+// Render the latest game state, touching only what changed since the last one
+function renderPendingState() {
+    const gameState = pendingState;
+    pendingState = null;
 
     const board = gameState['board'];
     const possibleMoves = gameState['possibleMoves'];
-    const winner = gameState['winner'];
-    const gameOver = gameState['gameOver'];
     const eliminatedPieces = {
         white: gameState['eliminatedWhitePieces'],
         black: gameState['eliminatedBlackPieces']
     };
 
-    if (gameOver) {
-        showGameOverPopup(winner);
+    if (gameState['gameOver']) {
+        showGameOverPopup(gameState['winner'], gameState['drawReason']);
     }
 
-    clearBoard(); // Clear the board before updating pieces
     if (board) {
-        console.log('Updating pieces with board:', board);
         updatePieces(board);
     }
 
@@ -130,78 +181,65 @@ function updateBoard(gameState) {
         displayPossibleMoves(possibleMoves);
     }
 
-    if (eliminatedPieces) {
+    if (eliminatedPieces.white && eliminatedPieces.black) {
         updateEliminatedPieces(eliminatedPieces);
     }
 }
 
-// Parse position string that may include color prefix
-function parsePosition(posStr) {
-    return posStr;
-}
-
-// Render the pieces on the board
+// Patch the pieces on the board: remove glyphs from emptied squares, and create or restyle
+// glyphs only on squares whose piece changed
 function updatePieces(board) {
     const piecesGroup = document.getElementById('pieces');
     if (!piecesGroup) {
         console.error('Pieces group not found');
         return;
     }
-    
-    // Create a map of current piece positions
-    const currentPieces = new Map();
-    for (let i = 0; i < piecesGroup.children.length; i++) {
-        const piece = piecesGroup.children[i];
-        const x = piece.getAttribute('x');
-        const y = piece.getAttribute('y');
-        currentPieces.set(`${x}-${y}`, piece);
-    }
 
-    piecesGroup.innerHTML = '';
+    for (const squareId in renderedBoard) {
+        if (!board[squareId] && pieceNodes[squareId]) {
+            piecesGroup.removeChild(pieceNodes[squareId]);
+            delete pieceNodes[squareId];
+        }
+    }
 
-    for (const pos in board) {
-        const value = board[pos];
-        console.log(`Processing piece at ${pos}: ${value}`);
-        
-        if (!value || value.length < 2) {
-            console.error(`Invalid piece value at ${pos}: ${value}`);
+    for (const squareId in board) {
+        const value = board[squareId];
+        if (renderedBoard[squareId] === value) {
             continue;
         }
-
-        const pieceColor = value[0];
-        const pieceToken = value[1];
-
-        // Parse position with color prefix
-        const standardPos = parsePosition(pos);
-        if (!standardPos) continue;
-
-        // Parse position (e.g., "a1", "e4", etc.)
-        const col = standardPos.charCodeAt(0) - 97;  // 'a' -> 0, 'b' -> 1, etc.
-        const row = 8 - parseInt(standardPos[1]);    // '1' -> 7, '2' -> 6, etc.
-
-        if (isNaN(col) || isNaN(row)) {
-            console.error(`Invalid position: ${standardPos}`);
+        if (!value || value.length < 2 || !squareNodes[squareId]) {
+            console.error(`Invalid piece value at ${squareId}: ${value}`);
             continue;
         }
-
-        const x = col * 60 + 30;  // Center in square
-        const y = row * 60 + 30;  // Center in square
-
-        const textElement = getPieceText(x, y, pieceColor, pieceToken);
-        if (textElement) {
-            piecesGroup.appendChild(textElement);
+        let node = pieceNodes[squareId];
+        if (!node) {
+            node = createPieceNode(squareId);
+            pieceNodes[squareId] = node;
+            piecesGroup.appendChild(node);
         }
+        setPieceGlyph(node, value[0], value[1]);
     }
+    renderedBoard = board;
 }
 
-// Helper function to create a text element for a piece
-function getPieceText(x, y, color, pieceToken) {
-    const textElement = document.createElementNS('http://www.w3.org/2000/svg', 'text');
-    textElement.setAttribute('x', x);
-    textElement.setAttribute('y', y);
+// Create the text element holding the glyph of a square's piece
+function createPieceNode(squareId) {
+    const col = squareId.charCodeAt(0) - 97;  // 'a' -> 0, 'b' -> 1, etc.
+    const row = 8 - parseInt(squareId[1]);    // '1' -> 7, '2' -> 6, etc.
+
+    const textElement = document.createElementNS(SVG_NS, 'text');
+    textElement.setAttribute('x', col * 60 + 30);  // Center in square
+    textElement.setAttribute('y', row * 60 + 30);  // Center in square
     textElement.setAttribute('text-anchor', 'middle');
     textElement.setAttribute('dominant-baseline', 'middle');
-    
+    textElement.setAttribute('font-size', '40');
+    textElement.setAttribute('font-weight', 'bold');
+    textElement.setAttribute('class', theme);
+    return textElement;
+}
+
+// Show a piece in a glyph element
+function setPieceGlyph(textElement, color, pieceToken) {
     if (color === 'W') {
         // White pieces (bottom)
         textElement.setAttribute('fill', '#FFFFFF');
@@ -211,42 +249,96 @@ function getPieceText(x, y, color, pieceToken) {
         // Black pieces (top)
         textElement.setAttribute('fill', '#000000');
         textElement.setAttribute('stroke', 'none');
+        textElement.removeAttribute('stroke-width');
     }
-    
-    textElement.setAttribute('font-size', '40');
-    textElement.setAttribute('font-weight', 'bold');
-    textElement.setAttribute('class', theme);
-
-    const unicode = pieceMap[color + pieceToken];
-    textElement.textContent = unicode;
-    console.log(`Rendering piece: ${pieceToken} (${unicode}) at (${x}, ${y}) with color ${colorMap[color]}`);
+    textElement.textContent = pieceMap[color + pieceToken];
+}
 
-    return textElement;
+// Send a legal move to the server. The move is shown at once and the server's answer,
+// which carries the version of the position, confirms it or rolls it back.
+function sendPolygonClicked(polygonId) {
+    const movedFrom = confirmedState;
+    applyOptimisticMove(polygonId);
+
+    fetch('/onClick', {
+        method: 'POST',
+        headers: {'Content-Type': 'text/plain'},
+        body: polygonId
+    }).then(response => {
+        if (!response.ok) {
+            throw new Error(`${response.status} ${response.statusText}`);
+        }
+        return response.json();
+    }).then(data => {
+        if (movedFrom && data['version'] === movedFrom['version']) {
+            console.warn("Move rejected by the server:", polygonId);
+        }
+        updateBoard(data);
+        requestCurrentPlayer();
+    }).catch(error => {
+        console.error("Error sending move:", error);
+        if (movedFrom) {
+            updateBoard(movedFrom);
+        }
+        requestCurrentPlayer();
+    });
 }
 
-// Clear all pieces from the board
-function clearBoard() {
-    const piecesGroup = document.getElementById('pieces');
-    if (piecesGroup) {
-        piecesGroup.innerHTML = '';
+// Show a move of the last confirmed state before the server has answered. No further move
+// is legal until it has.
+function applyOptimisticMove(move) {
+    if (!confirmedState || !confirmedState['board']) {
+        return;
     }
+    const [from, to] = move.split('-');
+    const board = Object.assign({}, confirmedState['board']);
+    const piece = board[from];
+    if (!piece) {
+        return;
+    }
+    const captured = board[to];
+    const fromCol = from.charCodeAt(0);
+    const toCol = to.charCodeAt(0);
+    const rank = to[1];
+    delete board[from];
+
+    if (piece[1] === 'K' && Math.abs(toCol - fromCol) === 2) {
+        // Castling: the rook jumps over the king
+        const rookFrom = String.fromCharCode(toCol > fromCol ? 104 : 97) + rank;
+        const rookTo = String.fromCharCode((fromCol + toCol) / 2) + rank;
+        board[rookTo] = board[rookFrom];
+        delete board[rookFrom];
+    } else if (piece[1] === 'P' && fromCol !== toCol && !captured) {
+        // En passant: the captured pawn stands beside the start square
+        delete board[to[0] + from[1]];
+    }
+    board[to] = piece[1] === 'P' && (rank === '8' || rank === '1') ? piece[0] + 'Q' : piece;
+
+    const eliminated = piece[0] === 'W' ? 'eliminatedBlackPieces' : 'eliminatedWhitePieces';
+    const optimistic = Object.assign({}, confirmedState, {
+        board: board,
+        legalMoves: {},
+        possibleMoves: []
+    });
+    if (captured) {
+        optimistic[eliminated] = (confirmedState[eliminated] || []).concat([captured]);
+    }
+    showState(optimistic);
+    updateCurrentPlayer(piece[0] === 'W' ? 'B' : 'W');
 }
 
-// Send the clicked polygon (square) to the server for processing
-function sendPolygonClicked(polygonId) {
-    console.log("Sending move:", polygonId);
+// Take back or redo a move on the server
+function sendHistoryCommand(path) {
     const request = new XMLHttpRequest();
-    request.open("POST", "/onClick", false);
-    request.setRequestHeader('Content-Type', 'text/plain');
-    request.send(polygonId);
+    request.open("POST", path, false);
+    request.send(null);
 
     if (request.status === 200) {
-        const data = JSON.parse(request.response);
-        updateBoard(data);
-        // Request current player after move
+        clearSelection();
+        updateBoard(JSON.parse(request.response));
         requestCurrentPlayer();
     } else {
-        console.error("Error sending move:", request.status, request.statusText);
+        console.error("Error sending " + path + ":", request.status, request.statusText);
     }
 }
 
@@ -280,11 +372,22 @@ function requestCurrentPlayer() {
     }
 }
 
+// Rules that draw a game, as named in the popup
+const drawRules = {
+    THREEFOLD_REPETITION: 'threefold repetition',
+    FIFTY_MOVE_RULE: 'the fifty-move rule',
+    STALEMATE: 'stalemate'
+};
+
 // Show a game over popup when the game ends
-function showGameOverPopup(winner) {
+function showGameOverPopup(winner, drawReason) {
+    document.getElementById('popup').style.display = 'block';
+    if (drawReason) {
+        document.getElementById('winner').innerText = `The game is drawn by ${drawRules[drawReason]}.`;
+        return;
+    }
     const colourName = colorMap[winner] || 'Unknown';
     const playerName = localStorage.getItem(colourName);
-    document.getElementById('popup').style.display = 'block';
     const winnerText = `${playerName} (${colourName}) has won the Game!`;
     document.getElementById('winner').innerText = winnerText;
 }
@@ -298,20 +401,19 @@ function closePopup() {
 function displayPossibleMoves(highlightedPolygons) {
     if (!highlightedPolygons) return;
     
-    highlightedPolygons.forEach(polygonId => {
-        const square = document.getElementById(polygonId);
-        if (square) {
-            square.setAttribute('fill', 'rgba(255, 255, 0, 0.5)');
-        }
-    });
+    highlightedPolygons.forEach(polygonId => highlightSquare(polygonId, 'rgba(255, 255, 0, 0.5)'));
 }
 
-// Add this function to update eliminated pieces
+// Update the eliminated pieces, only when they changed
 function updateEliminatedPieces(eliminatedPieces) {
     const whiteList = document.getElementById('white-eliminated-list');
     const blackList = document.getElementById('black-eliminated-list');
     
     if (!whiteList || !blackList) return;
+
+    const rendered = eliminatedPieces.white.join() + '|' + eliminatedPieces.black.join();
+    if (rendered === renderedEliminated) return;
+    renderedEliminated = rendered;
     
     // Clear current lists
     whiteList.innerHTML = '';